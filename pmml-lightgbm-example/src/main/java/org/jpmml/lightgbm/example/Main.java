@@ -19,13 +19,15 @@
 package org.jpmml.lightgbm.example;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import com.beust.jcommander.DefaultUsageFormatter;
 import com.beust.jcommander.IUsageFormatter;
@@ -33,8 +35,10 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 import org.dmg.pmml.PMML;
+import org.jpmml.lightgbm.ConversionCache;
 import org.jpmml.lightgbm.GBDT;
 import org.jpmml.lightgbm.HasLightGBMOptions;
+import org.jpmml.lightgbm.JavaCodeGenerator;
 import org.jpmml.lightgbm.LightGBMUtil;
 import org.jpmml.lightgbm.ObjectiveFunction;
 import org.jpmml.model.JAXBSerializer;
@@ -46,7 +50,7 @@ public class Main {
 
 	@Parameter (
 		names = {"--lgbm-input"},
-		description = "LightGBM text input file",
+		description = "LightGBM text input file. May be gzip, zlib or zip compressed",
 		required = true,
 		order = 1
 	)
@@ -55,11 +59,24 @@ public class Main {
 	@Parameter (
 		names = {"--pmml-output"},
 		description = "PMML output file",
-		required = true,
 		order = 2
 	)
 	private File output = null;
 
+	@Parameter (
+		names = {"--java-output"},
+		description = "Java source output file. The class is named after the file",
+		order = 2
+	)
+	private File javaOutput = null;
+
+	@Parameter (
+		names = {"--java-package"},
+		description = "Java package name. Defaults to the default package",
+		order = 2
+	)
+	private String javaPackage = null;
+
 	@Parameter (
 		names = {"--objective"},
 		description = "Custom objective function",
@@ -104,6 +121,20 @@ public class Main {
 	)
 	private Integer numIteration = null;
 
+	@Parameter (
+		names = {"--cache-dir"},
+		description = "PMML cache directory. Conversions that have been done before are copied from the cache",
+		order = 9
+	)
+	private File cacheDir = null;
+
+	@Parameter (
+		names = {"--cache-size"},
+		description = "PMML cache size limit in bytes. Least recently used documents are evicted first",
+		order = 10
+	)
+	private long cacheSize = 1024L * 1024L * 1024L;
+
 	@Parameter (
 		names = {"--help"},
 		description = "Show the list of configuration options and exit",
@@ -123,6 +154,10 @@ public class Main {
 
 		try {
 			commander.parse(args);
+
+			if(main.output == null && main.javaOutput == null && !main.help){
+				throw new ParameterException("Expected at least one of the following options: --pmml-output, --java-output");
+			}
 		} catch(ParameterException pe){
 			StringBuilder sb = new StringBuilder();
 
@@ -150,13 +185,49 @@ public class Main {
 	}
 
 	private void run() throws Exception {
+		boolean convert = (this.output != null);
+
+		ConversionCache cache = null;
+		String cacheKey = null;
+
+		if(convert && this.cacheDir != null){
+			cache = new ConversionCache(this.cacheDir, this.cacheSize);
+
+			Map<String, Object> cacheOptions = new LinkedHashMap<>();
+			cacheOptions.put("objective", this.objectiveFunction);
+			cacheOptions.put(HasLightGBMOptions.OPTION_COMPACT, this.compact);
+			cacheOptions.put(HasLightGBMOptions.OPTION_NAN_AS_MISSING, this.nanAsMissing);
+			cacheOptions.put(HasLightGBMOptions.OPTION_NUM_ITERATION, this.numIteration);
+
+			cacheKey = ConversionCache.computeKey(this.input, cacheOptions, this.targetName, this.targetCategories);
+
+			if(cache.copyTo(cacheKey, this.output)){
+				logger.info("Copied PMML from cache");
+
+				convert = false;
+			}
+		} // End if
+
+		if(!convert && this.javaOutput == null){
+			return;
+		}
+
 		GBDT gbdt;
 
-		try(InputStream is = new FileInputStream(this.input)){
+		try {
 			logger.info("Loading GBDT..");
 
 			long begin = System.currentTimeMillis();
-			gbdt = LightGBMUtil.loadGBDT(is);
+
+			// Trees outside of the selected iterations are never loaded
+			if(this.numIteration != null){
+				gbdt = LightGBMUtil.loadLazyGBDT(this.input);
+			} else
+
+			{
+				gbdt = LightGBMUtil.loadGBDT(this.input, ForkJoinPool.commonPool());
+			}
+
 			long end = System.currentTimeMillis();
 
 			logger.info("Loaded GBDT in {} ms.", (end - begin));
@@ -174,6 +245,40 @@ public class Main {
 			gbdt.setObjectiveFunction(objectiveFunction);
 		}
 
+		if(this.javaOutput != null){
+			generateJava(gbdt);
+		} // End if
+
+		if(convert){
+			convertPMML(gbdt, cache, cacheKey);
+		}
+	}
+
+	private void generateJava(GBDT gbdt) throws Exception {
+		String className = this.javaOutput.getName();
+
+		if(className.endsWith(".java")){
+			className = className.substring(0, className.length() - ".java".length());
+		}
+
+		try(Writer writer = new OutputStreamWriter(new FileOutputStream(this.javaOutput), StandardCharsets.UTF_8)){
+			logger.info("Generating Java source code..");
+
+			JavaCodeGenerator generator = new JavaCodeGenerator(gbdt, this.numIteration);
+
+			long begin = System.currentTimeMillis();
+			generator.generate(this.javaPackage, className, writer);
+			long end = System.currentTimeMillis();
+
+			logger.info("Generated Java source code in {} ms.", (end - begin));
+		} catch(Exception e){
+			logger.error("Failed to generate Java source code", e);
+
+			throw e;
+		}
+	}
+
+	private void convertPMML(GBDT gbdt, ConversionCache cache, String cacheKey) throws Exception {
 		Boolean compact = this.compact;
 		if(compact == null){
 			compact = !gbdt.hasLinearTree();
@@ -215,6 +320,10 @@ public class Main {
 
 			throw e;
 		}
+
+		if(cache != null){
+			cache.put(cacheKey, this.output);
+		}
 	}
 
 	private static final Logger logger = LoggerFactory.getLogger(Main.class);
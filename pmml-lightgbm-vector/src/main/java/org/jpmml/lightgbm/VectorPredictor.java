@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.List;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+// Moves a group of rows through the same tree at once, one vector lane per row
+public class VectorPredictor {
+
+	private GBDT gbdt = null;
+
+	private int numFeatures = 0;
+
+	private boolean[] supported = null;
+
+	// Per tree, per node. Non-zero if the split has missing value handling. Null if none of the splits have it
+	private double[][] missing = null;
+
+
+	public VectorPredictor(GBDT gbdt){
+		List<Tree> trees = gbdt.getTrees();
+
+		this.gbdt = gbdt;
+		this.numFeatures = (gbdt.getFeatureNames()).length;
+		this.supported = new boolean[trees.size()];
+		this.missing = new double[trees.size()][];
+
+		for(int i = 0; i < trees.size(); i++){
+			Tree tree = trees.get(i);
+
+			// Categorical and linear trees are scored by plain traversal
+			if(tree.getNumCat() > 0 || tree.isLinear() || tree.isEmpty()){
+				continue;
+			}
+
+			int[] decisionType = tree.getDecisionType();
+
+			double[] missing = new double[decisionType.length];
+
+			boolean hasMissing = false;
+
+			for(int j = 0; j < decisionType.length; j++){
+
+				if(Tree.getMissingType(decisionType[j]) != Tree.MISSING_TYPE_NONE){
+					missing[j] = 1d;
+
+					hasMissing = true;
+				}
+			}
+
+			this.supported[i] = true;
+			this.missing[i] = (hasMissing ? missing : null);
+		}
+	}
+
+	public int getNumLanes(){
+		return VectorPredictor.DOUBLE_SPECIES.length();
+	}
+
+	public double[] predict(double[][] columns, int offset, int length, Integer numIteration){
+		GBDT gbdt = this.gbdt;
+
+		ObjectiveFunction object_function_ = gbdt.getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(columns, offset, length, numIteration);
+
+		gbdt.convertOutput(object_function_, result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[][] columns, int offset, int length, Integer numIteration){
+		GBDT gbdt = this.gbdt;
+
+		int numFeatures = this.numFeatures;
+
+		if(columns.length < numFeatures){
+			throw new IllegalArgumentException("Expected " + numFeatures + " feature columns, got " + columns.length);
+		}
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		int numLanes = getNumLanes();
+
+		double[] result = new double[length * numTreePerIteration];
+
+		// Row-major copy of the current block, for gathering the split feature values of all lanes
+		double[] block = new double[Math.min(length, VectorPredictor.BLOCK_SIZE) * numFeatures];
+
+		int[] nodes = new int[numLanes];
+		int[] indices = new int[numLanes];
+
+		List<Tree> trees = gbdt.getTrees();
+
+		for(int begin = 0; begin < length; begin += VectorPredictor.BLOCK_SIZE){
+			int end = Math.min(begin + VectorPredictor.BLOCK_SIZE, length);
+
+			for(int i = 0; i < numFeatures; i++){
+				double[] column = columns[i];
+
+				for(int j = begin; j < end; j++){
+					block[((j - begin) * numFeatures) + i] = column[offset + j];
+				}
+			}
+
+			for(int i = 0; i < numTrees; i++){
+				Tree tree = trees.get(i);
+
+				int output = (begin * numTreePerIteration) + (i % numTreePerIteration);
+
+				int j = begin;
+
+				if(this.supported[i]){
+
+					for(; j + numLanes <= end; j += numLanes){
+						predict(tree, this.missing[i], block, j - begin, nodes, indices);
+
+						double[] leafValue = tree.getLeafValue();
+
+						for(int k = 0; k < numLanes; k++){
+							result[output + ((j - begin + k) * numTreePerIteration)] += leafValue[~nodes[k]];
+						}
+					}
+				} // End if
+
+				// Remaining rows
+				if(j < end){
+					tree.predict(columns, offset + j, end - j, result, numTreePerIteration, output + ((j - begin) * numTreePerIteration));
+				}
+			}
+		}
+
+		gbdt.averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	// Leaves the exit node (ie. the bitwise complement of the leaf index) of each lane in the nodes array
+	private void predict(Tree tree, double[] missing, double[] block, int row, int[] nodes, int[] indices){
+		VectorSpecies<Double> doubleSpecies = VectorPredictor.DOUBLE_SPECIES;
+		VectorSpecies<Integer> intSpecies = VectorPredictor.INT_SPECIES;
+
+		int[] split_feature_real_ = tree.getSplitFeature();
+		double[] threshold_ = tree.getThreshold();
+		int[] left_child_ = tree.getLeftChild();
+		int[] right_child_ = tree.getRightChild();
+
+		int numFeatures = this.numFeatures;
+
+		IntVector base = IntVector.zero(intSpecies)
+			.addIndex(numFeatures)
+			.add(row * numFeatures);
+
+		IntVector node = IntVector.zero(intSpecies);
+
+		while(true){
+			VectorMask<Integer> active = node.compare(VectorOperators.GE, 0);
+
+			if(!active.anyTrue()){
+				break;
+			}
+
+			// Lanes that have already reached a leaf gather from the root node
+			node.max(0).intoArray(nodes, 0);
+
+			IntVector feature = IntVector.fromArray(intSpecies, split_feature_real_, 0, nodes, 0);
+
+			base.add(feature).intoArray(indices, 0);
+
+			DoubleVector value = DoubleVector.fromArray(doubleSpecies, block, 0, indices, 0);
+			DoubleVector threshold = DoubleVector.fromArray(doubleSpecies, threshold_, 0, nodes, 0);
+
+			VectorMask<Double> nan = value.test(VectorOperators.IS_NAN);
+
+			// Without missing value handling, NaN is treated as zero
+			DoubleVector zeroedValue = value.blend(0d, nan);
+
+			VectorMask<Double> left = zeroedValue.compare(VectorOperators.LE, threshold);
+
+			IntVector leftChild = IntVector.fromArray(intSpecies, left_child_, 0, nodes, 0);
+			IntVector rightChild = IntVector.fromArray(intSpecies, right_child_, 0, nodes, 0);
+
+			IntVector next = node.blend(rightChild.blend(leftChild, left.cast(intSpecies)), active);
+
+			if(missing == null){
+				node = next;
+
+				continue;
+			}
+
+			VectorMask<Double> zero = zeroedValue.compare(VectorOperators.GE, -Tree.THRESHOLD_ZERO).and(zeroedValue.compare(VectorOperators.LE, Tree.THRESHOLD_ZERO));
+
+			VectorMask<Double> special = DoubleVector.fromArray(doubleSpecies, missing, 0, nodes, 0).compare(VectorOperators.NE, 0d)
+				.and(nan.or(zero))
+				.and(active.cast(doubleSpecies));
+
+			// Missing values are rare, so they are decided lane by lane
+			if(special.anyTrue()){
+				int[] parents = indices;
+
+				node.intoArray(parents, 0);
+				next.intoArray(nodes, 0);
+
+				for(int i = 0; i < nodes.length; i++){
+
+					if(special.laneIsSet(i)){
+						nodes[i] = tree.numericalDecision(value.lane(i), parents[i]);
+					}
+				}
+
+				next = IntVector.fromArray(intSpecies, nodes, 0);
+			}
+
+			node = next;
+		}
+
+		node.intoArray(nodes, 0);
+	}
+
+	private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Integer> INT_SPECIES = VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLE_SPECIES.vectorBitSize() / 2));
+
+	private static final int BLOCK_SIZE = 512;
+}
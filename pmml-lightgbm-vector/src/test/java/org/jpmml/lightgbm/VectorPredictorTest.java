@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class VectorPredictorTest {
+
+	@Test
+	public void predictRaw(){
+		List<String> lines = Arrays.asList(
+			"tree", "version=v4", "num_class=1", "num_tree_per_iteration=1", "label_index=0", "max_feature_idx=2", "objective=regression", "feature_names=a b c", "feature_infos=[-10:10] [-10:10] 0:1:2", "",
+			// Missing types None (default left) and NaN (default right)
+			"Tree=0", "num_leaves=3", "num_cat=0", "split_feature=0 1", "threshold=0.5 -1.5", "decision_type=2 8", "left_child=1 -1", "right_child=-2 -3", "leaf_value=0.1 0.2 0.3", "leaf_count=1 1 1", "internal_value=0 0", "internal_count=3 2", "shrinkage=1", "",
+			// Missing types Zero (default left) and NaN (default left)
+			"Tree=1", "num_leaves=3", "num_cat=0", "split_feature=1 0", "threshold=1e-35 2", "decision_type=6 10", "left_child=-1 -2", "right_child=1 -3", "leaf_value=1 2 3", "leaf_count=1 1 1", "internal_value=0 0", "internal_count=3 2", "shrinkage=1", "",
+			// Categories 0 and 2 go left
+			"Tree=2", "num_leaves=2", "num_cat=1", "split_feature=2", "threshold=0", "decision_type=1", "left_child=-1", "right_child=-2", "leaf_value=10 20", "leaf_count=1 1", "internal_value=0", "internal_count=2", "cat_boundaries=0 1", "cat_threshold=5", "shrinkage=1", "",
+			"end of trees"
+		);
+
+		GBDT gbdt = LightGBMUtil.loadGBDT(lines.iterator());
+
+		VectorPredictor predictor = new VectorPredictor(gbdt);
+
+		Random random = new Random(42L);
+
+		int length = 1000;
+
+		double[][] columns = new double[3][length];
+
+		for(int i = 0; i < columns.length; i++){
+
+			for(int j = 0; j < length; j++){
+
+				switch(random.nextInt(5)){
+					case 0:
+						columns[i][j] = Double.NaN;
+						break;
+					case 1:
+						columns[i][j] = 0d;
+						break;
+					case 2:
+						columns[i][j] = random.nextInt(4);
+						break;
+					default:
+						columns[i][j] = random.nextGaussian() * 5d;
+						break;
+				}
+			}
+		}
+
+		assertArrayEquals(gbdt.predictRaw(columns, 0, length, null), predictor.predictRaw(columns, 0, length, null));
+		assertArrayEquals(gbdt.predictRaw(columns, 7, length - 7, 2), predictor.predictRaw(columns, 7, length - 7, 2));
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.List;
+
+// Scores rows within a time budget and/or a maximum depth, trading accuracy for latency.
+// A tree whose descent is cut short contributes the internal value of the node where it stopped.
+// Once the time budget runs out, the remaining trees are not descended into at all, and contribute the internal value of their root node.
+// The error of every such contribution is bounded by the range of leaf values below the node
+public class AnytimePredictor {
+
+	private GBDT gbdt = null;
+
+	private double[] rootValues = null;
+
+	private double[] rootErrors = null;
+
+	private double[][] nodeValues = null;
+
+	private double[][] nodeErrors = null;
+
+
+	public AnytimePredictor(GBDT gbdt){
+		List<Tree> trees = gbdt.getTrees();
+
+		double[] rootValues = new double[trees.size()];
+		double[] rootErrors = new double[trees.size()];
+		double[][] nodeValues = new double[trees.size()][];
+		double[][] nodeErrors = new double[trees.size()][];
+
+		for(int i = 0; i < trees.size(); i++){
+			Tree tree = trees.get(i);
+
+			if(tree.isEmpty()){
+				rootValues[i] = (tree.getLeafValue())[0];
+
+				continue;
+			} // End if
+
+			// The output of linear leaves is not bounded by leaf values
+			if(tree.isLinear()){
+				throw new IllegalArgumentException("Tree " + i + " has linear leaves");
+			} // End if
+
+			double[] internalValue = tree.getInternalValue();
+			if(internalValue == null){
+				throw new IllegalArgumentException("Tree " + i + " does not specify internal values");
+			}
+
+			double[] errors = new double[tree.getNumLeaves() - 1];
+
+			computeErrors(tree, 0, errors);
+
+			rootValues[i] = internalValue[0];
+			rootErrors[i] = errors[0];
+			nodeValues[i] = internalValue;
+			nodeErrors[i] = errors;
+		}
+
+		this.gbdt = gbdt;
+		this.rootValues = rootValues;
+		this.rootErrors = rootErrors;
+		this.nodeValues = nodeValues;
+		this.nodeErrors = nodeErrors;
+	}
+
+	// The scores are transformed, but the errors are on the raw score scale
+	public Prediction predict(double[] row, Integer numIteration, int maxDepth, long timeoutNanos){
+		ObjectiveFunction object_function_ = this.gbdt.getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		Prediction result = predictRaw(row, numIteration, maxDepth, timeoutNanos);
+
+		object_function_.convertOutput(result.getScores());
+
+		return result;
+	}
+
+	public Prediction predictRaw(double[] row, Integer numIteration, int maxDepth, long timeoutNanos){
+		GBDT gbdt = this.gbdt;
+
+		if(maxDepth < 0){
+			throw new IllegalArgumentException("Expected a non-negative maximum depth, got " + maxDepth);
+		}
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+
+		if(row.length < numFeatures){
+			throw new IllegalArgumentException("Expected " + numFeatures + " feature values, got " + row.length);
+		}
+
+		long deadline = System.nanoTime() + timeoutNanos;
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		double[] scores = new double[numTreePerIteration];
+		double[] errors = new double[numTreePerIteration];
+
+		List<Tree> trees = gbdt.getTrees();
+
+		int numEvaluatedTrees = 0;
+
+		for(int i = 0; i < numTrees; i++){
+			int output = (i % numTreePerIteration);
+
+			// Reading the clock is not free, so it is consulted only every now and then
+			if((i % AnytimePredictor.CLOCK_INTERVAL) == 0 && (System.nanoTime() - deadline) > 0){
+
+				for(int j = i; j < numTrees; j++){
+					scores[j % numTreePerIteration] += this.rootValues[j];
+					errors[j % numTreePerIteration] += this.rootErrors[j];
+				}
+
+				break;
+			}
+
+			Tree tree = trees.get(i);
+
+			numEvaluatedTrees++;
+
+			if(tree.isEmpty()){
+				scores[output] += this.rootValues[i];
+
+				continue;
+			}
+
+			int[] splitFeature = tree.getSplitFeature();
+
+			int node = 0;
+
+			for(int depth = 0; node >= 0 && depth < maxDepth; depth++){
+				node = tree.decision(row[splitFeature[node]], node);
+			}
+
+			if(node >= 0){
+				scores[output] += this.nodeValues[i][node];
+				errors[output] += this.nodeErrors[i][node];
+			} else
+
+			{
+				scores[output] += (tree.getLeafValue())[~node];
+			}
+		}
+
+		gbdt.averageOutput(scores, numIteration);
+		gbdt.averageOutput(errors, numIteration);
+
+		return new Prediction(scores, errors, numEvaluatedTrees);
+	}
+
+	public GBDT getGBDT(){
+		return this.gbdt;
+	}
+
+	// Computes the largest deviation of the internal value of each node from the leaf values below it.
+	// Returns the range of leaf values below the node
+	static
+	private double[] computeErrors(Tree tree, int node, double[] errors){
+
+		if(node < 0){
+			double value = (tree.getLeafValue())[~node];
+
+			return new double[]{value, value};
+		}
+
+		double[] left = computeErrors(tree, (tree.getLeftChild())[node], errors);
+		double[] right = computeErrors(tree, (tree.getRightChild())[node], errors);
+
+		double min = Math.min(left[0], right[0]);
+		double max = Math.max(left[1], right[1]);
+
+		double value = (tree.getInternalValue())[node];
+
+		errors[node] = Math.max(Math.abs(value - min), Math.abs(max - value));
+
+		return new double[]{min, max};
+	}
+
+	static
+	public class Prediction {
+
+		private double[] scores = null;
+
+		private double[] errors = null;
+
+		private int numTrees = 0;
+
+
+		private Prediction(double[] scores, double[] errors, int numTrees){
+			this.scores = scores;
+			this.errors = errors;
+			this.numTrees = numTrees;
+		}
+
+		public double[] getScores(){
+			return this.scores;
+		}
+
+		// The upper bound of the absolute error of each raw score
+		public double[] getErrors(){
+			return this.errors;
+		}
+
+		// The number of trees that were descended into
+		public int getNumTrees(){
+			return this.numTrees;
+		}
+
+		public boolean isExact(){
+
+			for(double error : this.errors){
+
+				if(error != 0d){
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	private static final int CLOCK_INTERVAL = 8;
+}
@@ -0,0 +1,563 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+public class AsciiUtil {
+
+	private AsciiUtil(){
+	}
+
+	static
+	public String toString(ByteBuffer buffer, int start, int end){
+		char[] chars = new char[end - start];
+
+		for(int i = start; i < end; i++){
+			int b = (buffer.get(i) & 0xFF);
+
+			chars[i - start] = (b < 0x80 ? (char)b : '\uFFFD');
+		}
+
+		return new String(chars);
+	}
+
+	static
+	public int indexOf(ByteBuffer buffer, int start, int end, byte value){
+
+		for(int i = start; i < end; i++){
+
+			if(buffer.get(i) == value){
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	static
+	public int parseInt(ByteBuffer buffer, int start, int end){
+		long value = parseLong(buffer, start, end);
+
+		if((int)value != value){
+			throw new NumberFormatException(toString(buffer, start, end));
+		}
+
+		return (int)value;
+	}
+
+	static
+	public long parseLong(ByteBuffer buffer, int start, int end){
+		int i = start;
+
+		if(i >= end){
+			throw new NumberFormatException(toString(buffer, start, end));
+		}
+
+		boolean negative = false;
+
+		byte b = buffer.get(i);
+		if(b == '-' || b == '+'){
+			negative = (b == '-');
+
+			i++;
+
+			if(i >= end){
+				throw new NumberFormatException(toString(buffer, start, end));
+			}
+		}
+
+		// Accumulating negatively, in order to be able to represent Long#MIN_VALUE
+		long limit = (negative ? Long.MIN_VALUE : -Long.MAX_VALUE);
+		long multmin = (limit / 10);
+
+		long result = 0;
+
+		for(; i < end; i++){
+			int digit = (buffer.get(i) - '0');
+
+			if(digit < 0 || digit > 9 || result < multmin){
+				throw new NumberFormatException(toString(buffer, start, end));
+			}
+
+			result *= 10;
+
+			if(result < limit + digit){
+				throw new NumberFormatException(toString(buffer, start, end));
+			}
+
+			result -= digit;
+		}
+
+		return (negative ? result : -result);
+	}
+
+	static
+	public double parseDouble(ByteBuffer buffer, int start, int end){
+		int i = start;
+
+		if(i >= end){
+			throw new NumberFormatException(toString(buffer, start, end));
+		}
+
+		boolean negative = false;
+
+		byte b = buffer.get(i);
+		if(b == '-' || b == '+'){
+			negative = (b == '-');
+
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+
+		boolean truncated = false;
+		boolean valid = false;
+
+		for(; i < end; i++){
+			b = buffer.get(i);
+
+			if(b < '0' || b > '9'){
+				break;
+			}
+
+			valid = true;
+
+			if(digits < AsciiUtil.MAX_DIGITS){
+
+				if(mantissa != 0 || b != '0'){
+					mantissa = (mantissa * 10) + (b - '0');
+
+					digits++;
+				}
+			} else
+
+			{
+				exponent++;
+
+				truncated |= (b != '0');
+			}
+		}
+
+		if(i < end && buffer.get(i) == '.'){
+			i++;
+
+			for(; i < end; i++){
+				b = buffer.get(i);
+
+				if(b < '0' || b > '9'){
+					break;
+				}
+
+				valid = true;
+
+				if(digits < AsciiUtil.MAX_DIGITS){
+
+					if(mantissa != 0 || b != '0'){
+						mantissa = (mantissa * 10) + (b - '0');
+
+						digits++;
+					}
+
+					exponent--;
+				} else
+
+				{
+					truncated |= (b != '0');
+				}
+			}
+		}
+
+		if(!valid){
+			return parseSpecial(buffer, start, end);
+		} // End if
+
+		if(i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E')){
+			i++;
+
+			boolean negativeExponent = false;
+
+			if(i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')){
+				negativeExponent = (buffer.get(i) == '-');
+
+				i++;
+			}
+
+			int exponentStart = i;
+			int exponentValue = 0;
+
+			for(; i < end; i++){
+				b = buffer.get(i);
+
+				if(b < '0' || b > '9'){
+					break;
+				} // End if
+
+				if(exponentValue < 100000){
+					exponentValue = (exponentValue * 10) + (b - '0');
+				}
+			}
+
+			if(i == exponentStart){
+				return parseSpecial(buffer, start, end);
+			}
+
+			exponent += (negativeExponent ? -exponentValue : exponentValue);
+		} // End if
+
+		if(i != end){
+			return parseSpecial(buffer, start, end);
+		}
+
+		double result = Double.NaN;
+
+		if(!truncated){
+			result = toDouble(mantissa, exponent);
+		} // End if
+
+		// The decimal value is too long, or too close to a rounding boundary
+		if(Double.isNaN(result)){
+			return Double.parseDouble(toString(buffer, start, end));
+		}
+
+		return (negative ? -result : result);
+	}
+
+	static
+	private double parseSpecial(ByteBuffer buffer, int start, int end){
+		String string = toString(buffer, start, end);
+
+		switch(string){
+			case "inf":
+			case "+inf":
+				return Double.POSITIVE_INFINITY;
+			case "-inf":
+				return Double.NEGATIVE_INFINITY;
+			case "nan":
+			case "-nan":
+				return Double.NaN;
+			default:
+				return Double.parseDouble(string);
+		}
+	}
+
+	static
+	public int[] parseIntArray(ByteBuffer buffer, int start, int end, int length){
+		end = trimSpaces(buffer, start, end);
+
+		int[] result = new int[countTokens(buffer, start, end, length)];
+
+		for(int i = 0, pos = start; i < result.length; i++){
+			int tokenEnd = tokenEnd(buffer, pos, end);
+
+			result[i] = parseInt(buffer, pos, tokenEnd);
+
+			pos = (tokenEnd + 1);
+		}
+
+		return result;
+	}
+
+	static
+	public long[] parseLongArray(ByteBuffer buffer, int start, int end, int length){
+		end = trimSpaces(buffer, start, end);
+
+		long[] result = new long[countTokens(buffer, start, end, length)];
+
+		for(int i = 0, pos = start; i < result.length; i++){
+			int tokenEnd = tokenEnd(buffer, pos, end);
+
+			result[i] = parseLong(buffer, pos, tokenEnd);
+
+			pos = (tokenEnd + 1);
+		}
+
+		return result;
+	}
+
+	static
+	public double[] parseDoubleArray(ByteBuffer buffer, int start, int end, int length){
+		end = trimSpaces(buffer, start, end);
+
+		double[] result = new double[countTokens(buffer, start, end, length)];
+
+		for(int i = 0, pos = start; i < result.length; i++){
+			int tokenEnd = tokenEnd(buffer, pos, end);
+
+			result[i] = parseDouble(buffer, pos, tokenEnd);
+
+			pos = (tokenEnd + 1);
+		}
+
+		return result;
+	}
+
+	static
+	public int[][] parseIntArrayList(ByteBuffer buffer, int start, int end, int[] lengths){
+		int[][] result = new int[lengths.length][];
+
+		int pos = start;
+
+		for(int i = 0; i < lengths.length; i++){
+			int[] values = new int[lengths[i]];
+
+			for(int j = 0; j < values.length; j++){
+				int tokenEnd = tokenEnd(buffer, pos, end);
+				if(tokenEnd == pos){
+					throw new IllegalArgumentException();
+				}
+
+				values[j] = parseInt(buffer, pos, tokenEnd);
+
+				pos = skipSpace(buffer, tokenEnd, end);
+			}
+
+			pos = skipSpace(buffer, pos, end);
+
+			result[i] = values;
+		}
+
+		if(pos != end){
+			throw new IllegalArgumentException();
+		}
+
+		return result;
+	}
+
+	static
+	public double[][] parseDoubleArrayList(ByteBuffer buffer, int start, int end, int[] lengths){
+		double[][] result = new double[lengths.length][];
+
+		int pos = start;
+
+		for(int i = 0; i < lengths.length; i++){
+			double[] values = new double[lengths[i]];
+
+			for(int j = 0; j < values.length; j++){
+				int tokenEnd = tokenEnd(buffer, pos, end);
+				if(tokenEnd == pos){
+					throw new IllegalArgumentException();
+				}
+
+				values[j] = parseDouble(buffer, pos, tokenEnd);
+
+				pos = skipSpace(buffer, tokenEnd, end);
+			}
+
+			pos = skipSpace(buffer, pos, end);
+
+			result[i] = values;
+		}
+
+		if(pos != end){
+			throw new IllegalArgumentException();
+		}
+
+		return result;
+	}
+
+	static
+	private int trimSpaces(ByteBuffer buffer, int start, int end){
+
+		while(end > start && buffer.get(end - 1) == ' '){
+			end--;
+		}
+
+		return end;
+	}
+
+	static
+	private int countTokens(ByteBuffer buffer, int start, int end, int length){
+		int count = 0;
+
+		if(end > start){
+			count = 1;
+
+			for(int i = start; i < end; i++){
+
+				if(buffer.get(i) == ' '){
+					count++;
+				}
+			}
+		} // End if
+
+		if(length > -1 && count != length){
+			throw new IllegalArgumentException();
+		}
+
+		return count;
+	}
+
+	static
+	private int tokenEnd(ByteBuffer buffer, int start, int end){
+		int i = start;
+
+		while(i < end && buffer.get(i) != ' '){
+			i++;
+		}
+
+		return i;
+	}
+
+	static
+	private int skipSpace(ByteBuffer buffer, int pos, int end){
+
+		if(pos >= end || buffer.get(pos) != ' '){
+			throw new IllegalArgumentException();
+		}
+
+		return (pos + 1);
+	}
+
+	// Returns the correctly rounded value of an unsigned 64-bit mantissa times a power of ten, or NaN if it cannot be determined cheaply
+	static
+	private double toDouble(long mantissa, int exponent){
+
+		if(mantissa == 0){
+			return 0d;
+		} // End if
+
+		// Clinger's fast path
+		if(mantissa > 0 && mantissa <= (1L << 53) && exponent >= -22 && exponent <= 22){
+
+			if(exponent < 0){
+				return mantissa / AsciiUtil.POWERS_OF_TEN[-exponent];
+			}
+
+			return mantissa * AsciiUtil.POWERS_OF_TEN[exponent];
+		} // End if
+
+		if(exponent < AsciiUtil.MIN_EXPONENT){
+			return 0d;
+		} else
+
+		if(exponent > AsciiUtil.MAX_EXPONENT){
+			return Double.POSITIVE_INFINITY;
+		}
+
+		// Eisel-Lemire algorithm (see https://arxiv.org/abs/2101.11408)
+		int index = (exponent - AsciiUtil.MIN_EXPONENT);
+
+		int clz = Long.numberOfLeadingZeros(mantissa);
+
+		mantissa <<= clz;
+
+		long exponent2 = (((217706L * exponent) >> 16) + 64 + 1023) - clz;
+
+		long powerHi = AsciiUtil.POWERS_OF_TEN_HI[index];
+		long powerLo = AsciiUtil.POWERS_OF_TEN_LO[index];
+
+		long xHi = unsignedMultiplyHigh(mantissa, powerHi);
+		long xLo = (mantissa * powerHi);
+
+		if((xHi & 0x1FF) == 0x1FF && Long.compareUnsigned(xLo + mantissa, mantissa) < 0){
+			long yHi = unsignedMultiplyHigh(mantissa, powerLo);
+			long yLo = (mantissa * powerLo);
+
+			long mergedHi = xHi;
+			long mergedLo = xLo + yHi;
+
+			if(Long.compareUnsigned(mergedLo, xLo) < 0){
+				mergedHi++;
+			} // End if
+
+			if((mergedHi & 0x1FF) == 0x1FF && (mergedLo + 1) == 0 && Long.compareUnsigned(yLo + mantissa, mantissa) < 0){
+				return Double.NaN;
+			}
+
+			xHi = mergedHi;
+			xLo = mergedLo;
+		}
+
+		long msb = (xHi >>> 63);
+
+		long result = (xHi >>> (msb + 9));
+
+		exponent2 -= (1 ^ msb);
+
+		// Halfway between two floating-point values
+		if(xLo == 0 && (xHi & 0x1FF) == 0 && (result & 3) == 1){
+			return Double.NaN;
+		}
+
+		result += (result & 1);
+		result >>>= 1;
+
+		if((result >>> 53) > 0){
+			result >>>= 1;
+
+			exponent2++;
+		} // End if
+
+		// Subnormal, infinite or NaN values
+		if(exponent2 <= 0 || exponent2 >= 0x7FF){
+			return Double.NaN;
+		}
+
+		return Double.longBitsToDouble((exponent2 << 52) | (result & 0x000FFFFFFFFFFFFFL));
+	}
+
+	static
+	private long unsignedMultiplyHigh(long x, long y){
+		return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+	}
+
+	private static final int MAX_DIGITS = 19;
+
+	private static final int MIN_EXPONENT = -348;
+	private static final int MAX_EXPONENT = 347;
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+		1e21, 1e22
+	};
+
+	// The 128-bit mantissas (rounded down) of powers of ten
+	private static final long[] POWERS_OF_TEN_HI = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+	private static final long[] POWERS_OF_TEN_LO = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+	static {
+		BigInteger mask = (BigInteger.ONE.shiftLeft(64)).subtract(BigInteger.ONE);
+
+		for(int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; exponent++){
+			BigInteger value;
+
+			if(exponent >= 0){
+				value = BigInteger.TEN.pow(exponent);
+
+				int bitLength = value.bitLength();
+
+				value = (bitLength > 128 ? value.shiftRight(bitLength - 128) : value.shiftLeft(128 - bitLength));
+			} else
+
+			{
+				BigInteger divisor = BigInteger.TEN.pow(-exponent);
+
+				value = (BigInteger.ONE.shiftLeft(divisor.bitLength() + 127)).divide(divisor);
+			}
+
+			POWERS_OF_TEN_HI[exponent - MIN_EXPONENT] = (value.shiftRight(64)).longValue();
+			POWERS_OF_TEN_LO[exponent - MIN_EXPONENT] = (value.and(mask)).longValue();
+		}
+	}
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Evaluates trees by comparing integer bin ids instead of feature values.
+// The distinct split thresholds of each feature define its bins, so that a row is binned once per feature, and every numeric split is then a single int comparison.
+public class BinnedScorer {
+
+	private GBDT gbdt = null;
+
+	private Tree[] trees = null;
+
+	private int numFeatures = 0;
+
+	private double[][] featureThresholds = null;
+
+	private int[] nodeOffsets = null;
+
+	private int[] leafOffsets = null;
+
+	private int[] splitFeatures = null;
+
+	private int[] binThresholds = null;
+
+	private int[] masks = null;
+
+	private int[] leftChildren = null;
+
+	private int[] rightChildren = null;
+
+	private double[] leafValues = null;
+
+
+	private BinnedScorer(){
+	}
+
+	public int size(){
+		return this.trees.length;
+	}
+
+	public int getNumBins(int feature){
+		double[] thresholds = this.featureThresholds[feature];
+
+		if(thresholds == null){
+			return 0;
+		}
+
+		return thresholds.length + 1;
+	}
+
+	public double[] predict(double[] row){
+		return predict(row, null);
+	}
+
+	public double[] predict(double[] row, Integer numIteration){
+		ObjectiveFunction object_function_ = this.gbdt.getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(row, numIteration);
+
+		object_function_.convertOutput(result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[] row){
+		return predictRaw(row, null);
+	}
+
+	public double[] predictRaw(double[] row, Integer numIteration){
+		GBDT gbdt = this.gbdt;
+
+		if(row.length < this.numFeatures){
+			throw new IllegalArgumentException("Expected " + this.numFeatures + " feature values, got " + row.length);
+		}
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		int[] codes = encode(row);
+
+		Tree[] trees = this.trees;
+
+		int[] nodeOffsets = this.nodeOffsets;
+		int[] leafOffsets = this.leafOffsets;
+		int[] splitFeatures = this.splitFeatures;
+		int[] binThresholds = this.binThresholds;
+		int[] masks = this.masks;
+		int[] leftChildren = this.leftChildren;
+		int[] rightChildren = this.rightChildren;
+		double[] leafValues = this.leafValues;
+
+		double[] result = new double[numTreePerIteration];
+
+		for(int i = 0; i < numTrees; i++){
+			int base = nodeOffsets[i];
+
+			int node = (nodeOffsets[i + 1] > base ? 0 : -1);
+
+			while(node >= 0){
+				int index = base + node;
+
+				int mask = masks[index];
+
+				if(mask == BinnedScorer.MASK_CATEGORICAL){
+					node = trees[i].categoricalDecision(row[splitFeatures[index]], node);
+
+					continue;
+				}
+
+				int code = codes[splitFeatures[index]];
+
+				boolean left;
+
+				// Missing values go to the default direction
+				if((code & mask & BinnedScorer.MASK_FLAGS) != 0){
+					left = ((mask & BinnedScorer.MASK_DEFAULT_LEFT) != 0);
+				} else
+
+				{
+					left = (code <= binThresholds[index]);
+				}
+
+				node = (left ? leftChildren[index] : rightChildren[index]);
+			}
+
+			int leaf = ~node;
+
+			if(leafOffsets[i] < 0){
+				result[i % numTreePerIteration] += trees[i].predictLinear(leaf, row);
+			} else
+
+			{
+				result[i % numTreePerIteration] += leafValues[leafOffsets[i] + leaf];
+			}
+		}
+
+		gbdt.averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	// Bins a row.
+	// The bin id is stored in the upper bits, and the missing value flags in the lower two bits of each code
+	int[] encode(double[] row){
+		double[][] featureThresholds = this.featureThresholds;
+
+		int[] result = new int[this.numFeatures];
+
+		for(int i = 0; i < this.numFeatures; i++){
+			double[] thresholds = featureThresholds[i];
+
+			if(thresholds == null){
+				continue;
+			}
+
+			double value = row[i];
+
+			int flags = 0;
+
+			if(Double.isNaN(value)){
+				flags |= BinnedScorer.FLAG_NAN;
+
+				value = 0d;
+			} // End if
+
+			if(Tree.isZero(value)){
+				flags |= BinnedScorer.FLAG_ZERO;
+			}
+
+			result[i] = (bin(thresholds, value) << 2) | flags;
+		}
+
+		return result;
+	}
+
+	// The number of thresholds that are less than the value
+	static
+	private int bin(double[] thresholds, double value){
+		int low = 0;
+		int high = thresholds.length;
+
+		while(low < high){
+			int mid = (low + high) >>> 1;
+
+			if(thresholds[mid] < value){
+				low = mid + 1;
+			} else
+
+			{
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	static
+	public BinnedScorer build(GBDT gbdt){
+		List<Tree> trees = gbdt.getTrees();
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+
+		int numTrees = trees.size();
+
+		int[] nodeOffsets = new int[numTrees + 1];
+		int[] leafOffsets = new int[numTrees];
+
+		int[] featureCounts = new int[numFeatures];
+
+		int numLeaves = 0;
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			int numNodes = (tree.getNumLeaves() - 1);
+
+			nodeOffsets[i + 1] = nodeOffsets[i] + numNodes;
+
+			// Linear leaves are evaluated by the tree itself
+			if(tree.isLinear()){
+				leafOffsets[i] = -1;
+			} else
+
+			{
+				leafOffsets[i] = numLeaves;
+
+				numLeaves += tree.getNumLeaves();
+			}
+
+			int[] splitFeature = tree.getSplitFeature();
+			int[] decisionType = tree.getDecisionType();
+
+			for(int j = 0; j < numNodes; j++){
+
+				if(!Tree.hasCategoricalMask(decisionType[j])){
+					featureCounts[splitFeature[j]]++;
+				}
+			}
+		}
+
+		double[][] featureThresholds = new double[numFeatures][];
+
+		for(int i = 0; i < numFeatures; i++){
+
+			if(featureCounts[i] > 0){
+				featureThresholds[i] = new double[featureCounts[i]];
+			}
+		}
+
+		int[] featureIndices = new int[numFeatures];
+
+		for(Tree tree : trees){
+			int[] splitFeature = tree.getSplitFeature();
+			double[] threshold = tree.getThreshold();
+			int[] decisionType = tree.getDecisionType();
+
+			for(int j = 0; j < tree.getNumLeaves() - 1; j++){
+
+				if(!Tree.hasCategoricalMask(decisionType[j])){
+					int feature = splitFeature[j];
+
+					featureThresholds[feature][featureIndices[feature]++] = threshold[j];
+				}
+			}
+		}
+
+		for(int i = 0; i < numFeatures; i++){
+			double[] thresholds = featureThresholds[i];
+
+			if(thresholds != null){
+				featureThresholds[i] = distinct(thresholds);
+			}
+		}
+
+		int numNodes = nodeOffsets[numTrees];
+
+		BinnedScorer result = new BinnedScorer();
+		result.gbdt = gbdt;
+		result.trees = trees.toArray(new Tree[numTrees]);
+		result.numFeatures = numFeatures;
+		result.featureThresholds = featureThresholds;
+		result.nodeOffsets = nodeOffsets;
+		result.leafOffsets = leafOffsets;
+		result.splitFeatures = new int[numNodes];
+		result.binThresholds = new int[numNodes];
+		result.masks = new int[numNodes];
+		result.leftChildren = new int[numNodes];
+		result.rightChildren = new int[numNodes];
+		result.leafValues = new double[numLeaves];
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			int[] splitFeature = tree.getSplitFeature();
+			double[] threshold = tree.getThreshold();
+			int[] decisionType = tree.getDecisionType();
+
+			int base = nodeOffsets[i];
+
+			for(int j = 0; j < tree.getNumLeaves() - 1; j++){
+				int index = base + j;
+
+				result.splitFeatures[index] = splitFeature[j];
+				result.leftChildren[index] = (tree.getLeftChild())[j];
+				result.rightChildren[index] = (tree.getRightChild())[j];
+
+				if(Tree.hasCategoricalMask(decisionType[j])){
+					result.masks[index] = BinnedScorer.MASK_CATEGORICAL;
+
+					continue;
+				}
+
+				int k = bin(featureThresholds[splitFeature[j]], threshold[j]);
+
+				// The value is less than or equal to the k-th threshold if and only if its bin id is less than or equal to k.
+				// Setting both flag bits of the threshold code makes the comparison independent of the row's flags
+				result.binThresholds[index] = (k << 2) | BinnedScorer.MASK_FLAGS;
+				result.masks[index] = mask(decisionType[j]);
+			}
+
+			if(leafOffsets[i] >= 0){
+				System.arraycopy(tree.getLeafValue(), 0, result.leafValues, leafOffsets[i], tree.getNumLeaves());
+			}
+		}
+
+		return result;
+	}
+
+	static
+	private int mask(int decisionType){
+		int result;
+
+		switch(Tree.getMissingType(decisionType)){
+			case Tree.MISSING_TYPE_NONE:
+				result = 0;
+				break;
+			case Tree.MISSING_TYPE_ZERO:
+				result = BinnedScorer.FLAG_ZERO;
+				break;
+			case Tree.MISSING_TYPE_NAN:
+				result = BinnedScorer.FLAG_NAN;
+				break;
+			default:
+				throw new IllegalArgumentException();
+		}
+
+		if(result != 0 && Tree.hasDefaultLeftMask(decisionType)){
+			result |= BinnedScorer.MASK_DEFAULT_LEFT;
+		}
+
+		return result;
+	}
+
+	static
+	private double[] distinct(double[] values){
+		Arrays.sort(values);
+
+		int length = 0;
+
+		for(int i = 0; i < values.length; i++){
+
+			if(length == 0 || values[i] != values[length - 1]){
+				values[length++] = values[i];
+			}
+		}
+
+		return Arrays.copyOf(values, length);
+	}
+
+	private static final int FLAG_NAN = 1;
+	private static final int FLAG_ZERO = 2;
+
+	private static final int MASK_FLAGS = (BinnedScorer.FLAG_NAN | BinnedScorer.FLAG_ZERO);
+	private static final int MASK_DEFAULT_LEFT = 4;
+	private static final int MASK_CATEGORICAL = -1;
+}
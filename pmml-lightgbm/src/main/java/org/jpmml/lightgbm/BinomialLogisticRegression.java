@@ -18,6 +18,7 @@
  */
 package org.jpmml.lightgbm;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.dmg.pmml.DataType;
@@ -50,5 +51,16 @@ public class BinomialLogisticRegression extends Classification {
 		return MiningModelUtil.createBinaryLogisticClassification(model, BinomialLogisticRegression.this.sigmoid_, 0d, RegressionModel.NormalizationMethod.LOGIT, true, schema);
 	}
 
+	@Override
+	public void convertOutput(double[] scores, int offset){
+		// The probability of the positive class
+		scores[offset] = 1d / (1d + Math.exp(-this.sigmoid_ * scores[offset]));
+	}
+
+	@Override
+	public List<String> encodeJavaOutput(){
+		return Collections.singletonList("scores[0] = 1d / (1d + Math.exp(-(" + JavaCodeGenerator.formatDouble(this.sigmoid_) + ") * scores[0]));");
+	}
+
 	public static final String CONFIG_SIGMOID = "sigmoid";
 }
\ No newline at end of file
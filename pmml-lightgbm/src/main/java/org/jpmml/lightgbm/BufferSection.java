@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import com.google.common.collect.Iterables;
+
+public class BufferSection extends Section {
+
+	private ByteBuffer buffer = null;
+
+	private String[] keys = new String[32];
+
+	private int[] starts = new int[32];
+
+	private int[] ends = new int[32];
+
+	private int size = 0;
+
+
+	public BufferSection(ByteBuffer buffer){
+		this.buffer = buffer;
+	}
+
+	@Override
+	public String id(){
+		String key = Iterables.getFirst(keySet(), null);
+
+		if(key == null){
+			throw new IllegalStateException();
+		}
+
+		String value = get(key, false);
+
+		return (value != null ? (key + "=" + value) : key);
+	}
+
+	@Override
+	public int getInt(String key){
+		int index = indexOf(key);
+
+		if(index > -1){
+			return AsciiUtil.parseInt(this.buffer, this.starts[index], this.ends[index]);
+		}
+
+		return super.getInt(key);
+	}
+
+	@Override
+	public int[] getIntArray(String key, int length){
+		int index = indexOf(key);
+
+		if(index > -1){
+			return AsciiUtil.parseIntArray(this.buffer, this.starts[index], this.ends[index], length);
+		}
+
+		return super.getIntArray(key, length);
+	}
+
+	@Override
+	public int[][] getIntArrayList(String key, int[] lengths){
+		int index = indexOf(key);
+
+		if(index > -1){
+			return AsciiUtil.parseIntArrayList(this.buffer, this.starts[index], this.ends[index], lengths);
+		}
+
+		return super.getIntArrayList(key, lengths);
+	}
+
+	@Override
+	public long parseUnsignedInt(String key){
+		int index = indexOf(key);
+
+		if(index > -1){
+			return AsciiUtil.parseLong(this.buffer, this.starts[index], this.ends[index]);
+		}
+
+		return super.parseUnsignedInt(key);
+	}
+
+	@Override
+	public long[] getUnsignedIntArray(String key, int length){
+		int index = indexOf(key);
+
+		if(index > -1){
+			return AsciiUtil.parseLongArray(this.buffer, this.starts[index], this.ends[index], length);
+		}
+
+		return super.getUnsignedIntArray(key, length);
+	}
+
+	@Override
+	public double getDouble(String key){
+		int index = indexOf(key);
+
+		if(index > -1){
+			return AsciiUtil.parseDouble(this.buffer, this.starts[index], this.ends[index]);
+		}
+
+		return super.getDouble(key);
+	}
+
+	@Override
+	public double[] getDoubleArray(String key, int length){
+		int index = indexOf(key);
+
+		if(index > -1){
+			return AsciiUtil.parseDoubleArray(this.buffer, this.starts[index], this.ends[index], length);
+		}
+
+		return super.getDoubleArray(key, length);
+	}
+
+	@Override
+	public double[][] getDoubleArrayList(String key, int[] lengths){
+		int index = indexOf(key);
+
+		if(index > -1){
+			return AsciiUtil.parseDoubleArrayList(this.buffer, this.starts[index], this.ends[index], lengths);
+		}
+
+		return super.getDoubleArrayList(key, lengths);
+	}
+
+	@Override
+	public String get(Object key){
+
+		if(key instanceof String){
+			return get((String)key, false);
+		}
+
+		return super.get(key);
+	}
+
+	@Override
+	public String getOrDefault(Object key, String defaultValue){
+
+		if(containsKey(key)){
+			return get(key);
+		}
+
+		return defaultValue;
+	}
+
+	@Override
+	public String get(String key, boolean required){
+		int index = indexOf(key);
+
+		if(index > -1){
+			materialize(index);
+		}
+
+		return super.get(key, required);
+	}
+
+	@Override
+	public String put(String key, String value){
+		removeView(key);
+
+		return super.put(key, value);
+	}
+
+	@Override
+	public String remove(Object key){
+
+		if(key instanceof String){
+			removeView((String)key);
+		}
+
+		return super.remove(key);
+	}
+
+	@Override
+	public void clear(){
+		Arrays.fill(this.keys, null);
+
+		this.size = 0;
+
+		super.clear();
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet(){
+		materialize();
+
+		return super.entrySet();
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super String> action){
+		materialize();
+
+		super.forEach(action);
+	}
+
+	@Override
+	public Collection<String> values(){
+		materialize();
+
+		return super.values();
+	}
+
+	public void put(int start, int end){
+		ByteBuffer buffer = this.buffer;
+
+		if(end - start >= 2 && buffer.get(start) == '[' && buffer.get(end - 1) == ']'){
+			put(start + 1, end - 1, (byte)':');
+
+			return;
+		}
+
+		put(start, end, (byte)'=');
+	}
+
+	public void put(int start, int end, byte separator){
+		int index = AsciiUtil.indexOf(this.buffer, start, end, separator);
+
+		if(index > start){
+			String key = SectionKeys.intern(this.buffer, start, index);
+
+			putView(key, index + 1, end);
+		} else
+
+		{
+			String key = SectionKeys.intern(this.buffer, start, end);
+
+			put(key, null);
+		}
+	}
+
+	private void putView(String key, int start, int end){
+		int index = indexOf(key);
+
+		if(index < 0){
+
+			if(this.size == this.keys.length){
+				int capacity = (2 * this.size);
+
+				this.keys = Arrays.copyOf(this.keys, capacity);
+				this.starts = Arrays.copyOf(this.starts, capacity);
+				this.ends = Arrays.copyOf(this.ends, capacity);
+			}
+
+			index = this.size;
+
+			this.keys[index] = key;
+
+			this.size++;
+		}
+
+		this.starts[index] = start;
+		this.ends[index] = end;
+
+		// Register the key, but postpone the decoding of its value
+		super.put(key, null);
+	}
+
+	private void removeView(String key){
+		int index = indexOf(key);
+
+		if(index > -1){
+			this.keys[index] = null;
+		}
+	}
+
+	private int indexOf(String key){
+		String[] keys = this.keys;
+
+		for(int i = 0, max = this.size; i < max; i++){
+
+			if(key.equals(keys[i])){
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private void materialize(){
+
+		for(int i = 0, max = this.size; i < max; i++){
+
+			if(this.keys[i] != null){
+				materialize(i);
+			}
+		}
+	}
+
+	private void materialize(int index){
+		String key = this.keys[index];
+		String value = AsciiUtil.toString(this.buffer, this.starts[index], this.ends[index]);
+
+		this.keys[index] = null;
+
+		super.put(key, value);
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.google.common.collect.AbstractIterator;
+
+public class BufferSectionIterator extends AbstractIterator<Section> {
+
+	private FileChannel channel = null;
+
+	private long windowSize = BufferSectionIterator.WINDOW_SIZE;
+
+	private InputStream is = null;
+
+	private boolean eof = false;
+
+	private long offset = 0L;
+
+	private ByteBuffer buffer = null;
+
+	private int position = 0;
+
+
+	public BufferSectionIterator(ByteBuffer buffer){
+		this.buffer = buffer.duplicate();
+		this.position = buffer.position();
+	}
+
+	public BufferSectionIterator(FileChannel channel) throws IOException {
+		this(channel, BufferSectionIterator.WINDOW_SIZE);
+	}
+
+	BufferSectionIterator(FileChannel channel, long windowSize) throws IOException {
+		this.channel = channel;
+		this.windowSize = windowSize;
+
+		map(0L);
+	}
+
+	public BufferSectionIterator(InputStream is) throws IOException {
+		this.is = is;
+		this.buffer = ByteBuffer.allocate(0);
+
+		fill(0);
+	}
+
+	@Override
+	protected Section computeNext(){
+
+		retry:
+		while(true){
+			ByteBuffer buffer = this.buffer;
+
+			int limit = buffer.limit();
+
+			int pos = skipLineTerminators(buffer, this.position, limit);
+
+			if(pos >= limit){
+
+				if(remap(pos)){
+					continue retry;
+				}
+
+				this.position = pos;
+
+				return endOfData();
+			}
+
+			int start = pos;
+
+			BufferSection section = new BufferSection(buffer);
+
+			while(true){
+
+				if(pos >= limit){
+
+					if(remap(start)){
+						continue retry;
+					}
+
+					this.position = pos;
+
+					return section;
+				}
+
+				int end = pos;
+
+				while(end < limit){
+					byte b = buffer.get(end);
+
+					if(b == '\n' || b == '\r'){
+						break;
+					}
+
+					end++;
+				}
+
+				// The line (or its line terminator sequence) may continue in the next window
+				if(end >= limit - 1){
+
+					if(remap(start)){
+						continue retry;
+					}
+				} // End if
+
+				if(end == pos){
+					this.position = skipLineTerminator(buffer, end, limit);
+
+					return section;
+				}
+
+				section.put(pos, end);
+
+				pos = skipLineTerminator(buffer, end, limit);
+			}
+		}
+	}
+
+	// The index of the first unread byte in the current window
+	int getPosition(){
+		return this.position;
+	}
+
+	private boolean remap(int index){
+		FileChannel channel = this.channel;
+
+		if(channel == null){
+
+			if(this.is != null){
+
+				try {
+					return fill(index);
+				} catch(IOException ioe){
+					throw new UncheckedIOException(ioe);
+				}
+			}
+
+			return false;
+		}
+
+		ByteBuffer buffer = this.buffer;
+
+		try {
+			if(this.offset + buffer.limit() >= channel.size()){
+				return false;
+			} // End if
+
+			if(index == 0){
+				throw new LightGBMException("Section is too large");
+			}
+
+			map(this.offset + index);
+		} catch(IOException ioe){
+			throw new UncheckedIOException(ioe);
+		}
+
+		return true;
+	}
+
+	private void map(long offset) throws IOException {
+		FileChannel channel = this.channel;
+
+		long size = Math.min(channel.size() - offset, this.windowSize);
+
+		this.offset = offset;
+		this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+		this.position = 0;
+	}
+
+	private boolean fill(int index) throws IOException {
+		InputStream is = this.is;
+
+		if(this.eof){
+			return false;
+		}
+
+		ByteBuffer buffer = this.buffer;
+
+		int remaining = (buffer.limit() - index);
+
+		// Sections that have already been returned keep a reference to the current chunk, so it must not be overwritten
+		byte[] bytes = new byte[Math.max(BufferSectionIterator.CHUNK_SIZE, 2 * remaining)];
+
+		buffer.duplicate()
+			.position(index)
+			.get(bytes, 0, remaining);
+
+		int length = remaining;
+
+		while(length < bytes.length){
+			int count = is.read(bytes, length, bytes.length - length);
+
+			if(count < 0){
+				this.eof = true;
+
+				break;
+			}
+
+			length += count;
+		}
+
+		if(length == remaining){
+			return false;
+		}
+
+		this.buffer = ByteBuffer.wrap(bytes, 0, length);
+		this.position = 0;
+
+		return true;
+	}
+
+	static
+	private int skipLineTerminators(ByteBuffer buffer, int pos, int limit){
+
+		while(pos < limit){
+			byte b = buffer.get(pos);
+
+			if(b != '\n' && b != '\r'){
+				break;
+			}
+
+			pos++;
+		}
+
+		return pos;
+	}
+
+	static
+	private int skipLineTerminator(ByteBuffer buffer, int pos, int limit){
+
+		if(pos < limit){
+			byte b = buffer.get(pos);
+
+			pos++;
+
+			if(b == '\r' && pos < limit && buffer.get(pos) == '\n'){
+				pos++;
+			}
+		}
+
+		return pos;
+	}
+
+	private static final long WINDOW_SIZE = Integer.MAX_VALUE;
+
+	private static final int CHUNK_SIZE = 1024 * 1024;
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Scores rows with trees that have been compiled to JVM bytecode.
+// The compiled classes are defined as hidden classes where the platform supports them (Java 15 and newer), and in a throwaway class loader otherwise.
+// Either way, they become unloadable together with the CompiledGBDT object that references them.
+public class CompiledGBDT {
+
+	private GBDT gbdt = null;
+
+	private Integer numIteration = null;
+
+	private int numFeatures = 0;
+
+	private Scorer[] scorers = null;
+
+
+	private CompiledGBDT(){
+	}
+
+	public double[] predict(double[] row){
+		ObjectiveFunction object_function_ = this.gbdt.getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(row);
+
+		object_function_.convertOutput(result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[] row){
+		GBDT gbdt = this.gbdt;
+
+		if(row.length < this.numFeatures){
+			throw new IllegalArgumentException("Expected " + this.numFeatures + " feature values, got " + row.length);
+		}
+
+		double[] result = new double[gbdt.getNumTreePerIteration()];
+
+		for(Scorer scorer : this.scorers){
+			scorer.predictRaw(row, result);
+		}
+
+		gbdt.averageOutput(result, this.numIteration);
+
+		return result;
+	}
+
+	Scorer[] getScorers(){
+		return this.scorers;
+	}
+
+	static
+	public CompiledGBDT compile(GBDT gbdt){
+		return compile(gbdt, null);
+	}
+
+	// Compiles the trees of the requested number of iterations
+	static
+	public CompiledGBDT compile(GBDT gbdt, Integer numIteration){
+		return compile(gbdt, numIteration, CompiledGBDT.defineHiddenClassMethod != null);
+	}
+
+	static
+	CompiledGBDT compile(GBDT gbdt, Integer numIteration, boolean hidden){
+		List<Tree> trees = gbdt.getTrees();
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		List<Scorer> scorers = new ArrayList<>();
+
+		for(int begin = 0; begin < numTrees; ){
+			String className = CompiledGBDT.class.getName().replace('.', '/') + "$Model" + CompiledGBDT.counter.incrementAndGet();
+
+			TreeCompiler compiler = new TreeCompiler(className, trees.subList(0, numTrees), begin, gbdt.getNumTreePerIteration());
+
+			int end = begin + compiler.countTrees();
+
+			byte[] bytes = compiler.compile(end);
+
+			scorers.add(defineScorer(bytes, hidden));
+
+			begin = end;
+		}
+
+		CompiledGBDT result = new CompiledGBDT();
+		result.gbdt = gbdt;
+		result.numIteration = numIteration;
+		result.numFeatures = (gbdt.getFeatureNames()).length;
+		result.scorers = scorers.toArray(new Scorer[scorers.size()]);
+
+		return result;
+	}
+
+	static
+	private Scorer defineScorer(byte[] bytes, boolean hidden){
+
+		try {
+			if(hidden){
+				Method defineHiddenClassMethod = CompiledGBDT.defineHiddenClassMethod;
+
+				Object options = Array.newInstance(defineHiddenClassMethod.getParameterTypes()[2].getComponentType(), 0);
+
+				MethodHandles.Lookup lookup = (MethodHandles.Lookup)defineHiddenClassMethod.invoke(MethodHandles.lookup(), bytes, Boolean.TRUE, options);
+
+				return (Scorer)lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+			} else
+
+			{
+				ScorerClassLoader classLoader = new ScorerClassLoader(CompiledGBDT.class.getClassLoader());
+
+				Class<?> clazz = classLoader.defineClass(bytes);
+
+				return (Scorer)(clazz.getConstructor()).newInstance();
+			}
+		} catch(InvocationTargetException ite){
+			throw new LightGBMException("Failed to define compiled class", ite.getCause());
+		} catch(Throwable t){
+			throw new LightGBMException("Failed to define compiled class", t);
+		}
+	}
+
+	static
+	private Method findDefineHiddenClassMethod(){
+
+		try {
+			Class<?> optionClazz = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+
+			return MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, Array.newInstance(optionClazz, 0).getClass());
+		} catch(ReflectiveOperationException roe){
+			return null;
+		}
+	}
+
+	// Public, because classes that are defined by a different class loader are not members of this runtime package
+	public interface Scorer {
+
+		void predictRaw(double[] row, double[] scores);
+	}
+
+	// Holds exactly one compiled class
+	static
+	private class ScorerClassLoader extends ClassLoader {
+
+		private ScorerClassLoader(ClassLoader parent){
+			super(parent);
+		}
+
+		private Class<?> defineClass(byte[] bytes){
+			return defineClass(null, bytes, 0, bytes.length);
+		}
+	}
+
+	private static final AtomicInteger counter = new AtomicInteger();
+
+	private static final Method defineHiddenClassMethod = findDefineHiddenClassMethod();
+}
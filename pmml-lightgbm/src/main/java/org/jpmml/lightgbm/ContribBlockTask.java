@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.concurrent.RecursiveAction;
+
+class ContribBlockTask extends RecursiveAction {
+
+	private TreeSHAP treeSHAP = null;
+
+	private double[][] columns = null;
+
+	private int offset = 0;
+
+	private int begin = 0;
+
+	private int end = 0;
+
+	private Integer numIteration = null;
+
+	private double[] result = null;
+
+
+	ContribBlockTask(TreeSHAP treeSHAP, double[][] columns, int offset, int begin, int end, Integer numIteration, double[] result){
+		this.treeSHAP = treeSHAP;
+		this.columns = columns;
+		this.offset = offset;
+		this.begin = begin;
+		this.end = end;
+		this.numIteration = numIteration;
+		this.result = result;
+	}
+
+	@Override
+	protected void compute(){
+		int begin = this.begin;
+		int end = this.end;
+
+		if((end - begin) > ContribBlockTask.THRESHOLD){
+			int middle = (begin + end) >>> 1;
+
+			invokeAll(
+				new ContribBlockTask(this.treeSHAP, this.columns, this.offset, begin, middle, this.numIteration, this.result),
+				new ContribBlockTask(this.treeSHAP, this.columns, this.offset, middle, end, this.numIteration, this.result)
+			);
+
+			return;
+		}
+
+		this.treeSHAP.predictContrib(this.columns, this.offset, begin, end, this.numIteration, this.result);
+	}
+
+	private static final int THRESHOLD = 16;
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+// An on-disk cache of serialized PMML documents, keyed by the content of the model file and the conversion options
+public class ConversionCache {
+
+	private Path directory = null;
+
+	private long maxSize = 0L;
+
+
+	public ConversionCache(File directory, long maxSize) throws IOException {
+		this.directory = directory.toPath();
+		this.maxSize = maxSize;
+
+		if(maxSize < 0L){
+			throw new IllegalArgumentException();
+		}
+
+		Files.createDirectories(this.directory);
+	}
+
+	public File getDirectory(){
+		return this.directory.toFile();
+	}
+
+	public long getMaxSize(){
+		return this.maxSize;
+	}
+
+	// Returns the cached PMML file, or null
+	public File get(String key) throws IOException {
+		Path path = resolve(key);
+
+		try {
+			// Mark the entry as the most recently used one
+			Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch(NoSuchFileException nsfe){
+			return null;
+		}
+
+		return path.toFile();
+	}
+
+	public boolean copyTo(String key, File file) throws IOException {
+		File cachedFile = get(key);
+
+		if(cachedFile == null){
+			return false;
+		}
+
+		try {
+			Files.copy(cachedFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch(NoSuchFileException nsfe){
+			// Evicted by another process in the meantime
+			return false;
+		}
+
+		return true;
+	}
+
+	public void put(String key, File file) throws IOException {
+
+		try(InputStream is = Files.newInputStream(file.toPath())){
+			put(key, is);
+		}
+	}
+
+	public void put(String key, byte[] bytes) throws IOException {
+		Path tmpPath = createTempFile();
+
+		try {
+			Files.write(tmpPath, bytes);
+
+			commit(tmpPath, key);
+		} finally {
+			Files.deleteIfExists(tmpPath);
+		}
+	}
+
+	public void put(String key, InputStream is) throws IOException {
+		Path tmpPath = createTempFile();
+
+		try {
+			Files.copy(is, tmpPath, StandardCopyOption.REPLACE_EXISTING);
+
+			commit(tmpPath, key);
+		} finally {
+			Files.deleteIfExists(tmpPath);
+		}
+	}
+
+	public void evict() throws IOException {
+		List<Path> paths = new ArrayList<>();
+
+		Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + ConversionCache.EXTENSION)){
+
+			for(Path path : stream){
+
+				try {
+					attributes.put(path, Files.readAttributes(path, BasicFileAttributes.class));
+				} catch(NoSuchFileException nsfe){
+					continue;
+				}
+
+				paths.add(path);
+			}
+		}
+
+		long size = 0L;
+
+		for(Path path : paths){
+			size += (attributes.get(path)).size();
+		}
+
+		if(size <= this.maxSize){
+			return;
+		}
+
+		// Least recently used entries first
+		Comparator<Path> comparator = Comparator.comparing((Path path) -> (attributes.get(path)).lastModifiedTime());
+
+		paths.sort(comparator);
+
+		for(Path path : paths){
+
+			if(size <= this.maxSize){
+				break;
+			}
+
+			Files.deleteIfExists(path);
+
+			size -= (attributes.get(path)).size();
+		}
+	}
+
+	private Path resolve(String key){
+
+		if(!key.matches("[0-9a-f]+")){
+			throw new IllegalArgumentException(key);
+		}
+
+		return this.directory.resolve(key + ConversionCache.EXTENSION);
+	}
+
+	private Path createTempFile() throws IOException {
+		return Files.createTempFile(this.directory, "pmml-", ".tmp");
+	}
+
+	private void commit(Path tmpPath, String key) throws IOException {
+		Path path = resolve(key);
+
+		// Concurrent readers must never observe a partially written entry
+		try {
+			Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch(AtomicMoveNotSupportedException amnse){
+			Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		evict();
+	}
+
+	static
+	public String computeKey(File file, Map<String, ?> options, String targetName, List<String> targetCategories) throws IOException {
+
+		try(InputStream is = Files.newInputStream(file.toPath())){
+			return computeKey(is, options, targetName, targetCategories);
+		}
+	}
+
+	static
+	public String computeKey(InputStream is, Map<String, ?> options, String targetName, List<String> targetCategories) throws IOException {
+		MessageDigest digest = createDigest();
+
+		byte[] buffer = new byte[64 * 1024];
+
+		while(true){
+			int count = is.read(buffer);
+
+			if(count < 0){
+				break;
+			}
+
+			digest.update(buffer, 0, count);
+		}
+
+		update(digest, "version", ConversionCache.VERSION);
+
+		// The iteration order of the options map must not matter
+		Map<String, ?> sortedOptions = new TreeMap<>(options);
+
+		for(Map.Entry<String, ?> entry : sortedOptions.entrySet()){
+			update(digest, entry.getKey(), entry.getValue());
+		}
+
+		update(digest, "target_name", targetName);
+		update(digest, "target_categories", targetCategories);
+
+		return toHexString(digest.digest());
+	}
+
+	static
+	private void update(MessageDigest digest, String key, Object value){
+		// Keep null values distinct from the "null" string
+		String string = (value != null ? ("=" + value) : "");
+
+		digest.update((byte)0);
+		digest.update((key + string).getBytes(StandardCharsets.UTF_8));
+	}
+
+	static
+	private MessageDigest createDigest(){
+
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch(NoSuchAlgorithmException nsae){
+			throw new IllegalStateException(nsae);
+		}
+	}
+
+	static
+	private String toHexString(byte[] bytes){
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+		for(byte b : bytes){
+			sb.append(Character.forDigit((b >> 4) & 0x0f, 16));
+			sb.append(Character.forDigit(b & 0x0f, 16));
+		}
+
+		return sb.toString();
+	}
+
+	private static final String EXTENSION = ".pmml";
+
+	// Cached documents become stale when the converter is upgraded
+	private static final String VERSION = Objects.toString(ConversionCache.class.getPackage().getImplementationVersion(), "");
+}
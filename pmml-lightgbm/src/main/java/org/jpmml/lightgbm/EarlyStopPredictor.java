@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.List;
+
+// Scores rows with prediction early stopping, as configured by LightGBM's pred_early_stop, pred_early_stop_freq and pred_early_stop_margin parameters.
+// After every freq iterations, scoring stops if the raw margin exceeds the margin threshold.
+// The margin is twice the absolute score for binary classification, and the difference between the two highest scores for multi-class classification
+public class EarlyStopPredictor {
+
+	private GBDT gbdt = null;
+
+	private boolean multiclass = false;
+
+
+	public EarlyStopPredictor(GBDT gbdt){
+		ObjectiveFunction object_function_ = gbdt.getObjectiveFunction();
+
+		if(object_function_ instanceof BinomialLogisticRegression){
+			this.multiclass = false;
+		} else
+
+		if(object_function_ instanceof MultinomialLogisticRegression){
+			this.multiclass = true;
+		} else
+
+		{
+			throw new IllegalArgumentException("Prediction early stopping requires a binary or multi-class classification model");
+		} // End if
+
+		// Partial averages are not comparable to margin thresholds
+		if(object_function_.getAverageOutput()){
+			throw new IllegalArgumentException("Prediction early stopping is not supported for random forest models");
+		}
+
+		this.gbdt = gbdt;
+	}
+
+	public Prediction predict(double[] row, int freq, double margin){
+		return predict(row, null, freq, margin);
+	}
+
+	public Prediction predict(double[] row, Integer numIteration, int freq, double margin){
+		Prediction result = predictRaw(row, numIteration, freq, margin);
+
+		ObjectiveFunction object_function_ = this.gbdt.getObjectiveFunction();
+
+		object_function_.convertOutput(result.getScores());
+
+		return result;
+	}
+
+	public Prediction predictRaw(double[] row, int freq, double margin){
+		return predictRaw(row, null, freq, margin);
+	}
+
+	public Prediction predictRaw(double[] row, Integer numIteration, int freq, double margin){
+		GBDT gbdt = this.gbdt;
+
+		if(freq < 1){
+			throw new IllegalArgumentException("Expected a positive early stopping frequency, got " + freq);
+		}
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+
+		if(row.length < numFeatures){
+			throw new IllegalArgumentException("Expected " + numFeatures + " feature values, got " + row.length);
+		}
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		double[] scores = new double[numTreePerIteration];
+
+		List<Tree> trees = gbdt.getTrees();
+
+		int counter = 0;
+
+		for(int i = 0; i < numTrees; ){
+
+			for(int j = 0; j < numTreePerIteration && i < numTrees; i++, j++){
+				Tree tree = trees.get(i);
+
+				scores[j] += tree.predict(row);
+			}
+
+			counter++;
+
+			if(counter == freq){
+
+				if(i < numTrees && margin(scores) > margin){
+					return new Prediction(scores, i);
+				}
+
+				counter = 0;
+			}
+		}
+
+		return new Prediction(scores, numTrees);
+	}
+
+	private double margin(double[] scores){
+
+		if(!this.multiclass){
+			return 2d * Math.abs(scores[0]);
+		}
+
+		double first = Double.NEGATIVE_INFINITY;
+		double second = Double.NEGATIVE_INFINITY;
+
+		for(double score : scores){
+
+			if(score > first){
+				second = first;
+				first = score;
+			} else
+
+			if(score > second){
+				second = score;
+			}
+		}
+
+		return first - second;
+	}
+
+	public GBDT getGBDT(){
+		return this.gbdt;
+	}
+
+	static
+	public class Prediction {
+
+		private double[] scores = null;
+
+		private int numTrees = 0;
+
+
+		private Prediction(double[] scores, int numTrees){
+			this.scores = scores;
+			this.numTrees = numTrees;
+		}
+
+		public double[] getScores(){
+			return this.scores;
+		}
+
+		// The number of trees that were actually evaluated
+		public int getNumTrees(){
+			return this.numTrees;
+		}
+	}
+
+	public static final int DEFAULT_FREQ = 10;
+	public static final double DEFAULT_MARGIN = 10d;
+}
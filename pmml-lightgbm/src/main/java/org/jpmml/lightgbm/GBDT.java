@@ -18,9 +18,14 @@
  */
 package org.jpmml.lightgbm;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +33,8 @@ import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import org.dmg.pmml.DataField;
 import org.dmg.pmml.DataType;
 import org.dmg.pmml.Field;
@@ -70,7 +77,7 @@ public class GBDT {
 
 	private ObjectiveFunction object_function_;
 
-	private Tree[] models_;
+	private List<Tree> models_ = Collections.emptyList();
 
 	private Map<String, String> feature_importances = Collections.emptyMap();
 
@@ -80,77 +87,191 @@ public class GBDT {
 
 
 	public void load(List<Section> sections){
-		int index = 0;
+		load(sections.iterator());
+	}
 
-		if(true){
-			Section section = sections.get(index);
+	public void load(Iterator<Section> sections){
+		PeekingIterator<Section> it = Iterators.peekingIterator(sections);
 
-			if(!section.checkId("tree")){
-				throw new IllegalArgumentException();
-			}
+		if(!it.hasNext()){
+			throw new IllegalArgumentException();
+		}
 
-			this.version = section.getString("version");
-			if(this.version != null){
+		loadHeader(it.next());
 
-				switch(this.version){
-					case "v2":
-					case "v3":
-					case "v4":
-						break;
-					default:
-						throw new LightGBMException("Version " + ExceptionUtil.formatVersion(this.version) + " is not supported");
-				}
+		List<Tree> trees = new ArrayList<>();
+
+		while(it.hasNext()){
+			Section section = it.peek();
+
+			String treeId = "Tree=" + String.valueOf(trees.size());
+
+			if(!section.checkId(treeId)){
+				break;
 			}
 
-			this.max_feature_idx_ = section.getInt("max_feature_idx");
-			this.label_idx_ = section.getInt("label_index");
-			this.feature_names_ = section.getStringArray("feature_names", this.max_feature_idx_ + 1);
-			this.feature_infos_ = section.getStringArray("feature_infos", this.max_feature_idx_ + 1);
+			// Release the section as soon as the tree has been loaded
+			section = it.next();
 
-			this.object_function_ = loadObjectiveFunction(section);
+			Tree tree = new Tree();
+			tree.load(section);
 
-			index++;
+			trees.add(tree);
 		}
 
-		List<Tree> trees = new ArrayList<>();
+		this.models_ = trees;
 
-		while(index < sections.size()){
-			Section section = sections.get(index);
+		loadFooter(it);
+	}
 
-			String treeId = "Tree=" + String.valueOf(index - 1);
+	public void load(Section header, List<Tree> trees, Iterator<Section> sections){
+		PeekingIterator<Section> it = Iterators.peekingIterator(sections);
 
-			if(!section.checkId(treeId)){
-				break;
+		loadHeader(header);
+
+		this.models_ = trees;
+
+		loadFooter(it);
+	}
+
+	public void loadSnapshot(ByteBuffer buffer){
+		SnapshotReader reader = new SnapshotReader(buffer);
+
+		if(reader.readInt() != GBDT.SNAPSHOT_MAGIC){
+			throw new IllegalArgumentException("Not a snapshot");
+		}
+
+		int snapshotVersion = reader.readInt();
+		if(snapshotVersion != GBDT.SNAPSHOT_VERSION){
+			throw new LightGBMException("Snapshot version " + snapshotVersion + " is not supported");
+		}
+
+		this.version = reader.readString();
+		this.max_feature_idx_ = reader.readInt();
+		this.label_idx_ = reader.readInt();
+		this.feature_names_ = reader.readStringArray();
+		this.feature_infos_ = reader.readStringArray();
+
+		String className = reader.readString();
+		if(className != null){
+			Section config = new Section();
+
+			String[] entries = reader.readStringArray();
+			for(int i = 0; i < entries.length; i += 2){
+				config.put(entries[i], entries[i + 1]);
 			}
 
+			this.object_function_ = LightGBMUtil.createObjectiveFunction(className, config);
+		}
+
+		List<Tree> trees = new ArrayList<>();
+
+		for(int i = 0, max = reader.readInt(); i < max; i++){
 			Tree tree = new Tree();
-			tree.load(section);
+			tree.load(reader);
 
 			trees.add(tree);
+		}
+
+		this.models_ = trees;
 
-			index++;
+		Map<String, String> feature_importances = new LinkedHashMap<>();
+
+		String[] entries = reader.readStringArray();
+		for(int i = 0; i < entries.length; i += 2){
+			feature_importances.put(entries[i], entries[i + 1]);
 		}
 
-		this.models_ = trees.toArray(new Tree[trees.size()]);
+		this.feature_importances = feature_importances;
+		this.linear_tree = reader.readString();
+
+		String pandas_categorical = reader.readString();
+		if(pandas_categorical != null){
+			this.pandas_categorical = PandasUtil.parsePandasCategorical(pandas_categorical);
+		}
+	}
+
+	public void writeSnapshot(OutputStream os) throws IOException {
+		SnapshotWriter writer = new SnapshotWriter(os);
+
+		writer.writeInt(GBDT.SNAPSHOT_MAGIC);
+		writer.writeInt(GBDT.SNAPSHOT_VERSION);
+
+		writer.writeString(this.version);
+		writer.writeInt(this.max_feature_idx_);
+		writer.writeInt(this.label_idx_);
+		writer.writeStringArray(this.feature_names_);
+		writer.writeStringArray(this.feature_infos_);
+
+		ObjectiveFunction object_function_ = this.object_function_;
+		if(object_function_ != null){
+			writer.writeString((object_function_.getClass()).getName());
+			writer.writeStringArray(toEntryArray(object_function_.getConfig()));
+		} else
+
+		{
+			writer.writeString(null);
+		}
+
+		List<Tree> trees = this.models_;
+
+		writer.writeInt(trees.size());
+
+		for(Tree tree : trees){
+			tree.write(writer);
+		}
+
+		writer.writeStringArray(toEntryArray(this.feature_importances));
+		writer.writeString(this.linear_tree);
+		writer.writeString(this.pandas_categorical.size() > 0 ? PandasUtil.formatPandasCategorical(this.pandas_categorical) : null);
+
+		writer.flush();
+	}
+
+	private void loadHeader(Section section){
+
+		if(!section.checkId("tree")){
+			throw new IllegalArgumentException();
+		}
+
+		this.version = section.getString("version");
+		if(this.version != null){
+
+			switch(this.version){
+				case "v2":
+				case "v3":
+				case "v4":
+					break;
+				default:
+					throw new LightGBMException("Version " + ExceptionUtil.formatVersion(this.version) + " is not supported");
+			}
+		}
+
+		this.max_feature_idx_ = section.getInt("max_feature_idx");
+		this.label_idx_ = section.getInt("label_index");
+		this.feature_names_ = section.getStringArray("feature_names", this.max_feature_idx_ + 1);
+		this.feature_infos_ = section.getStringArray("feature_infos", this.max_feature_idx_ + 1);
+
+		this.object_function_ = loadObjectiveFunction(section);
+	}
 
-		index = skipEndSection("end of trees", sections, index);
+	private void loadFooter(PeekingIterator<Section> it){
+		skipEndSection("end of trees", it);
 
 		feature_importances:
-		if(index < sections.size()){
-			Section section = sections.get(index);
+		if(it.hasNext()){
+			Section section = it.peek();
 
 			if(!section.checkId("feature importances:") && !section.checkId("feature_importances:")){
 				break feature_importances;
 			}
 
-			this.feature_importances = loadFeatureSection(section);
-
-			index++;
+			this.feature_importances = loadFeatureSection(it.next());
 		}
 
 		parameters:
-		if(index < sections.size()){
-			Section section = sections.get(index);
+		if(it.hasNext()){
+			Section section = it.peek();
 
 			if(!section.checkId("parameters:")){
 				break parameters;
@@ -158,22 +279,20 @@ public class GBDT {
 
 			this.linear_tree = section.get("linear_tree", false);
 
-			index++;
+			it.next();
 
-			index = skipEndSection("end of parameters", sections, index);
+			skipEndSection("end of parameters", it);
 		}
 
 		pandas_categorical:
-		if(index < sections.size()){
-			Section section = sections.get(index);
+		if(it.hasNext()){
+			Section section = it.peek();
 
 			if(!section.checkId(id -> id.startsWith("pandas_categorical:"))){
 				break pandas_categorical;
 			}
 
-			this.pandas_categorical = loadPandasCategorical(section);
-
-			index++;
+			this.pandas_categorical = loadPandasCategorical(it.next());
 		}
 	}
 
@@ -447,7 +566,7 @@ public class GBDT {
 			throw new IllegalStateException();
 		}
 
-		Model model = object_function_.encodeModel(Arrays.asList(this.models_), numIterations, schema)
+		Model model = object_function_.encodeModel(this.models_, numIterations, schema)
 			.setAlgorithmName("LightGBM");
 
 		return model;
@@ -512,6 +631,277 @@ public class GBDT {
 		return model;
 	}
 
+	public double[] predict(double[] row){
+		return predict(row, null);
+	}
+
+	public double[] predict(double[] row, Integer numIteration){
+		ObjectiveFunction object_function_ = getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(row, numIteration);
+
+		object_function_.convertOutput(result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[] row){
+		return predictRaw(row, null);
+	}
+
+	public double[] predictRaw(double[] row, Integer numIteration){
+
+		if(row.length <= this.max_feature_idx_){
+			throw new IllegalArgumentException("Expected " + (this.max_feature_idx_ + 1) + " feature values, got " + row.length);
+		}
+
+		int numTreePerIteration = getNumTreePerIteration();
+
+		int numTrees = getNumTrees(numIteration);
+
+		double[] result = new double[numTreePerIteration];
+
+		List<Tree> trees = this.models_;
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			result[i % numTreePerIteration] += tree.predict(row);
+		}
+
+		averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	// Scores a block of rows from column-major data. The result is row-major
+	public double[] predict(double[][] columns, int offset, int length, Integer numIteration){
+		ObjectiveFunction object_function_ = getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(columns, offset, length, numIteration);
+
+		convertOutput(object_function_, result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[][] columns, int offset, int length, Integer numIteration){
+
+		if(columns.length <= this.max_feature_idx_){
+			throw new IllegalArgumentException("Expected " + (this.max_feature_idx_ + 1) + " feature columns, got " + columns.length);
+		}
+
+		int numTreePerIteration = getNumTreePerIteration();
+
+		double[] result = new double[length * numTreePerIteration];
+
+		for(int begin = 0; begin < length; begin += GBDT.BLOCK_SIZE){
+			int end = Math.min(begin + GBDT.BLOCK_SIZE, length);
+
+			predictRaw(columns, offset + begin, end - begin, result, begin * numTreePerIteration, numIteration);
+		}
+
+		averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	// Scores a block of rows from flat column-major data, where the values of feature i start at index (i * stride)
+	public double[] predict(double[] data, int stride, int offset, int length, Integer numIteration){
+		ObjectiveFunction object_function_ = getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(data, stride, offset, length, numIteration);
+
+		convertOutput(object_function_, result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[] data, int stride, int offset, int length, Integer numIteration){
+		int numFeatures = (this.max_feature_idx_ + 1);
+
+		if((long)(numFeatures - 1) * stride + offset + length > data.length){
+			throw new IllegalArgumentException("Expected " + numFeatures + " feature columns with a stride of " + stride + ", got " + data.length + " values");
+		}
+
+		int numTreePerIteration = getNumTreePerIteration();
+
+		double[] result = new double[length * numTreePerIteration];
+
+		double[][] columns = new double[numFeatures][Math.min(length, GBDT.BLOCK_SIZE)];
+
+		for(int begin = 0; begin < length; begin += GBDT.BLOCK_SIZE){
+			int end = Math.min(begin + GBDT.BLOCK_SIZE, length);
+
+			// Gather the block into contiguous column arrays
+			for(int i = 0; i < numFeatures; i++){
+				System.arraycopy(data, (i * stride) + offset + begin, columns[i], 0, end - begin);
+			}
+
+			predictRaw(columns, 0, end - begin, result, begin * numTreePerIteration, numIteration);
+		}
+
+		averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	// Scores a block of rows from sparse data. The result is row-major.
+	// The dense scratch block is allocated per call. Callers that score many blocks should use a SparseScorer instead
+	public double[] predict(SparseMatrix matrix, Integer numIteration){
+		SparseScorer scorer = new SparseScorer(this);
+
+		return scorer.predict(matrix, numIteration);
+	}
+
+	public double[] predictRaw(SparseMatrix matrix, Integer numIteration){
+		SparseScorer scorer = new SparseScorer(this);
+
+		return scorer.predictRaw(matrix, numIteration);
+	}
+
+	private void predictRaw(double[][] columns, int offset, int length, double[] result, int resultOffset, Integer numIteration){
+		int numTreePerIteration = getNumTreePerIteration();
+
+		int numTrees = getNumTrees(numIteration);
+
+		List<Tree> trees = this.models_;
+
+		// Tree-major traversal keeps the nodes of one tree hot in cache for the whole block
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			tree.predict(columns, offset, length, result, numTreePerIteration, resultOffset + (i % numTreePerIteration));
+		}
+	}
+
+	// The index of the leaf that the row reaches in each tree
+	public int[] predictLeaf(double[] row, Integer numIteration){
+
+		if(row.length <= this.max_feature_idx_){
+			throw new IllegalArgumentException("Expected " + (this.max_feature_idx_ + 1) + " feature values, got " + row.length);
+		}
+
+		int numTrees = getNumTrees(numIteration);
+
+		int[] result = new int[numTrees];
+
+		List<Tree> trees = this.models_;
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			result[i] = tree.getLeaf(row);
+		}
+
+		return result;
+	}
+
+	// Finds leaf indices for a block of rows from column-major data. The result is row-major
+	public int[] predictLeaf(double[][] columns, int offset, int length, Integer numIteration){
+		int[] result = new int[length * getNumTrees(numIteration)];
+
+		predictLeaf(columns, offset, length, numIteration, false, result, 0);
+
+		return result;
+	}
+
+	// Writes leaf indices into a caller-supplied buffer, starting from the result offset.
+	// In one-hot mode, leaf indices are shifted by the leaf offset of their tree, so that they become column indices of a sparse one-hot matrix
+	public void predictLeaf(double[][] columns, int offset, int length, Integer numIteration, boolean oneHot, int[] result, int resultOffset){
+
+		if(columns.length <= this.max_feature_idx_){
+			throw new IllegalArgumentException("Expected " + (this.max_feature_idx_ + 1) + " feature columns, got " + columns.length);
+		}
+
+		int numTrees = getNumTrees(numIteration);
+
+		if((long)resultOffset + (long)length * numTrees > result.length){
+			throw new IllegalArgumentException("Expected a buffer of at least " + ((long)resultOffset + (long)length * numTrees) + " elements, got " + result.length);
+		}
+
+		int[] leafOffsets = (oneHot ? getLeafOffsets(numIteration) : null);
+
+		List<Tree> trees = this.models_;
+
+		for(int begin = 0; begin < length; begin += GBDT.BLOCK_SIZE){
+			int end = Math.min(begin + GBDT.BLOCK_SIZE, length);
+
+			for(int i = 0; i < numTrees; i++){
+				Tree tree = trees.get(i);
+
+				tree.getLeaf(columns, offset + begin, end - begin, result, numTrees, resultOffset + (begin * numTrees) + i, (oneHot ? leafOffsets[i] : 0));
+			}
+		}
+	}
+
+	// The first one-hot column index of each tree. The last element is the total number of one-hot columns
+	public int[] getLeafOffsets(Integer numIteration){
+		int numTrees = getNumTrees(numIteration);
+
+		int[] result = new int[numTrees + 1];
+
+		List<Tree> trees = this.models_;
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			result[i + 1] = result[i] + tree.getNumLeaves();
+		}
+
+		return result;
+	}
+
+	void averageOutput(double[] scores, Integer numIteration){
+		int numTrees = getNumTrees(numIteration);
+
+		if(this.object_function_ != null && this.object_function_.getAverageOutput() && numTrees > 0){
+			int numIterations = (numTrees / getNumTreePerIteration());
+
+			for(int i = 0; i < scores.length; i++){
+				scores[i] /= numIterations;
+			}
+		}
+	}
+
+	void convertOutput(ObjectiveFunction object_function_, double[] scores){
+		int numTreePerIteration = getNumTreePerIteration();
+
+		for(int offset = 0; offset < scores.length; offset += numTreePerIteration){
+			object_function_.convertOutput(scores, offset);
+		}
+	}
+
+	public int getNumTreePerIteration(){
+		ObjectiveFunction object_function_ = getObjectiveFunction();
+
+		return (object_function_ != null ? object_function_.getNumTreePerIteration() : 1);
+	}
+
+	// The number of leading trees that make up the requested number of iterations
+	int getNumTrees(Integer numIteration){
+		int result = this.models_.size();
+
+		if(numIteration != null && numIteration > 0){
+			result = Math.min(numIteration * getNumTreePerIteration(), result);
+		}
+
+		return result;
+	}
+
+	public List<Tree> getTrees(){
+		return this.models_;
+	}
+
 	public String[] getFeatureNames(){
 		return this.feature_names_;
 	}
@@ -541,7 +931,7 @@ public class GBDT {
 
 		Boolean result = null;
 
-		Tree[] trees = this.models_;
+		List<Tree> trees = getSplitTrees();
 		for(Tree tree : trees){
 			Boolean binary = tree.isBinary(feature);
 
@@ -558,6 +948,48 @@ public class GBDT {
 		return result;
 	}
 
+	// The pandas category levels of every feature, or null for features that are not pandas categorical.
+	// Levels are assigned to features in the same order as during schema encoding
+	List<List<?>> getPandasCategories(){
+		String[] featureNames = this.feature_names_;
+		String[] featureInfos = this.feature_infos_;
+
+		List<List<?>> result = new ArrayList<>(Collections.nCopies(featureNames.length, null));
+
+		int pandasCategoryIndex = 0;
+
+		for(int i = 0; i < featureNames.length && pandasCategoryIndex < this.pandas_categorical.size(); i++){
+			String featureInfo = featureInfos[i];
+
+			List<?> pandasCategoryValues = this.pandas_categorical.get(pandasCategoryIndex);
+
+			if(LightGBMUtil.isNone(featureInfo)){
+
+				// A constant categorical column
+				if(pandasCategoryValues.size() == 1){
+					result.set(i, pandasCategoryValues);
+
+					pandasCategoryIndex++;
+				}
+
+				continue;
+			}
+
+			Boolean categorical = isCategorical(i);
+			if(categorical == null){
+				categorical = LightGBMUtil.isValues(featureInfo);
+			} // End if
+
+			if(categorical){
+				result.set(i, pandasCategoryValues);
+
+				pandasCategoryIndex++;
+			}
+		}
+
+		return result;
+	}
+
 	private Boolean isCategorical(int feature){
 		String featureInfo = this.feature_infos_[feature];
 
@@ -567,7 +999,7 @@ public class GBDT {
 
 		Boolean result = null;
 
-		Tree[] trees = this.models_;
+		List<Tree> trees = getSplitTrees();
 		for(Tree tree: trees){
 			Boolean categorical = tree.isCategorical(feature);
 
@@ -584,6 +1016,19 @@ public class GBDT {
 		return result;
 	}
 
+	private List<Tree> getSplitTrees(){
+		List<Tree> trees = this.models_;
+
+		// Feature type inference does not need fully loaded trees
+		if(trees instanceof LazyTreeList){
+			LazyTreeList lazyTrees = (LazyTreeList)trees;
+
+			return lazyTrees.splitsView();
+		}
+
+		return trees;
+	}
+
 	private Double getFeatureImportance(String featureName){
 		String value = this.feature_importances.get(featureName);
 
@@ -723,18 +1168,37 @@ public class GBDT {
 	}
 
 	static
-	private int skipEndSection(String id, List<Section> sections, int index){
+	private void skipEndSection(String id, PeekingIterator<Section> sections){
 
-		if(index < sections.size()){
-			Section section = sections.get(index);
+		if(sections.hasNext()){
+			Section section = sections.peek();
 
 			if(section.checkId(id)){
-				return (index + 1);
+				sections.next();
 			}
 		}
+	}
+
+	static
+	String[] toEntryArray(Map<String, String> map){
+		String[] result = new String[2 * map.size()];
+
+		int i = 0;
+
+		Collection<Map.Entry<String, String>> entries = map.entrySet();
+		for(Map.Entry<String, String> entry : entries){
+			result[i++] = entry.getKey();
+			result[i++] = entry.getValue();
+		}
 
-		return index;
+		return result;
 	}
 
 	private static final Integer CATEGORY_MISSING = -1;
+
+	private static final int BLOCK_SIZE = 512;
+
+	// The bytes "LGBS" in little-endian order
+	private static final int SNAPSHOT_MAGIC = 0x5342474C;
+	private static final int SNAPSHOT_VERSION = 1;
 }
\ No newline at end of file
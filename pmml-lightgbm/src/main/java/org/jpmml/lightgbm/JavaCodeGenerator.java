@@ -0,0 +1,697 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.lang.model.SourceVersion;
+
+// Generates the Java source code of a standalone scorer class.
+// The generated class depends on the Java standard library only.
+public class JavaCodeGenerator {
+
+	private GBDT gbdt = null;
+
+	private Integer numIteration = null;
+
+	private StringBuilder sb = new StringBuilder();
+
+
+	public JavaCodeGenerator(GBDT gbdt, Integer numIteration){
+		this.gbdt = gbdt;
+		this.numIteration = numIteration;
+	}
+
+	public void generate(String packageName, String className, Writer writer) throws IOException {
+
+		if(packageName != null && !SourceVersion.isName(packageName)){
+			throw new IllegalArgumentException("Invalid package name " + packageName);
+		} // End if
+
+		if(!SourceVersion.isIdentifier(className) || SourceVersion.isKeyword(className)){
+			throw new IllegalArgumentException("Invalid class name " + className);
+		}
+
+		GBDT gbdt = this.gbdt;
+
+		String[] featureNames = gbdt.getFeatureNames();
+		List<List<?>> pandasCategories = gbdt.getPandasCategories();
+
+		ObjectiveFunction object_function_ = gbdt.getObjectiveFunction();
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+		int numTrees = gbdt.getNumTrees(this.numIteration);
+
+		List<Tree> trees = (gbdt.getTrees()).subList(0, numTrees);
+
+		this.sb.setLength(0);
+
+		if(packageName != null){
+			line(0, "package " + packageName + ";");
+			line(0, "");
+		}
+
+		line(0, "// Generated by JPMML-LightGBM from " + numTrees + " trees");
+		line(0, "public final class " + className + " {");
+		line(0, "");
+
+		List<List<String>> featureChunks = chunkFeatures(featureNames, pandasCategories);
+
+		line(1, "public static final String[] FEATURE_NAMES = new String[" + featureNames.length + "];");
+		line(0, "");
+
+		line(1, "// The category levels of pandas categorical features. The index of a level is its category code");
+		line(1, "private static final Object[][] CATEGORIES = new Object[" + featureNames.length + "][];");
+		line(0, "");
+
+		line(1, "private static final java.util.Map<String, Integer> FEATURE_INDICES = new java.util.HashMap<>();");
+		line(0, "");
+		line(1, "static {");
+
+		for(int i = 0; i < featureChunks.size(); i++){
+			line(2, "Features" + i + ".init(FEATURE_NAMES, CATEGORIES);");
+		}
+
+		line(0, "");
+		line(2, "for(int i = 0; i < FEATURE_NAMES.length; i++){");
+		line(3, "FEATURE_INDICES.put(FEATURE_NAMES[i], i);");
+		line(2, "}");
+		line(1, "}");
+		line(0, "");
+
+		line(1, "private " + className + "(){");
+		line(1, "}");
+		line(0, "");
+
+		line(1, "public static int getFeatureIndex(String name){");
+		line(2, "Integer index = FEATURE_INDICES.get(name);");
+		line(0, "");
+		line(2, "return (index != null ? index : -1);");
+		line(1, "}");
+		line(0, "");
+
+		line(1, "// Returns the category code of a value. Missing and unknown values are mapped to NaN");
+		line(1, "public static double encodeCategory(int feature, Object value){");
+		line(2, "Object[] categories = CATEGORIES[feature];");
+		line(2, "if(categories == null){");
+		line(3, "throw new IllegalArgumentException(\"Feature \" + FEATURE_NAMES[feature] + \" is not categorical\");");
+		line(2, "} // End if");
+		line(0, "");
+		line(2, "if(value == null){");
+		line(3, "return Double.NaN;");
+		line(2, "}");
+		line(0, "");
+		line(2, "for(int i = 0; i < categories.length; i++){");
+		line(3, "Object category = categories[i];");
+		line(0, "");
+		line(3, "if((category instanceof Number && value instanceof Number) ? (((Number)category).doubleValue() == ((Number)value).doubleValue()) : category.equals(value)){");
+		line(4, "return i;");
+		line(3, "}");
+		line(2, "}");
+		line(0, "");
+		line(2, "return Double.NaN;");
+		line(1, "}");
+		line(0, "");
+
+		line(1, "// Maps feature values by name to a row. Missing values are mapped to NaN");
+		line(1, "public static double[] toRow(java.util.Map<String, ?> values){");
+		line(2, "double[] row = new double[FEATURE_NAMES.length];");
+		line(0, "");
+		line(2, "for(int i = 0; i < row.length; i++){");
+		line(3, "Object value = values.get(FEATURE_NAMES[i]);");
+		line(0, "");
+		line(3, "if(CATEGORIES[i] != null){");
+		line(4, "row[i] = encodeCategory(i, value);");
+		line(3, "} else");
+		line(0, "");
+		line(3, "if(value == null){");
+		line(4, "row[i] = Double.NaN;");
+		line(3, "} else");
+		line(0, "");
+		line(3, "if(value instanceof Boolean){");
+		line(4, "row[i] = ((Boolean)value ? 1d : 0d);");
+		line(3, "} else");
+		line(0, "");
+		line(3, "{");
+		line(4, "row[i] = ((Number)value).doubleValue();");
+		line(3, "}");
+		line(2, "}");
+		line(0, "");
+		line(2, "return row;");
+		line(1, "}");
+		line(0, "");
+
+		line(1, "public static double[] predict(double[] row){");
+		line(2, "double[] scores = predictRaw(row);");
+
+		List<String> outputLines = (object_function_ != null ? object_function_.encodeJavaOutput() : null);
+		if(outputLines != null && !outputLines.isEmpty()){
+			line(0, "");
+
+			for(String outputLine : outputLines){
+				line(2, outputLine);
+			}
+		}
+
+		line(0, "");
+		line(2, "return scores;");
+		line(1, "}");
+		line(0, "");
+
+		List<Integer> shardOffsets = shard(trees);
+
+		line(1, "public static double[] predictRaw(double[] row){");
+		line(0, "");
+		line(2, "if(row.length < FEATURE_NAMES.length){");
+		line(3, "throw new IllegalArgumentException(\"Expected \" + FEATURE_NAMES.length + \" feature values, got \" + row.length);");
+		line(2, "}");
+		line(0, "");
+		line(2, "double[] scores = new double[" + numTreePerIteration + "];");
+		line(0, "");
+
+		for(int i = 0; i < shardOffsets.size() - 1; i++){
+			line(2, "Trees" + i + ".predictRaw(row, scores);");
+		}
+
+		if(object_function_ != null && object_function_.getAverageOutput() && numTrees > 0){
+			line(0, "");
+			line(2, "for(int i = 0; i < scores.length; i++){");
+			line(3, "scores[i] /= " + (numTrees / numTreePerIteration) + ";");
+			line(2, "}");
+		}
+
+		line(0, "");
+		line(2, "return scores;");
+		line(1, "}");
+		line(0, "");
+
+		line(1, "static boolean isZero(double value){");
+		line(2, "return Double.isNaN(value) || ((value >= -" + formatDouble(Tree.THRESHOLD_ZERO) + ") && (value <= " + formatDouble(Tree.THRESHOLD_ZERO) + "));");
+		line(1, "}");
+		line(0, "");
+
+		line(1, "static boolean isCategory(double value, int[] bitset){");
+		line(0, "");
+		line(2, "if(Double.isNaN(value) || (int)value < 0){");
+		line(3, "return false;");
+		line(2, "}");
+		line(0, "");
+		line(2, "int category = (int)value;");
+		line(2, "int index = (category / 32);");
+		line(0, "");
+		line(2, "return (index < bitset.length) && ((bitset[index] >>> (category % 32)) & 1) == 1;");
+		line(1, "}");
+		line(0, "");
+
+		line(1, "static boolean isCategory(double value, long mask){");
+		line(0, "");
+		line(2, "if(Double.isNaN(value) || (int)value < 0){");
+		line(3, "return false;");
+		line(2, "}");
+		line(0, "");
+		line(2, "int category = (int)value;");
+		line(0, "");
+		line(2, "return (category < 64) && ((mask >>> category) & 1L) == 1L;");
+		line(1, "}");
+
+		for(int i = 0; i < shardOffsets.size() - 1; i++){
+			line(0, "");
+
+			generateShard(i, trees, shardOffsets.get(i), shardOffsets.get(i + 1), numTreePerIteration);
+		}
+
+		for(int i = 0; i < featureChunks.size(); i++){
+			line(0, "");
+			line(1, "static final class Features" + i + " {");
+			line(0, "");
+			line(2, "static void init(String[] names, Object[][] categories){");
+
+			for(String statement : featureChunks.get(i)){
+				line(3, statement);
+			}
+
+			line(2, "}");
+			line(1, "}");
+		}
+
+		line(0, "}");
+
+		writer.write(this.sb.toString());
+		writer.flush();
+	}
+
+	private void generateShard(int index, List<Tree> trees, int begin, int end, int numTreePerIteration){
+		line(1, "static final class Trees" + index + " {");
+		line(0, "");
+
+		List<Object[]> bitsets = new ArrayList<>();
+		List<String> methods = new ArrayList<>();
+
+		StringBuilder shardSb = this.sb;
+
+		// Tree methods are generated first, because they collect the bitset constants of categorical splits
+		this.sb = new StringBuilder();
+
+		for(int i = begin; i < end; i++){
+			Tree tree = trees.get(i);
+
+			List<Integer> roots = new ArrayList<>();
+			roots.add(0);
+
+			for(int j = 0; j < roots.size(); j++){
+				int root = roots.get(j);
+
+				line(0, "");
+				line(2, "static double " + treeMethodName(i, root) + "(double[] row){");
+
+				if(tree.isEmpty()){
+					generateLeaf(tree, 0, 3);
+				} else
+
+				{
+					generateNode(tree, i, root, root, 3, roots, bitsets);
+				}
+
+				line(2, "}");
+			}
+		}
+
+		String methodsSource = this.sb.toString();
+
+		this.sb = shardSb;
+
+		for(Object[] bitset : bitsets){
+			line(2, "private static final int[] " + bitset[0] + " = {" + bitset[1] + "};");
+			line(0, "");
+		}
+
+		// The accumulating method is split, so that every part stays below the JIT size limit
+		for(int partBegin = begin, part = 0; partBegin < end; partBegin += JavaCodeGenerator.PART_SIZE, part++){
+			int partEnd = Math.min(partBegin + JavaCodeGenerator.PART_SIZE, end);
+
+			methods.add("predictRaw" + part);
+
+			line(2, "static void predictRaw" + part + "(double[] row, double[] scores){");
+
+			for(int i = partBegin; i < partEnd; i++){
+				line(3, "scores[" + (i % numTreePerIteration) + "] += " + treeMethodName(i, 0) + "(row);");
+			}
+
+			line(2, "}");
+			line(0, "");
+		}
+
+		line(2, "static void predictRaw(double[] row, double[] scores){");
+
+		for(String method : methods){
+			line(3, method + "(row, scores);");
+		}
+
+		line(2, "}");
+
+		this.sb.append(methodsSource);
+
+		line(1, "}");
+	}
+
+	private void generateNode(Tree tree, int index, int root, int node, int depth, List<Integer> roots, List<Object[]> bitsets){
+
+		if(node < 0){
+			generateLeaf(tree, ~node, depth);
+
+			return;
+		} // End if
+
+		// Large subtrees are moved to methods of their own
+		if(node != root && countLeaves(tree, node) > JavaCodeGenerator.MAX_METHOD_LEAVES){
+			roots.add(node);
+
+			line(depth, "return " + treeMethodName(index, node) + "(row);");
+
+			return;
+		}
+
+		int feature = (tree.getSplitFeature())[node];
+		double threshold = (tree.getThreshold())[node];
+		int decisionType = (tree.getDecisionType())[node];
+
+		String value = "row[" + feature + "]";
+
+		String condition;
+
+		if(Tree.hasCategoricalMask(decisionType)){
+			int[] catBoundaries = tree.getCatBoundaries();
+			long[] catThreshold = tree.getCatThreshold();
+
+			int catIdx = (int)threshold;
+
+			int begin = catBoundaries[catIdx];
+			int end = catBoundaries[catIdx + 1];
+
+			// Up to 64 categories fit into a single long constant
+			if(end - begin <= 2){
+				long mask = 0L;
+
+				for(int i = begin; i < end; i++){
+					mask |= (catThreshold[i] & 0xFFFFFFFFL) << (32 * (i - begin));
+				}
+
+				condition = "isCategory(" + value + ", 0x" + Long.toHexString(mask) + "L)";
+			} else
+
+			{
+				List<String> words = new ArrayList<>();
+
+				for(int i = begin; i < end; i++){
+					words.add("0x" + Long.toHexString(catThreshold[i] & 0xFFFFFFFFL));
+				}
+
+				String name = "CAT_" + index + "_" + node;
+
+				bitsets.add(new Object[]{name, String.join(", ", words)});
+
+				condition = "isCategory(" + value + ", " + name + ")";
+			}
+		} else
+
+		{
+			boolean defaultLeft = Tree.hasDefaultLeftMask(decisionType);
+
+			String comparison = value + " <= " + formatDouble(threshold);
+
+			switch(Tree.getMissingType(decisionType)){
+				case Tree.MISSING_TYPE_ZERO:
+					condition = (defaultLeft ? ("isZero(" + value + ") || " + comparison) : ("!isZero(" + value + ") && " + comparison));
+					break;
+				case Tree.MISSING_TYPE_NAN:
+					condition = (defaultLeft ? ("Double.isNaN(" + value + ") || " + comparison) : ("!Double.isNaN(" + value + ") && " + comparison));
+					break;
+				default:
+					// NaN is treated as zero
+					condition = (0d <= threshold ? ("!(" + value + " > " + formatDouble(threshold) + ")") : comparison);
+					break;
+			}
+		}
+
+		line(depth, "if(" + condition + "){");
+		generateNode(tree, index, root, (tree.getLeftChild())[node], depth + 1, roots, bitsets);
+		line(depth, "} else {");
+		generateNode(tree, index, root, (tree.getRightChild())[node], depth + 1, roots, bitsets);
+		line(depth, "}");
+	}
+
+	private void generateLeaf(Tree tree, int leaf, int depth){
+		double leafValue = (tree.getLeafValue())[leaf];
+
+		if(tree.isLinear()){
+			int[] leafFeatures = (tree.getLeafFeatures())[leaf];
+			double[] leafCoeff = (tree.getLeafCoeff())[leaf];
+
+			StringBuilder expression = new StringBuilder(formatDouble((tree.getLeafConst())[leaf]));
+
+			if(leafFeatures.length > 0){
+				List<String> checks = new ArrayList<>();
+
+				for(int i = 0; i < leafFeatures.length; i++){
+					checks.add("Double.isNaN(row[" + leafFeatures[i] + "])");
+
+					expression.append(" + (").append(formatDouble(leafCoeff[i])).append(") * row[").append(leafFeatures[i]).append("]");
+				}
+
+				// See Tree#isLinearMissing(double)
+				line(depth, "if(" + String.join(" || ", checks) + "){");
+				line(depth + 1, "return " + formatDouble(leafValue) + ";");
+				line(depth, "}");
+			}
+
+			line(depth, "return " + expression + ";");
+
+			return;
+		}
+
+		line(depth, "return " + formatDouble(leafValue) + ";");
+	}
+
+	private void line(int depth, String string){
+
+		for(int i = 0; i < depth; i++){
+			this.sb.append('\t');
+		}
+
+		this.sb.append(string).append('\n');
+	}
+
+	// Splits the trees into classes, so that every class stays below the constant pool limit,
+	// and the initialization of bitset constants stays below the method size limit
+	static
+	private List<Integer> shard(List<Tree> trees){
+		List<Integer> result = new ArrayList<>();
+		result.add(0);
+
+		int numTrees = 0;
+		int numLeaves = 0;
+		int numWords = 0;
+
+		for(int i = 0; i < trees.size(); i++){
+			Tree tree = trees.get(i);
+
+			int treeWords = countBitsetWords(tree);
+
+			if(numTrees > 0 && (numTrees >= JavaCodeGenerator.MAX_SHARD_TREES || numLeaves + tree.getNumLeaves() > JavaCodeGenerator.MAX_SHARD_LEAVES || numWords + treeWords > JavaCodeGenerator.MAX_SHARD_WORDS)){
+				result.add(i);
+
+				numTrees = 0;
+				numLeaves = 0;
+				numWords = 0;
+			}
+
+			numTrees++;
+			numLeaves += tree.getNumLeaves();
+			numWords += treeWords;
+		}
+
+		result.add(trees.size());
+
+		return result;
+	}
+
+	// Splits the initialization of feature tables into classes, so that every class stays below the constant pool limit,
+	// and every initialization method stays below the method size limit
+	static
+	private List<List<String>> chunkFeatures(String[] featureNames, List<List<?>> pandasCategories){
+		List<String> statements = new ArrayList<>();
+		List<Integer> numLiterals = new ArrayList<>();
+
+		for(int i = 0; i < featureNames.length; i++){
+			List<?> values = pandasCategories.get(i);
+
+			statements.add("names[" + i + "] = " + formatString(featureNames[i]) + ";");
+			numLiterals.add(1);
+
+			if(values == null){
+				continue;
+			}
+
+			List<String> literals = new ArrayList<>();
+
+			for(Object value : values){
+				literals.add(formatValue(value));
+			}
+
+			if(literals.size() <= JavaCodeGenerator.MAX_CHUNK_LITERALS){
+				statements.add("categories[" + i + "] = new Object[]{" + String.join(", ", literals) + "};");
+				numLiterals.add(literals.size());
+
+				continue;
+			}
+
+			// Very long lists of category levels are copied in pieces
+			statements.add("categories[" + i + "] = new Object[" + literals.size() + "];");
+			numLiterals.add(1);
+
+			for(int begin = 0; begin < literals.size(); begin += JavaCodeGenerator.MAX_CHUNK_LITERALS){
+				int end = Math.min(begin + JavaCodeGenerator.MAX_CHUNK_LITERALS, literals.size());
+
+				statements.add("System.arraycopy(new Object[]{" + String.join(", ", literals.subList(begin, end)) + "}, 0, categories[" + i + "], " + begin + ", " + (end - begin) + ");");
+				numLiterals.add(end - begin);
+			}
+		}
+
+		List<List<String>> result = new ArrayList<>();
+
+		List<String> chunk = new ArrayList<>();
+		int chunkLiterals = 0;
+
+		for(int i = 0; i < statements.size(); i++){
+
+			if(!chunk.isEmpty() && chunkLiterals + numLiterals.get(i) > JavaCodeGenerator.MAX_CHUNK_LITERALS){
+				result.add(chunk);
+
+				chunk = new ArrayList<>();
+				chunkLiterals = 0;
+			}
+
+			chunk.add(statements.get(i));
+			chunkLiterals += numLiterals.get(i);
+		}
+
+		if(!chunk.isEmpty()){
+			result.add(chunk);
+		}
+
+		return result;
+	}
+
+	// The number of bitset words that are declared as array constants
+	static
+	private int countBitsetWords(Tree tree){
+		int result = 0;
+
+		if(tree.isEmpty()){
+			return result;
+		}
+
+		int[] catBoundaries = tree.getCatBoundaries();
+
+		int[] decisionType = tree.getDecisionType();
+		double[] threshold = tree.getThreshold();
+
+		for(int i = 0; i < decisionType.length; i++){
+
+			if(Tree.hasCategoricalMask(decisionType[i])){
+				int catIdx = (int)threshold[i];
+
+				int numWords = catBoundaries[catIdx + 1] - catBoundaries[catIdx];
+				if(numWords > 2){
+					result += (numWords + 4);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	static
+	private int countLeaves(Tree tree, int node){
+
+		if(node < 0){
+			return 1;
+		}
+
+		return countLeaves(tree, (tree.getLeftChild())[node]) + countLeaves(tree, (tree.getRightChild())[node]);
+	}
+
+	static
+	private String treeMethodName(int index, int node){
+		return (node == 0 ? ("tree" + index) : ("tree" + index + "_" + node));
+	}
+
+	static
+	String formatDouble(double value){
+
+		if(Double.isNaN(value)){
+			return "Double.NaN";
+		} else
+
+		if(Double.isInfinite(value)){
+			return (value > 0d ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY");
+		}
+
+		return Double.toString(value) + "d";
+	}
+
+	static
+	private String formatValue(Object value){
+
+		if(value instanceof String){
+			return formatString((String)value);
+		} else
+
+		if(value instanceof Long){
+			return value + "L";
+		} else
+
+		if(value instanceof Double){
+			return formatDouble((Double)value);
+		} else
+
+		if(value instanceof Boolean){
+			return "Boolean." + (((Boolean)value) ? "TRUE" : "FALSE");
+		}
+
+		throw new IllegalArgumentException("Unsupported category value " + value);
+	}
+
+	static
+	private String formatString(String value){
+		StringBuilder sb = new StringBuilder();
+
+		sb.append('"');
+
+		for(int i = 0; i < value.length(); i++){
+			char c = value.charAt(i);
+
+			switch(c){
+				case '"':
+					sb.append("\\\"");
+					break;
+				case '\\':
+					sb.append("\\\\");
+					break;
+				case '\n':
+					sb.append("\\n");
+					break;
+				case '\r':
+					sb.append("\\r");
+					break;
+				case '\t':
+					sb.append("\\t");
+					break;
+				default:
+					if(c < 0x20 || c > 0x7e){
+						sb.append(String.format("\\u%04x", (int)c));
+					} else
+
+					{
+						sb.append(c);
+					}
+					break;
+			}
+		}
+
+		sb.append('"');
+
+		return sb.toString();
+	}
+
+	private static final int PART_SIZE = 500;
+
+	private static final int MAX_METHOD_LEAVES = 64;
+
+	private static final int MAX_SHARD_TREES = 2000;
+
+	private static final int MAX_SHARD_LEAVES = 10000;
+
+	private static final int MAX_SHARD_WORDS = 4000;
+
+	private static final int MAX_CHUNK_LITERALS = 2000;
+}
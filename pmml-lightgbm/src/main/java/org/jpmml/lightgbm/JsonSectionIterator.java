@@ -0,0 +1,672 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+// Translates the JSON representation of a model (as produced by LightGBM's dump_model) to model text sections
+public class JsonSectionIterator extends AbstractIterator<Section> {
+
+	private JsonReader reader = null;
+
+	private int treeIndex = -1;
+
+	private Deque<Section> footer = null;
+
+
+	public JsonSectionIterator(JsonReader reader){
+		this.reader = reader;
+	}
+
+	@Override
+	protected Section computeNext(){
+
+		try {
+			if(this.treeIndex < 0){
+				this.treeIndex = 0;
+
+				return parseHeader();
+			} // End if
+
+			if(this.footer == null){
+
+				if(this.reader.hasNext()){
+					return parseTree(this.treeIndex++);
+				}
+
+				this.reader.endArray();
+
+				this.footer = parseFooter();
+			} // End if
+
+			if(!this.footer.isEmpty()){
+				return this.footer.removeFirst();
+			}
+
+			return endOfData();
+		} catch(IOException ioe){
+			throw new UncheckedIOException(ioe);
+		}
+	}
+
+	private Section parseHeader() throws IOException {
+		JsonReader reader = this.reader;
+
+		Map<String, String> values = new LinkedHashMap<>();
+
+		String[] featureNames = null;
+
+		Map<String, String> featureInfos = new LinkedHashMap<>();
+
+		reader.beginObject();
+
+		while(true){
+
+			if(!reader.hasNext()){
+				throw new LightGBMException("Missing " + JsonSectionIterator.KEY_TREE_INFO + " attribute");
+			}
+
+			String name = reader.nextName();
+
+			switch(name){
+				case "version":
+				case "num_class":
+				case "num_tree_per_iteration":
+				case "label_index":
+				case "max_feature_idx":
+				case "objective":
+					values.put(name, reader.nextString());
+					break;
+				case "average_output":
+					if(reader.nextBoolean()){
+						values.put(name, null);
+					}
+					break;
+				case "feature_names":
+					featureNames = nextStringArray(reader);
+					break;
+				case "feature_infos":
+					{
+						reader.beginObject();
+
+						while(reader.hasNext()){
+							String featureName = reader.nextName();
+
+							featureInfos.put(featureName, parseFeatureInfo(reader));
+						}
+
+						reader.endObject();
+					}
+					break;
+				case JsonSectionIterator.KEY_TREE_INFO:
+					reader.beginArray();
+					break;
+				default:
+					reader.skipValue();
+					break;
+			}
+
+			if((JsonSectionIterator.KEY_TREE_INFO).equals(name)){
+				break;
+			}
+		}
+
+		if(featureNames == null){
+			throw new LightGBMException("Missing feature_names attribute");
+		}
+
+		Section result = new Section();
+		result.put("tree", null);
+
+		for(Map.Entry<String, String> entry : values.entrySet()){
+			String name = entry.getKey();
+
+			if(("average_output").equals(name)){
+				continue;
+			}
+
+			result.put(name, entry.getValue());
+		}
+
+		if(values.containsKey("average_output")){
+			result.put("average_output", null);
+		}
+
+		result.put("feature_names", String.join(" ", featureNames));
+
+		List<String> featureInfoValues = new ArrayList<>();
+
+		for(String featureName : featureNames){
+			// Features that were not used during training are not dumped
+			String featureInfo = featureInfos.getOrDefault(featureName, "none");
+
+			featureInfoValues.add(featureInfo);
+		}
+
+		result.put("feature_infos", String.join(" ", featureInfoValues));
+
+		return result;
+	}
+
+	private Section parseTree(int index) throws IOException {
+		JsonReader reader = this.reader;
+
+		JsonTree tree = new JsonTree();
+
+		reader.beginObject();
+
+		while(reader.hasNext()){
+			String name = reader.nextName();
+
+			switch(name){
+				case "num_leaves":
+					tree.init(reader.nextInt());
+					break;
+				case "num_cat":
+					tree.num_cat = reader.nextInt();
+					break;
+				case "shrinkage":
+					tree.shrinkage = reader.nextString();
+					break;
+				case "tree_structure":
+					if(tree.num_leaves < 1){
+						throw new LightGBMException("Expected num_leaves attribute before tree_structure attribute");
+					}
+					tree.parseNode(reader);
+					break;
+				default:
+					reader.skipValue();
+					break;
+			}
+		}
+
+		reader.endObject();
+
+		return tree.toSection(index);
+	}
+
+	private Deque<Section> parseFooter() throws IOException {
+		JsonReader reader = this.reader;
+
+		Deque<Section> result = new ArrayDeque<>();
+
+		Section endSection = new Section();
+		endSection.put("end of trees", null);
+
+		result.add(endSection);
+
+		Section featureImportancesSection = null;
+		Section pandasCategoricalSection = null;
+
+		while(reader.hasNext()){
+			String name = reader.nextName();
+
+			switch(name){
+				case "feature_importances":
+					{
+						featureImportancesSection = new Section();
+						featureImportancesSection.put("feature_importances:", null);
+
+						reader.beginObject();
+
+						while(reader.hasNext()){
+							featureImportancesSection.put(reader.nextName(), reader.nextString());
+						}
+
+						reader.endObject();
+					}
+					break;
+				case "pandas_categorical":
+					{
+						if(reader.peek() == JsonToken.NULL){
+							reader.nextNull();
+
+							break;
+						}
+
+						JsonElement element = JsonParser.parseReader(reader);
+
+						pandasCategoricalSection = new Section();
+						pandasCategoricalSection.put(PandasUtil.PREFIX_PANDAS_CATEGORICAL + element.toString(), null);
+					}
+					break;
+				default:
+					reader.skipValue();
+					break;
+			}
+		}
+
+		reader.endObject();
+
+		if(featureImportancesSection != null){
+			result.add(featureImportancesSection);
+		} // End if
+
+		if(pandasCategoricalSection != null){
+			result.add(pandasCategoricalSection);
+		}
+
+		return result;
+	}
+
+	static
+	private String parseFeatureInfo(JsonReader reader) throws IOException {
+		String minValue = null;
+		String maxValue = null;
+		String[] values = new String[0];
+
+		reader.beginObject();
+
+		while(reader.hasNext()){
+			String name = reader.nextName();
+
+			switch(name){
+				case "min_value":
+					minValue = reader.nextString();
+					break;
+				case "max_value":
+					maxValue = reader.nextString();
+					break;
+				case "values":
+					values = nextStringArray(reader);
+					break;
+				default:
+					reader.skipValue();
+					break;
+			}
+		}
+
+		reader.endObject();
+
+		// Categorical feature
+		if(values.length > 0){
+			return String.join(":", values);
+		}
+
+		return "[" + minValue + ":" + maxValue + "]";
+	}
+
+	static
+	private String[] nextStringArray(JsonReader reader) throws IOException {
+		List<String> result = new ArrayList<>();
+
+		reader.beginArray();
+
+		while(reader.hasNext()){
+			result.add(reader.nextString());
+		}
+
+		reader.endArray();
+
+		return result.toArray(new String[result.size()]);
+	}
+
+	static
+	private class JsonTree {
+
+		private int num_leaves = 0;
+
+		private int num_cat = 0;
+
+		private String shrinkage = null;
+
+		private String[] split_feature = null;
+
+		private String[] threshold = null;
+
+		private int[][] categories = null;
+
+		private int[] decision_type = null;
+
+		private int[] left_child = null;
+
+		private int[] right_child = null;
+
+		private String[] internal_value = null;
+
+		private String[] internal_count = null;
+
+		private String[] leaf_value = null;
+
+		private String[] leaf_count = null;
+
+		private String[] leaf_const = null;
+
+		private String[][] leaf_features = null;
+
+		private String[][] leaf_coeff = null;
+
+
+		private void init(int num_leaves){
+			this.num_leaves = num_leaves;
+
+			this.split_feature = new String[num_leaves - 1];
+			this.threshold = new String[num_leaves - 1];
+			this.categories = new int[num_leaves - 1][];
+			this.decision_type = new int[num_leaves - 1];
+			this.left_child = new int[num_leaves - 1];
+			this.right_child = new int[num_leaves - 1];
+			this.internal_value = new String[num_leaves - 1];
+			this.internal_count = new String[num_leaves - 1];
+
+			this.leaf_value = new String[num_leaves];
+			this.leaf_count = new String[num_leaves];
+			this.leaf_const = new String[num_leaves];
+			this.leaf_features = new String[num_leaves][];
+			this.leaf_coeff = new String[num_leaves][];
+		}
+
+		// Returns the index of the node in LightGBM's encoding (non-negative values for splits, bitwise complements for leaves)
+		private int parseNode(JsonReader reader) throws IOException {
+			Integer splitIndex = null;
+			int leafIndex = 0;
+
+			String split_feature = null;
+			String threshold = null;
+			int[] categories = null;
+			int decision_type = 0;
+			int left_child = 0;
+			int right_child = 0;
+			String internal_value = null;
+			String internal_count = null;
+
+			String leaf_value = null;
+			String leaf_count = null;
+			String leaf_const = null;
+			String[] leaf_features = new String[0];
+			String[] leaf_coeff = new String[0];
+
+			reader.beginObject();
+
+			while(reader.hasNext()){
+				String name = reader.nextName();
+
+				switch(name){
+					case "split_index":
+						splitIndex = reader.nextInt();
+						break;
+					case "split_feature":
+						split_feature = reader.nextString();
+						break;
+					case "threshold":
+						threshold = reader.nextString();
+						break;
+					case "decision_type":
+						if(("==").equals(reader.nextString())){
+							decision_type |= Tree.MASK_CATEGORICAL;
+						}
+						break;
+					case "default_left":
+						if(reader.nextBoolean()){
+							decision_type |= Tree.MASK_DEFAULT_LEFT;
+						}
+						break;
+					case "missing_type":
+						decision_type |= (parseMissingType(reader.nextString()) << 2);
+						break;
+					case "internal_value":
+						internal_value = reader.nextString();
+						break;
+					case "internal_count":
+						internal_count = reader.nextString();
+						break;
+					case "left_child":
+						left_child = parseNode(reader);
+						break;
+					case "right_child":
+						right_child = parseNode(reader);
+						break;
+					case "leaf_index":
+						leafIndex = reader.nextInt();
+						break;
+					case "leaf_value":
+						leaf_value = reader.nextString();
+						break;
+					case "leaf_count":
+						leaf_count = reader.nextString();
+						break;
+					case "leaf_const":
+						leaf_const = reader.nextString();
+						break;
+					case "leaf_features":
+						leaf_features = nextStringArray(reader);
+						break;
+					case "leaf_coeff":
+						leaf_coeff = nextStringArray(reader);
+						break;
+					default:
+						reader.skipValue();
+						break;
+				}
+			}
+
+			reader.endObject();
+
+			if(splitIndex != null){
+				int index = splitIndex;
+
+				if((decision_type & Tree.MASK_CATEGORICAL) == Tree.MASK_CATEGORICAL){
+					categories = parseCategories(threshold);
+				}
+
+				this.split_feature[index] = split_feature;
+				this.threshold[index] = threshold;
+				this.categories[index] = categories;
+				this.decision_type[index] = decision_type;
+				this.left_child[index] = left_child;
+				this.right_child[index] = right_child;
+				this.internal_value[index] = internal_value;
+				this.internal_count[index] = internal_count;
+
+				return index;
+			} else
+
+			{
+				int index = leafIndex;
+
+				this.leaf_value[index] = leaf_value;
+				this.leaf_count[index] = leaf_count;
+				this.leaf_const[index] = leaf_const;
+				this.leaf_features[index] = leaf_features;
+				this.leaf_coeff[index] = leaf_coeff;
+
+				return ~index;
+			}
+		}
+
+		private Section toSection(int index){
+			Section result = new Section();
+
+			result.put("Tree", String.valueOf(index));
+			result.put("num_leaves", String.valueOf(this.num_leaves));
+			result.put("num_cat", String.valueOf(this.num_cat));
+
+			if(this.num_leaves > 1){
+				List<String> catBoundaries = new ArrayList<>();
+				List<String> catThresholds = new ArrayList<>();
+
+				catBoundaries.add("0");
+
+				// Categorical splits are numbered in the order of their split index
+				for(int i = 0; i < this.categories.length; i++){
+					int[] categories = this.categories[i];
+
+					if(categories == null){
+						continue;
+					}
+
+					int max = -1;
+
+					for(int category : categories){
+						max = Math.max(max, category);
+					}
+
+					long[] bitset = new long[(max / 32) + 1];
+
+					for(int category : categories){
+						bitset[category / 32] |= (1L << (category % 32));
+					}
+
+					for(long word : bitset){
+						catThresholds.add(String.valueOf(word));
+					}
+
+					this.threshold[i] = String.valueOf(catBoundaries.size() - 1);
+
+					catBoundaries.add(String.valueOf(catThresholds.size()));
+				}
+
+				if((catBoundaries.size() - 1) != this.num_cat){
+					throw new LightGBMException("Expected " + this.num_cat + " categorical splits, got " + (catBoundaries.size() - 1));
+				}
+
+				result.put("split_feature", String.join(" ", this.split_feature));
+				result.put("threshold", String.join(" ", this.threshold));
+				result.put("decision_type", join(this.decision_type));
+				result.put("left_child", join(this.left_child));
+				result.put("right_child", join(this.right_child));
+				result.put("leaf_value", String.join(" ", this.leaf_value));
+				result.put("leaf_count", String.join(" ", this.leaf_count));
+				result.put("internal_value", String.join(" ", this.internal_value));
+				result.put("internal_count", String.join(" ", this.internal_count));
+
+				if(this.num_cat > 0){
+					result.put("cat_boundaries", String.join(" ", catBoundaries));
+					result.put("cat_threshold", String.join(" ", catThresholds));
+				}
+			} else
+
+			{
+				result.put("leaf_value", this.leaf_value[0]);
+			}
+
+			boolean linear = false;
+
+			for(String leaf_const : this.leaf_const){
+				linear |= (leaf_const != null);
+			}
+
+			result.put("is_linear", linear ? "1" : "0");
+
+			if(linear){
+				StringBuilder numFeatures = new StringBuilder();
+				StringBuilder leafFeatures = new StringBuilder();
+				StringBuilder leafCoeff = new StringBuilder();
+
+				for(int i = 0; i < this.num_leaves; i++){
+
+					if(i > 0){
+						numFeatures.append(' ');
+					}
+
+					numFeatures.append(this.leaf_features[i].length);
+
+					// Every element is followed by a space, and every list is terminated by an extra space
+					appendList(leafFeatures, this.leaf_features[i]);
+					appendList(leafCoeff, this.leaf_coeff[i]);
+				}
+
+				result.put("leaf_const", String.join(" ", this.leaf_const));
+				result.put("num_features", numFeatures.toString());
+				result.put("leaf_features", leafFeatures.toString());
+				result.put("leaf_coeff", leafCoeff.toString());
+			} // End if
+
+			if(this.shrinkage != null){
+				result.put("shrinkage", this.shrinkage);
+			}
+
+			return result;
+		}
+
+		static
+		private int parseMissingType(String missingType){
+
+			switch(missingType){
+				case "None":
+					return 0;
+				case "Zero":
+					return 1;
+				case "NaN":
+					return 2;
+				default:
+					throw new LightGBMException("Missing type " + missingType + " is not supported");
+			}
+		}
+
+		static
+		private int[] parseCategories(String string){
+
+			if(string.isEmpty()){
+				return new int[0];
+			}
+
+			String[] tokens = string.split("\\|\\|");
+
+			int[] result = new int[tokens.length];
+
+			for(int i = 0; i < tokens.length; i++){
+				result[i] = Integer.parseInt(tokens[i]);
+			}
+
+			return result;
+		}
+
+		static
+		private String join(int[] values){
+			StringBuilder sb = new StringBuilder();
+
+			for(int i = 0; i < values.length; i++){
+
+				if(i > 0){
+					sb.append(' ');
+				}
+
+				sb.append(values[i]);
+			}
+
+			return sb.toString();
+		}
+
+		static
+		private void appendList(StringBuilder sb, String[] values){
+
+			for(String value : values){
+				sb.append(value).append(' ');
+			}
+
+			sb.append(' ');
+		}
+	}
+
+	private static final String KEY_TREE_INFO = "tree_info";
+}
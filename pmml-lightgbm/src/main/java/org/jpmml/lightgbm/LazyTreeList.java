@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.base.Preconditions;
+
+class LazyTreeList extends AbstractList<Tree> implements RandomAccess {
+
+	private ByteBuffer buffer = null;
+
+	private long[] offsets = null;
+
+	private AtomicReferenceArray<Tree> trees = null;
+
+	private AtomicReferenceArray<Tree> splitTrees = null;
+
+
+	LazyTreeList(ByteBuffer buffer, long[] offsets){
+		this.buffer = buffer;
+		this.offsets = offsets;
+
+		this.trees = new AtomicReferenceArray<>(offsets.length - 1);
+		this.splitTrees = new AtomicReferenceArray<>(offsets.length - 1);
+	}
+
+	@Override
+	public int size(){
+		return this.trees.length();
+	}
+
+	@Override
+	public Tree get(int index){
+		Preconditions.checkElementIndex(index, size());
+
+		Tree tree = this.trees.get(index);
+		if(tree == null){
+			Section section = TreeLoaderTask.parseSection(this.buffer, this.offsets, index);
+
+			tree = new Tree();
+			tree.load(section);
+
+			if(!this.trees.compareAndSet(index, null, tree)){
+				tree = this.trees.get(index);
+			}
+
+			this.splitTrees.set(index, null);
+		}
+
+		return tree;
+	}
+
+	// Returns a partially loaded tree, unless the tree has already been fully loaded
+	Tree getSplits(int index){
+		Preconditions.checkElementIndex(index, size());
+
+		Tree tree = this.trees.get(index);
+		if(tree != null){
+			return tree;
+		}
+
+		tree = this.splitTrees.get(index);
+		if(tree == null){
+			Section section = TreeLoaderTask.parseSection(this.buffer, this.offsets, index);
+
+			tree = new Tree();
+			tree.loadSplits(section);
+
+			if(!this.splitTrees.compareAndSet(index, null, tree)){
+				tree = this.splitTrees.get(index);
+			}
+		}
+
+		return tree;
+	}
+
+	List<Tree> splitsView(){
+		List<Tree> result = new AbstractList<Tree>(){
+
+			@Override
+			public int size(){
+				return LazyTreeList.this.size();
+			}
+
+			@Override
+			public Tree get(int index){
+				return getSplits(index);
+			}
+		};
+
+		return result;
+	}
+
+	int getLoadedCount(){
+		int result = 0;
+
+		for(int i = 0; i < this.trees.length(); i++){
+
+			if(this.trees.get(i) != null){
+				result++;
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.concurrent.RecursiveAction;
+
+class LeafBlockTask extends RecursiveAction {
+
+	private GBDT gbdt = null;
+
+	private double[][] columns = null;
+
+	private int offset = 0;
+
+	private int begin = 0;
+
+	private int end = 0;
+
+	private Integer numIteration = null;
+
+	private boolean oneHot = false;
+
+	private int blockSize = 0;
+
+	private int[] result = null;
+
+	private int resultOffset = 0;
+
+
+	LeafBlockTask(GBDT gbdt, double[][] columns, int offset, int begin, int end, Integer numIteration, boolean oneHot, int blockSize, int[] result, int resultOffset){
+		this.gbdt = gbdt;
+		this.columns = columns;
+		this.offset = offset;
+		this.begin = begin;
+		this.end = end;
+		this.numIteration = numIteration;
+		this.oneHot = oneHot;
+		this.blockSize = blockSize;
+		this.result = result;
+		this.resultOffset = resultOffset;
+	}
+
+	@Override
+	protected void compute(){
+		int begin = this.begin;
+		int end = this.end;
+
+		if((end - begin) > this.blockSize){
+			int middle = (begin + end) >>> 1;
+
+			invokeAll(
+				new LeafBlockTask(this.gbdt, this.columns, this.offset, begin, middle, this.numIteration, this.oneHot, this.blockSize, this.result, this.resultOffset),
+				new LeafBlockTask(this.gbdt, this.columns, this.offset, middle, end, this.numIteration, this.oneHot, this.blockSize, this.result, this.resultOffset)
+			);
+
+			return;
+		}
+
+		GBDT gbdt = this.gbdt;
+
+		int numTrees = gbdt.getNumTrees(this.numIteration);
+
+		gbdt.predictLeaf(this.columns, this.offset + begin, end - begin, this.numIteration, this.oneHot, this.result, this.resultOffset + begin * numTrees);
+	}
+}
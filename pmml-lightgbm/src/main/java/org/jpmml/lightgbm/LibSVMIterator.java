@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import com.google.common.collect.AbstractIterator;
+
+// Reads a LibSVM format text file in blocks of rows.
+// Every line holds an optional label, followed by zero-based "index:value" pairs
+public class LibSVMIterator extends AbstractIterator<SparseMatrix> {
+
+	private BufferedReader reader = null;
+
+	private int batchSize = 0;
+
+	private int[] indices = new int[1024];
+
+	private double[] values = new double[1024];
+
+
+	public LibSVMIterator(BufferedReader reader, int batchSize){
+
+		if(batchSize < 1){
+			throw new IllegalArgumentException();
+		}
+
+		this.reader = reader;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	protected SparseMatrix computeNext(){
+		int batchSize = this.batchSize;
+
+		int[] indptr = new int[batchSize + 1];
+		double[] labels = new double[batchSize];
+
+		int numRows = 0;
+
+		try {
+			while(numRows < batchSize){
+				String line = this.reader.readLine();
+
+				if(line == null){
+					break;
+				} // End if
+
+				if((line.trim()).isEmpty()){
+					continue;
+				}
+
+				indptr[numRows + 1] = indptr[numRows] + parseLine(line, indptr[numRows], labels, numRows);
+
+				numRows++;
+			}
+		} catch(IOException ioe){
+			throw new UncheckedIOException(ioe);
+		}
+
+		if(numRows == 0){
+			return endOfData();
+		}
+
+		int numNonZeros = indptr[numRows];
+
+		return new SparseMatrix(Arrays.copyOf(indptr, numRows + 1), Arrays.copyOf(this.indices, numNonZeros), Arrays.copyOf(this.values, numNonZeros), Arrays.copyOf(labels, numRows));
+	}
+
+	// Appends the "index:value" pairs of a line to the buffers, starting from the position.
+	// Returns the number of pairs. Lines without a label get a NaN label
+	private int parseLine(String line, int position, double[] labels, int row){
+		int result = 0;
+
+		labels[row] = Double.NaN;
+
+		boolean first = true;
+
+		int length = line.length();
+
+		int pos = 0;
+
+		while(pos < length){
+
+			while(pos < length && Character.isWhitespace(line.charAt(pos))){
+				pos++;
+			}
+
+			int begin = pos;
+
+			while(pos < length && !Character.isWhitespace(line.charAt(pos))){
+				pos++;
+			}
+
+			int end = pos;
+
+			if(begin == end){
+				break;
+			}
+
+			boolean label = first;
+
+			first = false;
+
+			int colon = line.indexOf(':', begin);
+
+			if(colon < 0 || colon >= end){
+
+				// The label must be the first token
+				if(!label){
+					throw new LightGBMException("Expected an \"index:value\" pair, got \"" + line.substring(begin, end) + "\"");
+				}
+
+				labels[row] = parseValue(line.substring(begin, end));
+
+				continue;
+			} // End if
+
+			// Query identifiers are not features
+			if(line.startsWith("qid", begin) && colon == begin + 3){
+				continue;
+			}
+
+			int index = Integer.parseInt(line, begin, colon, 10);
+			double value = parseValue(line.substring(colon + 1, end));
+
+			append(position + result, index, value);
+
+			result++;
+		}
+
+		return result;
+	}
+
+	static
+	private double parseValue(String string){
+
+		try {
+			return Double.parseDouble(string);
+		} catch(NumberFormatException nfe){
+
+			// The spellings of missing values that LightGBM accepts
+			switch(string.toLowerCase()){
+				case "na":
+				case "nan":
+				case "null":
+					return Double.NaN;
+				default:
+					throw nfe;
+			}
+		}
+	}
+
+	private void append(int position, int index, double value){
+
+		if(position >= this.indices.length){
+			int capacity = Math.max(this.indices.length * 2, position + 1);
+
+			this.indices = Arrays.copyOf(this.indices, capacity);
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+
+		this.indices[position] = index;
+		this.values[position] = value;
+	}
+}
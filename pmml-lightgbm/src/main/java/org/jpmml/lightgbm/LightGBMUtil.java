@@ -18,19 +18,39 @@
  */
 package org.jpmml.lightgbm;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.io.ByteStreams;
+import com.google.gson.stream.JsonReader;
 import org.dmg.pmml.Interval;
 
 public class LightGBMUtil {
@@ -40,13 +60,180 @@ public class LightGBMUtil {
 
 	static
 	public GBDT loadGBDT(InputStream is) throws IOException {
-		return loadGBDT(parseText(is));
+		is = decompress(is);
+
+		try {
+			return createGBDT(parseSections(is));
+		} catch(UncheckedIOException uioe){
+			throw uioe.getCause();
+		}
+	}
+
+	static
+	public GBDT loadGBDT(File file) throws IOException {
+
+		if(isCompressed(file)){
+
+			try(InputStream is = Files.newInputStream(file.toPath())){
+				return loadGBDT(is);
+			}
+		}
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			return createGBDT(parseSections(channel));
+		}
+	}
+
+	static
+	public GBDT loadGBDT(File file, ForkJoinPool pool) throws IOException {
+
+		if(isCompressed(file)){
+			return loadGBDT(ByteBuffer.wrap(readDecompressed(file)), pool);
+		}
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			long size = channel.size();
+
+			// A single mapping is limited to 2 GB
+			if(size > Integer.MAX_VALUE){
+				return createGBDT(parseSections(channel));
+			}
+
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+
+			return loadGBDT(buffer, pool);
+		}
+	}
+
+	static
+	public GBDT loadGBDT(ByteBuffer buffer, ForkJoinPool pool){
+		BufferSectionIterator it = new BufferSectionIterator(buffer);
+
+		Section header = parseHeader(it);
+
+		// Models that predate the tree_sizes header must be loaded sequentially
+		if(!header.containsKey("tree_sizes")){
+			return createGBDT(Iterators.concat(Iterators.singletonIterator(header), it));
+		}
+
+		long[] offsets = parseTreeOffsets(header, it.getPosition(), buffer);
+
+		// Tree sizes that do not line up with the tree sections (eg. after the line terminators of the file have been converted) are ignored
+		if(offsets == null){
+			return createGBDT(parseSections(buffer));
+		}
+
+		Tree[] trees = new Tree[offsets.length - 1];
+
+		try {
+			pool.invoke(new TreeLoaderTask(buffer, offsets, trees, 0, trees.length));
+		} catch(LightGBMException lgbme){
+			// A genuinely malformed tree section fails again, with the error of the sequential loader
+			return createGBDT(parseSections(buffer));
+		}
+
+		return createGBDT(header, Arrays.asList(trees), offsets, buffer);
+	}
+
+	static
+	public GBDT loadLazyGBDT(File file) throws IOException {
+
+		if(isCompressed(file)){
+			return loadLazyGBDT(ByteBuffer.wrap(readDecompressed(file)));
+		}
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			long size = channel.size();
+
+			if(size > Integer.MAX_VALUE){
+				return createGBDT(parseSections(channel));
+			}
+
+			// The mapping remains valid after the channel has been closed
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+
+			return loadLazyGBDT(buffer);
+		}
+	}
+
+	static
+	public GBDT loadLazyGBDT(ByteBuffer buffer){
+		BufferSectionIterator it = new BufferSectionIterator(buffer);
+
+		Section header = parseHeader(it);
+
+		if(!header.containsKey("tree_sizes")){
+			return createGBDT(Iterators.concat(Iterators.singletonIterator(header), it));
+		}
+
+		long[] offsets = parseTreeOffsets(header, it.getPosition(), buffer);
+		if(offsets == null){
+			return createGBDT(parseSections(buffer));
+		}
+
+		return createGBDT(header, new LazyTreeList(buffer, offsets), offsets, buffer);
+	}
+
+	static
+	public GBDT loadGBDTSnapshot(File file) throws IOException {
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			long size = channel.size();
+
+			if(size > Integer.MAX_VALUE){
+				throw new LightGBMException("Snapshot is too large");
+			}
+
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+
+			return loadGBDTSnapshot(buffer);
+		}
+	}
+
+	static
+	public GBDT loadGBDTSnapshot(ByteBuffer buffer){
+		GBDT gbdt = new GBDT();
+		gbdt.loadSnapshot(buffer);
+
+		return gbdt;
+	}
+
+	static
+	public GBDT loadGBDTFromJson(InputStream is) throws IOException {
+		is = decompress(is);
+
+		return loadGBDTFromJson(new InputStreamReader(is, StandardCharsets.UTF_8));
+	}
+
+	static
+	public GBDT loadGBDTFromJson(Reader reader) throws IOException {
+		JsonReader jsonReader = new JsonReader(reader);
+		jsonReader.setLenient(true);
+
+		try {
+			return createGBDT(new JsonSectionIterator(jsonReader));
+		} catch(UncheckedIOException uioe){
+			throw uioe.getCause();
+		}
+	}
+
+	static
+	public GBDT loadGBDT(byte[] bytes){
+		return loadGBDT(ByteBuffer.wrap(bytes));
+	}
+
+	static
+	public GBDT loadGBDT(ByteBuffer buffer){
+		return createGBDT(parseSections(buffer));
 	}
 
 	static
 	public GBDT loadGBDT(Iterator<String> lines){
-		List<Section> sections = loadText(lines);
+		return createGBDT(parseSections(lines));
+	}
 
+	static
+	private GBDT createGBDT(Iterator<Section> sections){
 		GBDT gbdt = new GBDT();
 		gbdt.load(sections);
 
@@ -54,34 +241,213 @@ public class LightGBMUtil {
 	}
 
 	static
-	private List<Section> loadText(Iterator<String> lines){
-		List<Section> sections = new ArrayList<>();
+	private GBDT createGBDT(Section header, List<Tree> trees, long[] offsets, ByteBuffer buffer){
+		ByteBuffer footer = buffer.duplicate();
+		footer.position((int)offsets[offsets.length - 1]);
 
-		Section section = new Section();
+		GBDT gbdt = new GBDT();
+		gbdt.load(header, trees, parseSections(footer));
 
-		loop:
-		while(lines.hasNext()){
-			String line = lines.next();
+		return gbdt;
+	}
 
-			if(("").equals(line)){
+	static
+	private Section parseHeader(Iterator<Section> sections){
 
-				if(section.size() > 0){
-					sections.add(section);
+		if(!sections.hasNext()){
+			throw new IllegalArgumentException();
+		}
 
-					section = new Section();
+		return sections.next();
+	}
+
+	// Returns null if the tree sizes do not add up to the position of the footer
+	static
+	private long[] parseTreeOffsets(Section header, int position, ByteBuffer buffer){
+		int[] treeSizes = header.getIntArray("tree_sizes", -1);
+
+		long[] result = new long[treeSizes.length + 1];
+		result[0] = position;
+
+		for(int i = 0; i < treeSizes.length; i++){
+
+			if(treeSizes[i] <= 0){
+				return null;
+			}
+
+			result[i + 1] = result[i] + treeSizes[i];
+		}
+
+		long end = result[treeSizes.length];
+
+		if(end > buffer.limit() || !startsWith(buffer, (int)end, "end of trees")){
+			return null;
+		}
+
+		return result;
+	}
+
+	static
+	private boolean startsWith(ByteBuffer buffer, int position, String prefix){
+		int limit = buffer.limit();
+
+		while(position < limit && (buffer.get(position) == '\n' || buffer.get(position) == '\r')){
+			position++;
+		}
+
+		if(position + prefix.length() > limit){
+			return false;
+		}
+
+		for(int i = 0; i < prefix.length(); i++){
+
+			if(buffer.get(position + i) != prefix.charAt(i)){
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	// Wraps gzip, zlib and zip content (as detected by its leading magic bytes) into a decompressing stream
+	static
+	public InputStream decompress(InputStream is) throws IOException {
+
+		if(!is.markSupported()){
+			is = new BufferedInputStream(is, LightGBMUtil.BUFFER_SIZE);
+		}
+
+		byte[] magic = new byte[4];
+
+		is.mark(magic.length);
+
+		int length = ByteStreams.read(is, magic, 0, magic.length);
+
+		is.reset();
+
+		if(isGzip(magic, length)){
+			return new GZIPInputStream(is, LightGBMUtil.BUFFER_SIZE);
+		} else
+
+		if(isZlib(magic, length)){
+			return new InflaterInputStream(is, new Inflater(), LightGBMUtil.BUFFER_SIZE);
+		} else
+
+		if(isZip(magic, length)){
+			ZipInputStream zis = new ZipInputStream(is);
+
+			for(ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()){
+
+				if(!entry.isDirectory()){
+					return zis;
 				}
+			}
+
+			throw new LightGBMException("Zip archive does not contain any file entries");
+		}
+
+		return is;
+	}
+
+	static
+	private boolean isCompressed(File file) throws IOException {
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			ByteBuffer buffer = ByteBuffer.allocate(4);
 
-				continue loop;
+			while(buffer.hasRemaining()){
+
+				if(channel.read(buffer) < 0){
+					break;
+				}
 			}
 
-			section.put(line);
+			byte[] magic = buffer.array();
+			int length = buffer.position();
+
+			return isGzip(magic, length) || isZlib(magic, length) || isZip(magic, length);
 		}
+	}
 
-		if(section.size() > 0){
-			sections.add(section);
+	static
+	private byte[] readDecompressed(File file) throws IOException {
+
+		try(InputStream is = decompress(Files.newInputStream(file.toPath()))){
+			return ByteStreams.toByteArray(is);
 		}
+	}
 
-		return sections;
+	static
+	private boolean isGzip(byte[] magic, int length){
+		return (length >= 2) && (magic[0] == (byte)0x1f) && (magic[1] == (byte)0x8b);
+	}
+
+	static
+	private boolean isZlib(byte[] magic, int length){
+
+		if(length < 2){
+			return false;
+		}
+
+		int cmf = (magic[0] & 0xff);
+		int flg = (magic[1] & 0xff);
+
+		// Compression method 8 (deflate), window size up to 32 kB, and a valid header checksum
+		return ((cmf & 0x0f) == 8) && ((cmf >> 4) <= 7) && (((cmf << 8) | flg) % 31 == 0);
+	}
+
+	static
+	private boolean isZip(byte[] magic, int length){
+		return (length >= 4) && (magic[0] == 'P') && (magic[1] == 'K') && (magic[2] == 3) && (magic[3] == 4);
+	}
+
+	static
+	public Iterator<Section> parseSections(FileChannel channel) throws IOException {
+		return new BufferSectionIterator(channel);
+	}
+
+	static
+	public Iterator<Section> parseSections(InputStream is) throws IOException {
+		return new BufferSectionIterator(is);
+	}
+
+	static
+	public Iterator<Section> parseSections(ByteBuffer buffer){
+		return new BufferSectionIterator(buffer);
+	}
+
+	static
+	public Iterator<Section> parseSections(Iterator<String> lines){
+		Iterator<Section> result = new AbstractIterator<Section>(){
+
+			@Override
+			protected Section computeNext(){
+				Section section = new Section();
+
+				while(lines.hasNext()){
+					String line = lines.next();
+
+					if(("").equals(line)){
+
+						if(section.size() > 0){
+							return section;
+						}
+
+						continue;
+					}
+
+					section.put(line);
+				}
+
+				if(section.size() > 0){
+					return section;
+				}
+
+				return endOfData();
+			}
+		};
+
+		return result;
 	}
 
 	static
@@ -121,6 +487,12 @@ public class LightGBMUtil {
 			}
 		}
 
+		return createObjectiveFunction(className, config);
+	}
+
+	static
+	ObjectiveFunction createObjectiveFunction(String className, Section config){
+
 		try {
 			Class<? extends ObjectiveFunction> clazz = (Class.forName(className)).asSubclass(ObjectiveFunction.class);
 
@@ -400,6 +772,8 @@ public class LightGBMUtil {
 		}
 	}
 
+	private static final int BUFFER_SIZE = 64 * 1024;
+
 	private static final Pattern PATTERN_OBJECTIVE_FUNCTION = Pattern.compile("([^\\(]+)(?:\\((.*)\\))?");
 	private static final Pattern PATTERN_UNICODE_ESCAPE = Pattern.compile("\\\\u([0-9A-Fa-f]{4})");
 }
\ No newline at end of file
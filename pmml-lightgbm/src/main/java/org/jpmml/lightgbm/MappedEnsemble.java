@@ -0,0 +1,600 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Scores rows directly from a read-only memory mapped ensemble file.
+// All processes that map the same file share a single copy of it in the page cache, and the trees take up no heap space.
+public class MappedEnsemble {
+
+	private ByteBuffer[] regions = null;
+
+	private int numTrees = 0;
+
+	private int numTreePerIteration = 1;
+
+	private int maxFeatureIdx = 0;
+
+	private long treesOffset = 0L;
+
+	private long leavesOffset = 0L;
+
+	private long catOffset = 0L;
+
+	private long leafConstOffset = 0L;
+
+	private long leafFeatureOffsetsOffset = 0L;
+
+	private long leafFeaturesOffset = 0L;
+
+	private long leafCoeffOffset = 0L;
+
+	private String[] featureNames = null;
+
+	private ObjectiveFunction objectiveFunction = null;
+
+
+	private MappedEnsemble(){
+	}
+
+	public int size(){
+		return this.numTrees;
+	}
+
+	public int getNumTreePerIteration(){
+		return this.numTreePerIteration;
+	}
+
+	public String[] getFeatureNames(){
+		return this.featureNames;
+	}
+
+	public ObjectiveFunction getObjectiveFunction(){
+		return this.objectiveFunction;
+	}
+
+	public double[] predict(double[] row){
+		return predict(row, null);
+	}
+
+	public double[] predict(double[] row, Integer numIteration){
+		ObjectiveFunction object_function_ = this.objectiveFunction;
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(row, numIteration);
+
+		object_function_.convertOutput(result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[] row){
+		return predictRaw(row, null);
+	}
+
+	public double[] predictRaw(double[] row, Integer numIteration){
+
+		if(row.length <= this.maxFeatureIdx){
+			throw new IllegalArgumentException("Expected " + (this.maxFeatureIdx + 1) + " feature values, got " + row.length);
+		}
+
+		int numTreePerIteration = this.numTreePerIteration;
+
+		int numTrees = this.numTrees;
+
+		if(numIteration != null && numIteration > 0){
+			numTrees = Math.min(numIteration * numTreePerIteration, numTrees);
+		}
+
+		double[] result = new double[numTreePerIteration];
+
+		for(int i = 0; i < numTrees; i++){
+			result[i % numTreePerIteration] += predictTree(i, row);
+		}
+
+		ObjectiveFunction object_function_ = this.objectiveFunction;
+
+		if(object_function_ != null && object_function_.getAverageOutput() && numTrees > 0){
+			int numIterations = (numTrees / numTreePerIteration);
+
+			for(int i = 0; i < result.length; i++){
+				result[i] /= numIterations;
+			}
+		}
+
+		return result;
+	}
+
+	private double predictTree(int index, double[] row){
+		long tree = this.treesOffset + (long)index * MappedEnsemble.TREE_SIZE;
+
+		long nodeOffset = getLong(tree);
+		long leafBase = getLong(tree + 8);
+		long catBase = getLong(tree + 16);
+		int numLeaves = getInt(tree + 24);
+		boolean linear = (getInt(tree + 28) != 0);
+
+		int leaf = 0;
+
+		if(numLeaves > 1){
+			// The nodes of a tree never straddle a region boundary
+			ByteBuffer region = this.regions[(int)(nodeOffset >>> MappedEnsemble.REGION_BITS)];
+
+			int base = (int)(nodeOffset & MappedEnsemble.REGION_MASK);
+
+			int node = 0;
+
+			while(node >= 0){
+				int record = base + node * MappedEnsemble.NODE_SIZE;
+
+				double value = row[region.getInt(record + 8)];
+				int decisionType = region.getInt(record + 20);
+
+				boolean left;
+
+				if(Tree.hasCategoricalMask(decisionType)){
+					left = categoricalDecision(value, catBase + region.getInt(record + 24), region.getInt(record + 28));
+				} else
+
+				{
+					left = Tree.numericalDecision(value, region.getDouble(record), decisionType);
+				}
+
+				node = region.getInt(record + (left ? 12 : 16));
+			}
+
+			leaf = ~node;
+		}
+
+		long leafIndex = leafBase + leaf;
+
+		if(linear){
+			return predictLinear(leafIndex, row);
+		}
+
+		return getDouble(this.leavesOffset + leafIndex * 8);
+	}
+
+	private boolean categoricalDecision(double value, long catStart, int catLength){
+
+		if(!Tree.isCategory(value)){
+			return false;
+		}
+
+		int category = (int)value;
+
+		int i1 = category / 32;
+		if(i1 >= catLength){
+			return false;
+		}
+
+		int i2 = category % 32;
+
+		return ((getInt(this.catOffset + (catStart + i1) * 4) >>> i2) & 1) == 1;
+	}
+
+	private double predictLinear(long leafIndex, double[] row){
+		long begin = getLong(this.leafFeatureOffsetsOffset + leafIndex * 8);
+		long end = getLong(this.leafFeatureOffsetsOffset + (leafIndex + 1) * 8);
+
+		double result = getDouble(this.leafConstOffset + leafIndex * 8);
+
+		for(long i = begin; i < end; i++){
+			double value = row[getInt(this.leafFeaturesOffset + i * 4)];
+
+			if(Tree.isLinearMissing(value)){
+				return getDouble(this.leavesOffset + leafIndex * 8);
+			}
+
+			result += getDouble(this.leafCoeffOffset + i * 8) * value;
+		}
+
+		return result;
+	}
+
+	private int getInt(long offset){
+		return this.regions[(int)(offset >>> MappedEnsemble.REGION_BITS)].getInt((int)(offset & MappedEnsemble.REGION_MASK));
+	}
+
+	private long getLong(long offset){
+		return this.regions[(int)(offset >>> MappedEnsemble.REGION_BITS)].getLong((int)(offset & MappedEnsemble.REGION_MASK));
+	}
+
+	private double getDouble(long offset){
+		return this.regions[(int)(offset >>> MappedEnsemble.REGION_BITS)].getDouble((int)(offset & MappedEnsemble.REGION_MASK));
+	}
+
+	static
+	public MappedEnsemble map(File file) throws IOException {
+		MappedEnsemble result = new MappedEnsemble();
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			long size = channel.size();
+
+			int numRegions = (int)((size + MappedEnsemble.REGION_MASK) >>> MappedEnsemble.REGION_BITS);
+
+			ByteBuffer[] regions = new ByteBuffer[Math.max(numRegions, 1)];
+
+			for(int i = 0; i < regions.length; i++){
+				long position = ((long)i << MappedEnsemble.REGION_BITS);
+
+				regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, MappedEnsemble.REGION_MASK + 1L))
+					.order(ByteOrder.LITTLE_ENDIAN);
+			}
+
+			result.regions = regions;
+		}
+
+		if(result.getInt(0) != MappedEnsemble.MAGIC){
+			throw new IllegalArgumentException("Not a mapped ensemble");
+		}
+
+		int version = result.getInt(4);
+		if(version != MappedEnsemble.VERSION){
+			throw new LightGBMException("Mapped ensemble version " + version + " is not supported");
+		}
+
+		result.numTrees = result.getInt(8);
+		result.numTreePerIteration = result.getInt(12);
+		result.maxFeatureIdx = result.getInt(16);
+		result.treesOffset = result.getLong(24);
+		result.leavesOffset = result.getLong(40);
+		result.catOffset = result.getLong(48);
+		result.leafConstOffset = result.getLong(56);
+		result.leafFeatureOffsetsOffset = result.getLong(64);
+		result.leafFeaturesOffset = result.getLong(72);
+		result.leafCoeffOffset = result.getLong(80);
+
+		ByteBuffer metadata = (result.regions[0]).duplicate();
+		metadata.position(MappedEnsemble.HEADER_SIZE);
+
+		SnapshotReader reader = new SnapshotReader(metadata);
+
+		result.featureNames = reader.readStringArray();
+
+		String className = reader.readString();
+		if(className != null){
+			Section config = new Section();
+
+			String[] entries = reader.readStringArray();
+			for(int i = 0; i < entries.length; i += 2){
+				config.put(entries[i], entries[i + 1]);
+			}
+
+			result.objectiveFunction = LightGBMUtil.createObjectiveFunction(className, config);
+		}
+
+		return result;
+	}
+
+	// Writes the ensemble to a temporary file first, so that concurrent readers never map a partially written file
+	static
+	public void write(GBDT gbdt, File file) throws IOException {
+		Path path = file.toPath();
+
+		Path tmpPath = Files.createTempFile(path.toAbsolutePath().getParent(), "lgbm-", ".tmp");
+
+		try {
+			try(OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmpPath))){
+				write(gbdt, os);
+			}
+
+			try {
+				Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch(AtomicMoveNotSupportedException amnse){
+				Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmpPath);
+		}
+	}
+
+	static
+	public void write(GBDT gbdt, OutputStream os) throws IOException {
+		List<Tree> trees = gbdt.getTrees();
+
+		int numTrees = trees.size();
+
+		long numLeaves = 0L;
+		long numCatWords = 0L;
+		long numLeafFeatures = 0L;
+
+		boolean hasLinear = false;
+
+		for(Tree tree : trees){
+			numLeaves += tree.getNumLeaves();
+
+			if(tree.getNumCat() > 0){
+				numCatWords += (tree.getCatThreshold()).length;
+			} // End if
+
+			if(tree.isLinear()){
+				hasLinear = true;
+
+				for(int[] leafFeatures : tree.getLeafFeatures()){
+					numLeafFeatures += leafFeatures.length;
+				}
+			}
+		}
+
+		SnapshotWriter writer = new SnapshotWriter(os);
+
+		ObjectiveFunction object_function_ = gbdt.getObjectiveFunction();
+
+		// The header is followed by metadata, whose size is not known in advance
+		ByteArrayOutputStream metadataBuffer = new ByteArrayOutputStream();
+
+		SnapshotWriter metadataWriter = new SnapshotWriter(metadataBuffer);
+		metadataWriter.writeStringArray(gbdt.getFeatureNames());
+
+		if(object_function_ != null){
+			metadataWriter.writeString((object_function_.getClass()).getName());
+			metadataWriter.writeStringArray(GBDT.toEntryArray(object_function_.getConfig()));
+		} else
+
+		{
+			metadataWriter.writeString(null);
+		}
+
+		metadataWriter.flush();
+
+		byte[] metadata = metadataBuffer.toByteArray();
+
+		// Every section starts at a multiple of the node size, so that no value straddles a region boundary
+		long treesOffset = align(MappedEnsemble.HEADER_SIZE + metadata.length);
+		long nodesOffset = align(treesOffset + (long)numTrees * MappedEnsemble.TREE_SIZE);
+
+		long[] nodeOffsets = new long[numTrees];
+
+		long nodeOffset = nodesOffset;
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			long size = (long)(tree.getNumLeaves() - 1) * MappedEnsemble.NODE_SIZE;
+
+			if(size > (MappedEnsemble.REGION_MASK + 1L)){
+				throw new IllegalArgumentException("Tree " + i + " is too big");
+			} // End if
+
+			// Moves the nodes of a tree to the next region, if they would straddle a region boundary
+			if((nodeOffset & MappedEnsemble.REGION_MASK) + size > (MappedEnsemble.REGION_MASK + 1L)){
+				nodeOffset = ((nodeOffset >>> MappedEnsemble.REGION_BITS) + 1L) << MappedEnsemble.REGION_BITS;
+			}
+
+			nodeOffsets[i] = nodeOffset;
+
+			nodeOffset += size;
+		}
+
+		long leavesOffset = align(nodeOffset);
+		long catOffset = align(leavesOffset + numLeaves * 8);
+		long end = align(catOffset + numCatWords * 4);
+
+		long leafConstOffset = 0L;
+		long leafFeatureOffsetsOffset = 0L;
+		long leafFeaturesOffset = 0L;
+		long leafCoeffOffset = 0L;
+
+		if(hasLinear){
+			leafConstOffset = end;
+			leafFeatureOffsetsOffset = align(leafConstOffset + numLeaves * 8);
+			leafFeaturesOffset = align(leafFeatureOffsetsOffset + (numLeaves + 1) * 8);
+			leafCoeffOffset = align(leafFeaturesOffset + numLeafFeatures * 4);
+		}
+
+		writer.writeInt(MappedEnsemble.MAGIC);
+		writer.writeInt(MappedEnsemble.VERSION);
+		writer.writeInt(numTrees);
+		writer.writeInt(gbdt.getNumTreePerIteration());
+		writer.writeInt((gbdt.getFeatureNames()).length - 1);
+		writer.writeInt(0);
+		writer.writeLong(treesOffset);
+		writer.writeLong(nodesOffset);
+		writer.writeLong(leavesOffset);
+		writer.writeLong(catOffset);
+		writer.writeLong(leafConstOffset);
+		writer.writeLong(leafFeatureOffsetsOffset);
+		writer.writeLong(leafFeaturesOffset);
+		writer.writeLong(leafCoeffOffset);
+
+		writer.align(MappedEnsemble.HEADER_SIZE);
+
+		writer.writeBytes(metadata);
+
+		writer.align(MappedEnsemble.NODE_SIZE);
+
+		long leafBase = 0L;
+		long catBase = 0L;
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			writer.writeLong(nodeOffsets[i]);
+			writer.writeLong(leafBase);
+			writer.writeLong(catBase);
+			writer.writeInt(tree.getNumLeaves());
+			writer.writeInt(tree.isLinear() ? 1 : 0);
+
+			leafBase += tree.getNumLeaves();
+
+			if(tree.getNumCat() > 0){
+				catBase += (tree.getCatThreshold()).length;
+			}
+		}
+
+		writer.align(MappedEnsemble.NODE_SIZE);
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			if(tree.isEmpty()){
+				continue;
+			}
+
+			writer.pad(nodeOffsets[i]);
+
+			int[] splitFeature = tree.getSplitFeature();
+			double[] threshold = tree.getThreshold();
+			int[] decisionType = tree.getDecisionType();
+			int[] leftChild = tree.getLeftChild();
+			int[] rightChild = tree.getRightChild();
+			int[] catBoundaries = tree.getCatBoundaries();
+
+			for(int j = 0; j < splitFeature.length; j++){
+				int catStart = 0;
+				int catLength = 0;
+
+				// Category bitsets are resolved upfront, so that scoring needs no boundary lookups
+				if(Tree.hasCategoricalMask(decisionType[j])){
+					int catIdx = (int)threshold[j];
+
+					catStart = catBoundaries[catIdx];
+					catLength = catBoundaries[catIdx + 1] - catBoundaries[catIdx];
+				}
+
+				writer.writeDouble(threshold[j]);
+				writer.writeInt(splitFeature[j]);
+				writer.writeInt(leftChild[j]);
+				writer.writeInt(rightChild[j]);
+				writer.writeInt(decisionType[j]);
+				writer.writeInt(catStart);
+				writer.writeInt(catLength);
+			}
+		}
+
+		writer.align(MappedEnsemble.NODE_SIZE);
+
+		for(Tree tree : trees){
+
+			for(double leafValue : tree.getLeafValue()){
+				writer.writeDouble(leafValue);
+			}
+		}
+
+		writer.align(MappedEnsemble.NODE_SIZE);
+
+		for(Tree tree : trees){
+
+			if(tree.getNumCat() > 0){
+
+				for(long catThreshold : tree.getCatThreshold()){
+					writer.writeInt((int)catThreshold);
+				}
+			}
+		}
+
+		writer.align(MappedEnsemble.NODE_SIZE);
+
+		if(hasLinear){
+
+			for(Tree tree : trees){
+				double[] leafConst = (tree.isLinear() ? tree.getLeafConst() : null);
+
+				for(int i = 0; i < tree.getNumLeaves(); i++){
+					writer.writeDouble(leafConst != null ? leafConst[i] : 0d);
+				}
+			}
+
+			writer.align(MappedEnsemble.NODE_SIZE);
+
+			long leafFeatureOffset = 0L;
+
+			writer.writeLong(leafFeatureOffset);
+
+			for(Tree tree : trees){
+				int[][] leafFeatures = (tree.isLinear() ? tree.getLeafFeatures() : null);
+
+				for(int i = 0; i < tree.getNumLeaves(); i++){
+					leafFeatureOffset += (leafFeatures != null ? leafFeatures[i].length : 0);
+
+					writer.writeLong(leafFeatureOffset);
+				}
+			}
+
+			writer.align(MappedEnsemble.NODE_SIZE);
+
+			for(Tree tree : trees){
+
+				if(tree.isLinear()){
+
+					for(int[] leafFeatures : tree.getLeafFeatures()){
+
+						for(int leafFeature : leafFeatures){
+							writer.writeInt(leafFeature);
+						}
+					}
+				}
+			}
+
+			writer.align(MappedEnsemble.NODE_SIZE);
+
+			for(Tree tree : trees){
+
+				if(tree.isLinear()){
+
+					for(double[] leafCoeff : tree.getLeafCoeff()){
+
+						for(double value : leafCoeff){
+							writer.writeDouble(value);
+						}
+					}
+				}
+			}
+
+			writer.align(MappedEnsemble.NODE_SIZE);
+		}
+
+		writer.flush();
+	}
+
+	static
+	private long align(long offset){
+		return ((offset + (MappedEnsemble.NODE_SIZE - 1)) / MappedEnsemble.NODE_SIZE) * MappedEnsemble.NODE_SIZE;
+	}
+
+	private static final int MAGIC = 0x4D42474C;
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 128;
+
+	private static final int TREE_SIZE = 32;
+
+	private static final int NODE_SIZE = 32;
+
+	// Files are mapped in regions of 1 GB
+	private static final int REGION_BITS = 30;
+	private static final long REGION_MASK = (1L << MappedEnsemble.REGION_BITS) - 1L;
+}
@@ -52,6 +52,11 @@ public class MultinomialLogisticRegression extends Classification {
 
 		CategoricalLabel categoricalLabel = schema.requireCategoricalLabel();
 
+		// Select the leading iterations upfront, so that trailing trees are never touched
+		if(numIteration != null && (numIteration * categoricalLabel.size()) <= trees.size()){
+			trees = trees.subList(0, numIteration * categoricalLabel.size());
+		}
+
 		for(int i = 0, rows = categoricalLabel.size(), columns = (trees.size() / rows); i < rows; i++){
 			Model model = encodeOutputGroup(FortranMatrixUtil.getRow(trees, rows, columns, i), numIteration, segmentSchema)
 				.setOutput(ModelUtil.createPredictedOutput(FieldNameUtil.create("lgbmValue", categoricalLabel.getValue(i)), OpType.CONTINUOUS, DataType.DOUBLE));
@@ -61,4 +66,52 @@ public class MultinomialLogisticRegression extends Classification {
 
 		return MiningModelUtil.createClassification(models, RegressionModel.NormalizationMethod.SOFTMAX, true, schema);
 	}
+
+	@Override
+	public int getNumTreePerIteration(){
+		return getNumClass();
+	}
+
+	@Override
+	public void convertOutput(double[] scores, int offset){
+		int end = offset + getNumClass();
+
+		double max = Double.NEGATIVE_INFINITY;
+
+		for(int i = offset; i < end; i++){
+			max = Math.max(max, scores[i]);
+		}
+
+		double sum = 0d;
+
+		for(int i = offset; i < end; i++){
+			scores[i] = Math.exp(scores[i] - max);
+
+			sum += scores[i];
+		}
+
+		for(int i = offset; i < end; i++){
+			scores[i] /= sum;
+		}
+	}
+
+	@Override
+	public List<String> encodeJavaOutput(){
+		List<String> result = new ArrayList<>();
+
+		result.add("double max = Double.NEGATIVE_INFINITY;");
+		result.add("for(int i = 0; i < scores.length; i++){");
+		result.add("\tmax = Math.max(max, scores[i]);");
+		result.add("}");
+		result.add("double sum = 0d;");
+		result.add("for(int i = 0; i < scores.length; i++){");
+		result.add("\tscores[i] = Math.exp(scores[i] - max);");
+		result.add("\tsum += scores[i];");
+		result.add("}");
+		result.add("for(int i = 0; i < scores.length; i++){");
+		result.add("\tscores[i] /= sum;");
+		result.add("}");
+
+		return result;
+	}
 }
\ No newline at end of file
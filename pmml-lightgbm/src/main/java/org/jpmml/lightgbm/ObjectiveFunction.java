@@ -19,6 +19,7 @@
 package org.jpmml.lightgbm;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.collect.Iterables;
@@ -42,10 +43,14 @@ public class ObjectiveFunction {
 
 	private boolean average_output_;
 
+	private Section config;
+
 
 	public ObjectiveFunction(Section config){
 		this.name_ = config.get(ObjectiveFunction.CONFIG_NAME, false);
 		this.average_output_ = config.containsKey(ObjectiveFunction.CONFIG_AVERAGE_OUTPUT);
+
+		this.config = new Section(config);
 	}
 
 	abstract
@@ -54,6 +59,25 @@ public class ObjectiveFunction {
 	abstract
 	public Model encodeModel(List<Tree> trees, Integer numIteration, Schema schema);
 
+	// The number of trees (and raw scores) per boosting iteration
+	public int getNumTreePerIteration(){
+		return 1;
+	}
+
+	// Converts raw scores to predictions in place
+	public void convertOutput(double[] scores){
+		convertOutput(scores, 0);
+	}
+
+	// Converts the raw scores of a single row, which start at the specified offset
+	public void convertOutput(double[] scores, int offset){
+	}
+
+	// Java statements that perform the same conversion on a local variable "scores"
+	public List<String> encodeJavaOutput(){
+		return Collections.emptyList();
+	}
+
 	protected Model encodeOutputGroup(List<Tree> trees, Integer numIteration, Schema schema){
 		ContinuousLabel continuousLabel = schema.requireContinuousLabel();
 
@@ -103,6 +127,10 @@ public class ObjectiveFunction {
 		return this.average_output_;
 	}
 
+	public Section getConfig(){
+		return this.config;
+	}
+
 	public static final String CONFIG_NAME = "name";
 	public static final String CONFIG_AVERAGE_OUTPUT = "average_output";
 }
\ No newline at end of file
@@ -0,0 +1,783 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PackedEnsemble {
+
+	private int[] nodeOffsets = null;
+
+	private int[] leafOffsets = null;
+
+	private IntColumn splitFeature = null;
+
+	private DoubleColumn threshold = null;
+
+	private byte[] decisionType = null;
+
+	private IntColumn leftChild = null;
+
+	private IntColumn rightChild = null;
+
+	private DoubleColumn leafValue = null;
+
+	private int[] catBoundaryOffsets = null;
+
+	private int[] catBoundaries = null;
+
+	private int[] catThresholdOffsets = null;
+
+	private int[] catThreshold = null;
+
+	private boolean[] linear = null;
+
+	private DoubleColumn leafConst = null;
+
+	private int[] leafFeatureOffsets = null;
+
+	private IntColumn leafFeatures = null;
+
+	private DoubleColumn leafCoeff = null;
+
+	private double[] internalValue = null;
+
+	private int[] internalCount = null;
+
+	private int[] leafCount = null;
+
+	private int numFeatures = 0;
+
+	private int numTreePerIteration = 1;
+
+	private ObjectiveFunction objectiveFunction = null;
+
+
+	private PackedEnsemble(){
+	}
+
+	public int size(){
+		return this.nodeOffsets.length - 1;
+	}
+
+	public boolean hasStatistics(){
+		return (this.leafCount != null);
+	}
+
+	public List<Tree> unpack(){
+		List<Tree> result = new ArrayList<>(size());
+
+		for(int i = 0; i < size(); i++){
+			result.add(unpack(i));
+		}
+
+		return result;
+	}
+
+	public Tree unpack(int index){
+		Tree tree = new Tree();
+		tree.load(this, index);
+
+		return tree;
+	}
+
+	public double[] predict(double[] row){
+		return predict(row, null);
+	}
+
+	public double[] predict(double[] row, Integer numIteration){
+		ObjectiveFunction objectiveFunction = this.objectiveFunction;
+		if(objectiveFunction == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(row, numIteration);
+
+		objectiveFunction.convertOutput(result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[] row){
+		return predictRaw(row, null);
+	}
+
+	public double[] predictRaw(double[] row, Integer numIteration){
+
+		if(row.length < this.numFeatures){
+			throw new IllegalArgumentException("Expected " + this.numFeatures + " feature values, got " + row.length);
+		}
+
+		int numTreePerIteration = this.numTreePerIteration;
+
+		int numTrees = size();
+
+		if(numIteration != null && numIteration > 0){
+			numTrees = Math.min(numIteration * numTreePerIteration, numTrees);
+		}
+
+		double[] result = new double[numTreePerIteration];
+
+		for(int i = 0; i < numTrees; i++){
+			result[i % numTreePerIteration] += predict(i, row);
+		}
+
+		ObjectiveFunction objectiveFunction = this.objectiveFunction;
+
+		if(objectiveFunction != null && objectiveFunction.getAverageOutput() && numTrees > 0){
+			int numIterations = (numTrees / numTreePerIteration);
+
+			for(int i = 0; i < result.length; i++){
+				result[i] /= numIterations;
+			}
+		}
+
+		return result;
+	}
+
+	// Scores a row straight from the packed columns, without unpacking the tree
+	public double predict(int index, double[] row){
+		int leaf = getLeaf(index, row);
+
+		if(isLinear(index)){
+			return predictLinear(index, leaf, row);
+		}
+
+		return getLeafValue(index, leaf);
+	}
+
+	public int getLeaf(int index, double[] row){
+		int base = this.nodeOffsets[index];
+
+		if(this.nodeOffsets[index + 1] == base){
+			return 0;
+		}
+
+		int node = 0;
+
+		while(node >= 0){
+			node = decision(index, base + node, row[this.splitFeature.get(index, base + node)]);
+		}
+
+		return ~node;
+	}
+
+	private int decision(int index, int position, double value){
+		int decisionType = this.decisionType[position];
+
+		if(Tree.hasCategoricalMask(decisionType)){
+
+			if(!Tree.isCategory(value)){
+				return this.rightChild.get(index, position);
+			}
+
+			int catIndex = this.catBoundaryOffsets[index] + (int)this.threshold.get(index, position);
+
+			int begin = this.catThresholdOffsets[index] + this.catBoundaries[catIndex];
+			int end = this.catThresholdOffsets[index] + this.catBoundaries[catIndex + 1];
+
+			int category = (int)value;
+
+			int word = begin + (category / 32);
+
+			if(word < end && ((this.catThreshold[word] >>> (category % 32)) & 1) == 1){
+				return this.leftChild.get(index, position);
+			}
+
+			return this.rightChild.get(index, position);
+		}
+
+		if(Tree.numericalDecision(value, this.threshold.get(index, position), decisionType)){
+			return this.leftChild.get(index, position);
+		}
+
+		return this.rightChild.get(index, position);
+	}
+
+	private double predictLinear(int index, int leaf, double[] row){
+		int position = this.leafOffsets[index] + leaf;
+
+		double result = this.leafConst.get(index, position);
+
+		for(int i = this.leafFeatureOffsets[position]; i < this.leafFeatureOffsets[position + 1]; i++){
+			double value = row[this.leafFeatures.get(index, i)];
+
+			if(Tree.isLinearMissing(value)){
+				return this.leafValue.get(index, position);
+			}
+
+			result += this.leafCoeff.get(index, i) * value;
+		}
+
+		return result;
+	}
+
+	public int getNumLeaves(int index){
+		return this.leafOffsets[index + 1] - this.leafOffsets[index];
+	}
+
+	public int getNumCat(int index){
+		return Math.max(this.catBoundaryOffsets[index + 1] - this.catBoundaryOffsets[index] - 1, 0);
+	}
+
+	public boolean isLinear(int index){
+		return (this.linear != null && this.linear[index]);
+	}
+
+	public int getSplitFeature(int index, int node){
+		return this.splitFeature.get(index, this.nodeOffsets[index] + node);
+	}
+
+	public double getThreshold(int index, int node){
+		return this.threshold.get(index, this.nodeOffsets[index] + node);
+	}
+
+	public int getDecisionType(int index, int node){
+		return this.decisionType[this.nodeOffsets[index] + node];
+	}
+
+	public int getLeftChild(int index, int node){
+		return this.leftChild.get(index, this.nodeOffsets[index] + node);
+	}
+
+	public int getRightChild(int index, int node){
+		return this.rightChild.get(index, this.nodeOffsets[index] + node);
+	}
+
+	public double getLeafValue(int index, int leaf){
+		return this.leafValue.get(index, this.leafOffsets[index] + leaf);
+	}
+
+	int[] getSplitFeature(int index){
+		return this.splitFeature.get(index, this.nodeOffsets[index], this.nodeOffsets[index + 1]);
+	}
+
+	double[] getThreshold(int index){
+		return this.threshold.get(index, this.nodeOffsets[index], this.nodeOffsets[index + 1]);
+	}
+
+	int[] getDecisionType(int index){
+		int[] result = new int[this.nodeOffsets[index + 1] - this.nodeOffsets[index]];
+
+		for(int i = 0; i < result.length; i++){
+			result[i] = this.decisionType[this.nodeOffsets[index] + i];
+		}
+
+		return result;
+	}
+
+	int[] getLeftChild(int index){
+		return this.leftChild.get(index, this.nodeOffsets[index], this.nodeOffsets[index + 1]);
+	}
+
+	int[] getRightChild(int index){
+		return this.rightChild.get(index, this.nodeOffsets[index], this.nodeOffsets[index + 1]);
+	}
+
+	double[] getLeafValue(int index){
+		return this.leafValue.get(index, this.leafOffsets[index], this.leafOffsets[index + 1]);
+	}
+
+	double[] getInternalValue(int index){
+
+		if(this.internalValue == null){
+			return null;
+		}
+
+		return Arrays.copyOfRange(this.internalValue, this.nodeOffsets[index], this.nodeOffsets[index + 1]);
+	}
+
+	int[] getInternalCount(int index){
+
+		if(this.internalCount == null){
+			return null;
+		}
+
+		return Arrays.copyOfRange(this.internalCount, this.nodeOffsets[index], this.nodeOffsets[index + 1]);
+	}
+
+	int[] getLeafCount(int index){
+
+		if(this.leafCount == null){
+			return null;
+		}
+
+		return Arrays.copyOfRange(this.leafCount, this.leafOffsets[index], this.leafOffsets[index + 1]);
+	}
+
+	int[] getCatBoundaries(int index){
+		return Arrays.copyOfRange(this.catBoundaries, this.catBoundaryOffsets[index], this.catBoundaryOffsets[index + 1]);
+	}
+
+	long[] getCatThreshold(int index){
+		long[] result = new long[this.catThresholdOffsets[index + 1] - this.catThresholdOffsets[index]];
+
+		for(int i = 0; i < result.length; i++){
+			result[i] = Integer.toUnsignedLong(this.catThreshold[this.catThresholdOffsets[index] + i]);
+		}
+
+		return result;
+	}
+
+	double[] getLeafConst(int index){
+		return this.leafConst.get(index, this.leafOffsets[index], this.leafOffsets[index + 1]);
+	}
+
+	int[] getNumFeatures(int index){
+		int[] result = new int[getNumLeaves(index)];
+
+		for(int i = 0; i < result.length; i++){
+			int leaf = this.leafOffsets[index] + i;
+
+			result[i] = this.leafFeatureOffsets[leaf + 1] - this.leafFeatureOffsets[leaf];
+		}
+
+		return result;
+	}
+
+	int[][] getLeafFeatures(int index){
+		int[][] result = new int[getNumLeaves(index)][];
+
+		for(int i = 0; i < result.length; i++){
+			int leaf = this.leafOffsets[index] + i;
+
+			result[i] = this.leafFeatures.get(index, this.leafFeatureOffsets[leaf], this.leafFeatureOffsets[leaf + 1]);
+		}
+
+		return result;
+	}
+
+	double[][] getLeafCoeff(int index){
+		double[][] result = new double[getNumLeaves(index)][];
+
+		for(int i = 0; i < result.length; i++){
+			int leaf = this.leafOffsets[index] + i;
+
+			result[i] = this.leafCoeff.get(index, this.leafFeatureOffsets[leaf], this.leafFeatureOffsets[leaf + 1]);
+		}
+
+		return result;
+	}
+
+	static
+	public PackedEnsemble pack(GBDT gbdt, boolean statistics){
+		return pack(gbdt, statistics, false);
+	}
+
+	// Lossy packing rounds leaf values and linear model parameters to single precision
+	static
+	public PackedEnsemble pack(GBDT gbdt, boolean statistics, boolean lossy){
+		PackedEnsemble result = pack(gbdt.getTrees(), statistics, lossy);
+
+		result.numFeatures = Math.max(result.numFeatures, (gbdt.getFeatureNames()).length);
+		result.numTreePerIteration = gbdt.getNumTreePerIteration();
+		result.objectiveFunction = gbdt.getObjectiveFunction();
+
+		return result;
+	}
+
+	static
+	public PackedEnsemble pack(List<Tree> trees){
+		return pack(trees, false);
+	}
+
+	static
+	public PackedEnsemble pack(List<Tree> trees, boolean statistics){
+		return pack(trees, statistics, false);
+	}
+
+	static
+	public PackedEnsemble pack(List<Tree> trees, boolean statistics, boolean lossy){
+		PackedEnsemble result = new PackedEnsemble();
+
+		int numTrees = trees.size();
+
+		int[] nodeOffsets = new int[numTrees + 1];
+		int[] leafOffsets = new int[numTrees + 1];
+		int[] catBoundaryOffsets = new int[numTrees + 1];
+		int[] catThresholdOffsets = new int[numTrees + 1];
+
+		boolean[] linear = new boolean[numTrees];
+
+		boolean hasLinear = false;
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			int numLeaves = tree.getNumLeaves();
+			int numCat = tree.getNumCat();
+
+			nodeOffsets[i + 1] = nodeOffsets[i] + (numLeaves - 1);
+			leafOffsets[i + 1] = leafOffsets[i] + numLeaves;
+			catBoundaryOffsets[i + 1] = catBoundaryOffsets[i] + (numCat > 0 ? numCat + 1 : 0);
+			catThresholdOffsets[i + 1] = catThresholdOffsets[i] + (numCat > 0 ? (tree.getCatThreshold()).length : 0);
+
+			linear[i] = tree.isLinear();
+
+			hasLinear |= linear[i];
+		}
+
+		int numNodes = nodeOffsets[numTrees];
+		int numLeaves = leafOffsets[numTrees];
+
+		int[] splitFeature = new int[numNodes];
+		double[] threshold = new double[numNodes];
+		byte[] decisionType = new byte[numNodes];
+		int[] leftChild = new int[numNodes];
+		int[] rightChild = new int[numNodes];
+		double[] leafValue = new double[numLeaves];
+
+		int[] catBoundaries = new int[catBoundaryOffsets[numTrees]];
+		int[] catThreshold = new int[catThresholdOffsets[numTrees]];
+
+		double[] internalValue = (statistics ? new double[numNodes] : null);
+		int[] internalCount = (statistics ? new int[numNodes] : null);
+		int[] leafCount = (statistics ? new int[numLeaves] : null);
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			int nodeOffset = nodeOffsets[i];
+			int leafOffset = leafOffsets[i];
+
+			if(tree.getNumLeaves() > 1){
+				System.arraycopy(tree.getSplitFeature(), 0, splitFeature, nodeOffset, tree.getNumLeaves() - 1);
+				System.arraycopy(tree.getThreshold(), 0, threshold, nodeOffset, tree.getNumLeaves() - 1);
+				System.arraycopy(tree.getLeftChild(), 0, leftChild, nodeOffset, tree.getNumLeaves() - 1);
+				System.arraycopy(tree.getRightChild(), 0, rightChild, nodeOffset, tree.getNumLeaves() - 1);
+
+				int[] treeDecisionType = tree.getDecisionType();
+				for(int j = 0; j < treeDecisionType.length; j++){
+					decisionType[nodeOffset + j] = (byte)treeDecisionType[j];
+				}
+
+				if(statistics){
+					System.arraycopy(tree.getInternalValue(), 0, internalValue, nodeOffset, tree.getNumLeaves() - 1);
+					System.arraycopy(tree.getInternalCount(), 0, internalCount, nodeOffset, tree.getNumLeaves() - 1);
+				}
+			}
+
+			System.arraycopy(tree.getLeafValue(), 0, leafValue, leafOffset, tree.getNumLeaves());
+
+			if(statistics){
+				System.arraycopy(tree.getLeafCount(), 0, leafCount, leafOffset, tree.getNumLeaves());
+			} // End if
+
+			if(tree.getNumCat() > 0){
+				System.arraycopy(tree.getCatBoundaries(), 0, catBoundaries, catBoundaryOffsets[i], tree.getNumCat() + 1);
+
+				long[] treeCatThreshold = tree.getCatThreshold();
+				for(int j = 0; j < treeCatThreshold.length; j++){
+					catThreshold[catThresholdOffsets[i] + j] = (int)treeCatThreshold[j];
+				}
+			}
+		}
+
+		int numFeatures = 0;
+
+		for(int feature : splitFeature){
+			numFeatures = Math.max(numFeatures, feature + 1);
+		}
+
+		result.nodeOffsets = nodeOffsets;
+		result.leafOffsets = leafOffsets;
+		result.splitFeature = IntColumn.create(splitFeature, nodeOffsets);
+		// Thresholds are never rounded, because that would change the decisions
+		result.threshold = DoubleColumn.create(threshold, nodeOffsets, false);
+		result.decisionType = decisionType;
+		result.leftChild = IntColumn.create(leftChild, nodeOffsets);
+		result.rightChild = IntColumn.create(rightChild, nodeOffsets);
+		result.leafValue = DoubleColumn.create(leafValue, leafOffsets, lossy);
+		result.catBoundaryOffsets = catBoundaryOffsets;
+		result.catBoundaries = catBoundaries;
+		result.catThresholdOffsets = catThresholdOffsets;
+		result.catThreshold = catThreshold;
+		result.internalValue = internalValue;
+		result.internalCount = internalCount;
+		result.leafCount = leafCount;
+		result.numFeatures = numFeatures;
+
+		if(hasLinear){
+			double[] leafConst = new double[numLeaves];
+			int[] leafFeatureOffsets = new int[numLeaves + 1];
+
+			for(int i = 0; i < numTrees; i++){
+				Tree tree = trees.get(i);
+
+				for(int j = 0; j < tree.getNumLeaves(); j++){
+					int leaf = leafOffsets[i] + j;
+
+					leafFeatureOffsets[leaf + 1] = leafFeatureOffsets[leaf] + (linear[i] ? (tree.getLeafFeatures())[j].length : 0);
+				}
+			}
+
+			int[] leafFeatures = new int[leafFeatureOffsets[numLeaves]];
+			double[] leafCoeff = new double[leafFeatureOffsets[numLeaves]];
+
+			for(int i = 0; i < numTrees; i++){
+				Tree tree = trees.get(i);
+
+				if(!linear[i]){
+					continue;
+				}
+
+				System.arraycopy(tree.getLeafConst(), 0, leafConst, leafOffsets[i], tree.getNumLeaves());
+
+				for(int j = 0; j < tree.getNumLeaves(); j++){
+					int leaf = leafOffsets[i] + j;
+
+					System.arraycopy((tree.getLeafFeatures())[j], 0, leafFeatures, leafFeatureOffsets[leaf], (tree.getLeafFeatures())[j].length);
+					System.arraycopy((tree.getLeafCoeff())[j], 0, leafCoeff, leafFeatureOffsets[leaf], (tree.getLeafCoeff())[j].length);
+				}
+			}
+
+			result.linear = linear;
+			int[] leafFeatureBounds = new int[numTrees + 1];
+
+			for(int i = 0; i <= numTrees; i++){
+				leafFeatureBounds[i] = leafFeatureOffsets[leafOffsets[i]];
+			}
+
+			result.leafConst = DoubleColumn.create(leafConst, leafOffsets, lossy);
+			result.leafFeatureOffsets = leafFeatureOffsets;
+			result.leafFeatures = IntColumn.create(leafFeatures, leafFeatureBounds);
+			result.leafCoeff = DoubleColumn.create(leafCoeff, leafFeatureBounds, lossy);
+
+			for(int feature : leafFeatures){
+				result.numFeatures = Math.max(result.numFeatures, feature + 1);
+			}
+		}
+
+		return result;
+	}
+
+	// Stores every segment (ie. tree) with the narrowest width that holds its values
+	static
+	final class IntColumn {
+
+		private byte[] widths = null;
+
+		private int[] deltas = null;
+
+		private byte[] bytes = null;
+
+		private short[] shorts = null;
+
+		private int[] ints = null;
+
+
+		private IntColumn(){
+		}
+
+		int get(int segment, int index){
+			int position = index + this.deltas[segment];
+
+			switch(this.widths[segment]){
+				case Byte.BYTES:
+					return this.bytes[position];
+				case Short.BYTES:
+					return this.shorts[position];
+				default:
+					return this.ints[position];
+			}
+		}
+
+		int[] get(int segment, int begin, int end){
+			int[] result = new int[end - begin];
+
+			for(int i = 0; i < result.length; i++){
+				result[i] = get(segment, begin + i);
+			}
+
+			return result;
+		}
+
+		// The number of bytes per value
+		int getElementSize(int segment){
+			return this.widths[segment];
+		}
+
+		static
+		IntColumn create(int[] values, int[] bounds){
+			int numSegments = bounds.length - 1;
+
+			byte[] widths = new byte[numSegments];
+			int[] sizes = new int[Integer.BYTES + 1];
+
+			for(int i = 0; i < numSegments; i++){
+				int min = 0;
+				int max = 0;
+
+				for(int j = bounds[i]; j < bounds[i + 1]; j++){
+					min = Math.min(min, values[j]);
+					max = Math.max(max, values[j]);
+				}
+
+				if(min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE){
+					widths[i] = Byte.BYTES;
+				} else
+
+				if(min >= Short.MIN_VALUE && max <= Short.MAX_VALUE){
+					widths[i] = Short.BYTES;
+				} else
+
+				{
+					widths[i] = Integer.BYTES;
+				}
+
+				sizes[widths[i]] += (bounds[i + 1] - bounds[i]);
+			}
+
+			IntColumn result = new IntColumn();
+			result.widths = widths;
+			result.deltas = new int[numSegments];
+			result.bytes = new byte[sizes[Byte.BYTES]];
+			result.shorts = new short[sizes[Short.BYTES]];
+			result.ints = new int[sizes[Integer.BYTES]];
+
+			int[] positions = new int[Integer.BYTES + 1];
+
+			for(int i = 0; i < numSegments; i++){
+				int position = positions[widths[i]];
+
+				result.deltas[i] = position - bounds[i];
+
+				for(int j = bounds[i]; j < bounds[i + 1]; j++, position++){
+
+					switch(widths[i]){
+						case Byte.BYTES:
+							result.bytes[position] = (byte)values[j];
+							break;
+						case Short.BYTES:
+							result.shorts[position] = (short)values[j];
+							break;
+						default:
+							result.ints[position] = values[j];
+							break;
+					}
+				}
+
+				positions[widths[i]] = position;
+			}
+
+			return result;
+		}
+	}
+
+	// Stores every segment (ie. tree) in single precision if that does not lose information, or if the loss has been opted into
+	static
+	final class DoubleColumn {
+
+		private byte[] widths = null;
+
+		private int[] deltas = null;
+
+		private float[] floats = null;
+
+		private double[] doubles = null;
+
+
+		private DoubleColumn(){
+		}
+
+		double get(int segment, int index){
+			int position = index + this.deltas[segment];
+
+			switch(this.widths[segment]){
+				case Float.BYTES:
+					return this.floats[position];
+				default:
+					return this.doubles[position];
+			}
+		}
+
+		double[] get(int segment, int begin, int end){
+			double[] result = new double[end - begin];
+
+			for(int i = 0; i < result.length; i++){
+				result[i] = get(segment, begin + i);
+			}
+
+			return result;
+		}
+
+		// The number of bytes per value
+		int getElementSize(int segment){
+			return this.widths[segment];
+		}
+
+		static
+		DoubleColumn create(double[] values, int[] bounds, boolean lossy){
+			int numSegments = bounds.length - 1;
+
+			byte[] widths = new byte[numSegments];
+			int[] sizes = new int[Double.BYTES + 1];
+
+			for(int i = 0; i < numSegments; i++){
+				boolean lossless = true;
+
+				for(int j = bounds[i]; j < bounds[i + 1] && !lossy; j++){
+
+					// Compares NaN values as equal, and distinguishes between positive and negative zero
+					if(Double.compare((double)(float)values[j], values[j]) != 0){
+						lossless = false;
+
+						break;
+					}
+				}
+
+				widths[i] = (byte)(lossy || lossless ? Float.BYTES : Double.BYTES);
+
+				sizes[widths[i]] += (bounds[i + 1] - bounds[i]);
+			}
+
+			DoubleColumn result = new DoubleColumn();
+			result.widths = widths;
+			result.deltas = new int[numSegments];
+			result.floats = new float[sizes[Float.BYTES]];
+			result.doubles = new double[sizes[Double.BYTES]];
+
+			int[] positions = new int[Double.BYTES + 1];
+
+			for(int i = 0; i < numSegments; i++){
+				int position = positions[widths[i]];
+
+				result.deltas[i] = position - bounds[i];
+
+				for(int j = bounds[i]; j < bounds[i + 1]; j++, position++){
+
+					switch(widths[i]){
+						case Float.BYTES:
+							result.floats[position] = (float)values[j];
+							break;
+						default:
+							result.doubles[position] = values[j];
+							break;
+					}
+				}
+
+				positions[widths[i]] = position;
+			}
+
+			return result;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Scores rows on a fork/join pool.
+// Batches of rows are split into row blocks, which idle workers steal from each other.
+// Single rows are split into tree chunks, whose partial raw scores are summed before applying the objective function.
+// Leaf indices are computed by row blocks
+public class ParallelPredictor {
+
+	private GBDT gbdt = null;
+
+	private ForkJoinPool pool = null;
+
+	private int rowBlockSize = ParallelPredictor.DEFAULT_ROW_BLOCK_SIZE;
+
+	private int treeChunkSize = ParallelPredictor.DEFAULT_TREE_CHUNK_SIZE;
+
+
+	public ParallelPredictor(GBDT gbdt){
+		this(gbdt, ForkJoinPool.commonPool());
+	}
+
+	public ParallelPredictor(GBDT gbdt, ForkJoinPool pool){
+		setGBDT(gbdt);
+		setPool(pool);
+	}
+
+	public double[] predict(double[] row){
+		return predict(row, null);
+	}
+
+	public double[] predict(double[] row, Integer numIteration){
+		ObjectiveFunction object_function_ = getObjectiveFunction();
+
+		double[] result = predictRaw(row, numIteration);
+
+		object_function_.convertOutput(result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[] row){
+		return predictRaw(row, null);
+	}
+
+	public double[] predictRaw(double[] row, Integer numIteration){
+		GBDT gbdt = getGBDT();
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		// Small ensembles are not worth the scheduling overhead
+		if(numTrees <= this.treeChunkSize){
+			return gbdt.predictRaw(row, numIteration);
+		}
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+
+		if(row.length < numFeatures){
+			throw new IllegalArgumentException("Expected " + numFeatures + " feature values, got " + row.length);
+		}
+
+		ForkJoinPool pool = getPool();
+
+		double[] result = pool.invoke(new TreeChunkTask(gbdt.getTrees(), row, gbdt.getNumTreePerIteration(), 0, numTrees, this.treeChunkSize));
+
+		gbdt.averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	// Scores a block of rows from column-major data. The result is row-major
+	public double[] predict(double[][] columns, int offset, int length, Integer numIteration){
+		ObjectiveFunction object_function_ = getObjectiveFunction();
+
+		return predict(columns, offset, length, numIteration, object_function_);
+	}
+
+	public double[] predictRaw(double[][] columns, int offset, int length, Integer numIteration){
+		return predict(columns, offset, length, numIteration, null);
+	}
+
+	private double[] predict(double[][] columns, int offset, int length, Integer numIteration, ObjectiveFunction object_function_){
+		GBDT gbdt = getGBDT();
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+
+		if(columns.length < numFeatures){
+			throw new IllegalArgumentException("Expected " + numFeatures + " feature columns, got " + columns.length);
+		}
+
+		double[] result = new double[length * gbdt.getNumTreePerIteration()];
+
+		ForkJoinPool pool = getPool();
+
+		pool.invoke(new RowBlockTask(gbdt, columns, offset, 0, length, numIteration, object_function_, this.rowBlockSize, result));
+
+		return result;
+	}
+
+	public int[] predictLeaf(double[][] columns, int offset, int length, Integer numIteration){
+		GBDT gbdt = getGBDT();
+
+		int[] result = new int[length * gbdt.getNumTrees(numIteration)];
+
+		predictLeaf(columns, offset, length, numIteration, false, result, 0);
+
+		return result;
+	}
+
+	public void predictLeaf(double[][] columns, int offset, int length, Integer numIteration, boolean oneHot, int[] result, int resultOffset){
+		GBDT gbdt = getGBDT();
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+
+		if(columns.length < numFeatures){
+			throw new IllegalArgumentException("Expected " + numFeatures + " feature columns, got " + columns.length);
+		}
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		if((long)resultOffset + (long)length * numTrees > result.length){
+			throw new IllegalArgumentException("Expected a buffer of at least " + ((long)resultOffset + (long)length * numTrees) + " elements, got " + result.length);
+		}
+
+		ForkJoinPool pool = getPool();
+
+		pool.invoke(new LeafBlockTask(gbdt, columns, offset, 0, length, numIteration, oneHot, this.rowBlockSize, result, resultOffset));
+	}
+
+	private ObjectiveFunction getObjectiveFunction(){
+		GBDT gbdt = getGBDT();
+
+		ObjectiveFunction object_function_ = gbdt.getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		return object_function_;
+	}
+
+	public GBDT getGBDT(){
+		return this.gbdt;
+	}
+
+	private void setGBDT(GBDT gbdt){
+
+		if(gbdt == null){
+			throw new IllegalArgumentException();
+		}
+
+		this.gbdt = gbdt;
+	}
+
+	public ForkJoinPool getPool(){
+		return this.pool;
+	}
+
+	public void setPool(ForkJoinPool pool){
+
+		if(pool == null){
+			throw new IllegalArgumentException();
+		}
+
+		this.pool = pool;
+	}
+
+	public int getRowBlockSize(){
+		return this.rowBlockSize;
+	}
+
+	public void setRowBlockSize(int rowBlockSize){
+
+		if(rowBlockSize < 1){
+			throw new IllegalArgumentException();
+		}
+
+		this.rowBlockSize = rowBlockSize;
+	}
+
+	public int getTreeChunkSize(){
+		return this.treeChunkSize;
+	}
+
+	public void setTreeChunkSize(int treeChunkSize){
+
+		if(treeChunkSize < 1){
+			throw new IllegalArgumentException();
+		}
+
+		this.treeChunkSize = treeChunkSize;
+	}
+
+	public static final int DEFAULT_ROW_BLOCK_SIZE = 2048;
+	public static final int DEFAULT_TREE_CHUNK_SIZE = 1000;
+}
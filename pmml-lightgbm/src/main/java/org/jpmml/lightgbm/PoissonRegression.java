@@ -18,6 +18,7 @@
  */
 package org.jpmml.lightgbm;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.dmg.pmml.DataType;
@@ -44,4 +45,14 @@ public class PoissonRegression extends Regression {
 
 		return MiningModelUtil.createRegression(model, RegressionModel.NormalizationMethod.EXP, schema);
 	}
+
+	@Override
+	public void convertOutput(double[] scores, int offset){
+		scores[offset] = Math.exp(scores[offset]);
+	}
+
+	@Override
+	public List<String> encodeJavaOutput(){
+		return Collections.singletonList("scores[0] = Math.exp(scores[0]);");
+	}
 }
\ No newline at end of file
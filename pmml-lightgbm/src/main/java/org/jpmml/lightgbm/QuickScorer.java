@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Evaluates shallow numeric trees using the QuickScorer algorithm.
+// The splits of all trees are grouped by feature and sorted by threshold, so that scoring a row is a sequence of short threshold scans, each of which clears leaf bits in the bitvector of the owning tree.
+// The exit leaf of a tree is the leftmost leaf whose bit is still set.
+public class QuickScorer {
+
+	private GBDT gbdt = null;
+
+	private int numFeatures = 0;
+
+	private int[] featureOffsets = null;
+
+	private boolean[] featureMissing = null;
+
+	private double[] thresholds = null;
+
+	private int[] treeIds = null;
+
+	private long[] masks = null;
+
+	private byte[] decisionTypes = null;
+
+	private int[] leafOffsets = null;
+
+	private double[] leafValues = null;
+
+
+	private QuickScorer(){
+	}
+
+	public int size(){
+		return this.leafOffsets.length;
+	}
+
+	// The number of trees that are evaluated by plain traversal
+	public int getNumFallbackTrees(){
+		int result = 0;
+
+		for(int i = 0; i < this.leafOffsets.length; i++){
+
+			if(this.leafOffsets[i] < 0){
+				result++;
+			}
+		}
+
+		return result;
+	}
+
+	public double[] predict(double[] row){
+		return predict(row, null);
+	}
+
+	public double[] predict(double[] row, Integer numIteration){
+		ObjectiveFunction object_function_ = this.gbdt.getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(row, numIteration);
+
+		object_function_.convertOutput(result);
+
+		return result;
+	}
+
+	public double[] predictRaw(double[] row){
+		return predictRaw(row, null);
+	}
+
+	public double[] predictRaw(double[] row, Integer numIteration){
+		GBDT gbdt = this.gbdt;
+
+		if(row.length < this.numFeatures){
+			throw new IllegalArgumentException("Expected " + this.numFeatures + " feature values, got " + row.length);
+		}
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		long[] vectors = new long[this.leafOffsets.length];
+
+		Arrays.fill(vectors, -1L);
+
+		int[] featureOffsets = this.featureOffsets;
+		double[] thresholds = this.thresholds;
+		int[] treeIds = this.treeIds;
+		long[] masks = this.masks;
+
+		for(int i = 0; i < this.numFeatures; i++){
+			int begin = featureOffsets[i];
+			int end = featureOffsets[i + 1];
+
+			if(begin == end){
+				continue;
+			}
+
+			double value = row[i];
+
+			// Splits with missing value handling must be decided one by one
+			if(this.featureMissing[i] && (Double.isNaN(value) || Tree.isZero(value))){
+
+				for(int j = begin; j < end; j++){
+
+					if(isFalse(value, j)){
+						vectors[treeIds[j]] &= masks[j];
+					}
+				}
+
+				continue;
+			} // End if
+
+			if(Double.isNaN(value)){
+				value = 0d;
+			}
+
+			// Every split whose threshold is less than the value sends the row to the right
+			for(int j = begin; j < end && thresholds[j] < value; j++){
+				vectors[treeIds[j]] &= masks[j];
+			}
+		}
+
+		double[] result = new double[numTreePerIteration];
+
+		int[] leafOffsets = this.leafOffsets;
+		double[] leafValues = this.leafValues;
+
+		List<Tree> trees = gbdt.getTrees();
+
+		for(int i = 0; i < numTrees; i++){
+			int leafOffset = leafOffsets[i];
+
+			if(leafOffset < 0){
+				Tree tree = trees.get(i);
+
+				result[i % numTreePerIteration] += tree.predict(row);
+			} else
+
+			{
+				result[i % numTreePerIteration] += leafValues[leafOffset + Long.numberOfTrailingZeros(vectors[i])];
+			}
+		}
+
+		gbdt.averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	private boolean isFalse(double value, int index){
+		return !Tree.numericalDecision(value, this.thresholds[index], this.decisionTypes[index]);
+	}
+
+	static
+	public boolean isSupported(Tree tree){
+		return (tree.getNumLeaves() <= 64) && (tree.getNumCat() == 0) && !tree.isLinear();
+	}
+
+	static
+	public QuickScorer build(GBDT gbdt){
+		List<Tree> trees = gbdt.getTrees();
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+
+		int[] leafOffsets = new int[trees.size()];
+
+		int numSplits = 0;
+		int numLeaves = 0;
+
+		for(int i = 0; i < trees.size(); i++){
+			Tree tree = trees.get(i);
+
+			if(!isSupported(tree)){
+				leafOffsets[i] = -1;
+
+				continue;
+			}
+
+			leafOffsets[i] = numLeaves;
+
+			numSplits += (tree.getNumLeaves() - 1);
+			numLeaves += tree.getNumLeaves();
+		}
+
+		int[] splitFeatures = new int[numSplits];
+		double[] splitThresholds = new double[numSplits];
+		int[] splitTreeIds = new int[numSplits];
+		long[] splitMasks = new long[numSplits];
+		byte[] splitDecisionTypes = new byte[numSplits];
+
+		double[] leafValues = new double[numLeaves];
+
+		int[] featureCounts = new int[numFeatures + 1];
+
+		int index = 0;
+
+		for(int i = 0; i < trees.size(); i++){
+			Tree tree = trees.get(i);
+
+			if(leafOffsets[i] < 0){
+				continue;
+			}
+
+			int numTreeLeaves = tree.getNumLeaves();
+
+			if(numTreeLeaves == 1){
+				leafValues[leafOffsets[i]] = (tree.getLeafValue())[0];
+
+				continue;
+			}
+
+			int[] splitFeature = tree.getSplitFeature();
+			double[] threshold = tree.getThreshold();
+			int[] decisionType = tree.getDecisionType();
+			double[] leafValue = tree.getLeafValue();
+
+			// The in-order (ie. left-to-right) position of the first leaf in the subtree of each node
+			int[] begins = new int[numTreeLeaves - 1];
+			int[] ends = new int[numTreeLeaves - 1];
+
+			int[] order = new int[numTreeLeaves];
+
+			visit(tree, 0, begins, ends, order, 0);
+
+			for(int j = 0; j < numTreeLeaves; j++){
+				leafValues[leafOffsets[i] + j] = leafValue[order[j]];
+			}
+
+			int[] leftChild = tree.getLeftChild();
+
+			for(int j = 0; j < numTreeLeaves - 1; j++){
+				int left = leftChild[j];
+
+				int leftBegin = (left >= 0 ? begins[left] : begins[j]);
+				int leftEnd = (left >= 0 ? ends[left] : begins[j] + 1);
+
+				// Clear the bits of all the leaves that are reachable via the left child
+				long mask = ~(((1L << (leftEnd - leftBegin)) - 1L) << leftBegin);
+
+				splitFeatures[index] = splitFeature[j];
+				splitThresholds[index] = threshold[j];
+				splitTreeIds[index] = i;
+				splitMasks[index] = mask;
+				splitDecisionTypes[index] = (byte)decisionType[j];
+
+				featureCounts[splitFeature[j] + 1]++;
+
+				index++;
+			}
+		}
+
+		int[] featureOffsets = new int[numFeatures + 1];
+
+		for(int i = 0; i < numFeatures; i++){
+			featureOffsets[i + 1] = featureOffsets[i] + featureCounts[i + 1];
+		}
+
+		Integer[] permutation = new Integer[numSplits];
+
+		for(int i = 0; i < numSplits; i++){
+			permutation[i] = i;
+		}
+
+		Arrays.sort(permutation, (left, right) -> {
+			int result = Integer.compare(splitFeatures[left], splitFeatures[right]);
+
+			if(result == 0){
+				result = Double.compare(splitThresholds[left], splitThresholds[right]);
+			}
+
+			return result;
+		});
+
+		QuickScorer result = new QuickScorer();
+		result.gbdt = gbdt;
+		result.numFeatures = numFeatures;
+		result.featureOffsets = featureOffsets;
+		result.featureMissing = new boolean[numFeatures];
+		result.thresholds = new double[numSplits];
+		result.treeIds = new int[numSplits];
+		result.masks = new long[numSplits];
+		result.decisionTypes = new byte[numSplits];
+		result.leafOffsets = leafOffsets;
+		result.leafValues = leafValues;
+
+		for(int i = 0; i < numSplits; i++){
+			int split = permutation[i];
+
+			result.thresholds[i] = splitThresholds[split];
+			result.treeIds[i] = splitTreeIds[split];
+			result.masks[i] = splitMasks[split];
+			result.decisionTypes[i] = splitDecisionTypes[split];
+
+			if(Tree.getMissingType(splitDecisionTypes[split]) != Tree.MISSING_TYPE_NONE){
+				result.featureMissing[splitFeatures[split]] = true;
+			}
+		}
+
+		return result;
+	}
+
+	static
+	private int visit(Tree tree, int node, int[] begins, int[] ends, int[] order, int position){
+
+		if(node < 0){
+			order[position] = ~node;
+
+			return position + 1;
+		}
+
+		begins[node] = position;
+
+		position = visit(tree, (tree.getLeftChild())[node], begins, ends, order, position);
+		position = visit(tree, (tree.getRightChild())[node], begins, ends, order, position);
+
+		ends[node] = position;
+
+		return position;
+	}
+}
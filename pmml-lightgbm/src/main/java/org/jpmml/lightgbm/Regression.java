@@ -18,6 +18,7 @@
  */
 package org.jpmml.lightgbm;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.dmg.pmml.DataField;
@@ -32,8 +33,13 @@ import org.jpmml.converter.Schema;
 
 public class Regression extends ObjectiveFunction {
 
+	private boolean sqrt_;
+
+
 	public Regression(Section config){
 		super(config);
+
+		this.sqrt_ = config.containsKey(Regression.CONFIG_SQRT);
 	}
 
 	@Override
@@ -54,4 +60,25 @@ public class Regression extends ObjectiveFunction {
 
 		return model;
 	}
+
+	@Override
+	public void convertOutput(double[] scores, int offset){
+
+		// The model was trained against the square root of the label
+		if(this.sqrt_){
+			scores[offset] = Math.copySign(scores[offset] * scores[offset], scores[offset]);
+		}
+	}
+
+	@Override
+	public List<String> encodeJavaOutput(){
+
+		if(this.sqrt_){
+			return Collections.singletonList("scores[0] = Math.copySign(scores[0] * scores[0], scores[0]);");
+		}
+
+		return super.encodeJavaOutput();
+	}
+
+	public static final String CONFIG_SQRT = "sqrt";
 }
\ No newline at end of file
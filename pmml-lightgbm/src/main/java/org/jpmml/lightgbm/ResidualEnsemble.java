@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// An ensemble that has been partially evaluated on a set of fixed feature values (eg. the query and user features of a ranking request).
+// Splits on fixed features are collapsed to the child that the fixed value selects, and trees that collapse to a constant leaf are folded into a bias.
+// The remaining residual trees only split on free features (eg. the features of candidate items)
+public class ResidualEnsemble {
+
+	private GBDT gbdt = null;
+
+	private Integer numIteration = null;
+
+	private boolean[] fixed = null;
+
+	private double[] fixedValues = null;
+
+	private double[] bias = null;
+
+	private Tree[] trees = null;
+
+	private int[] outputs = null;
+
+	private int[] roots = null;
+
+	private int[] nodeOffsets = null;
+
+	private int[] splitFeatures = null;
+
+	private int[] originalNodes = null;
+
+	private int[] leftChildren = null;
+
+	private int[] rightChildren = null;
+
+
+	private ResidualEnsemble(){
+	}
+
+	// The number of residual trees
+	public int size(){
+		return this.trees.length;
+	}
+
+	// The number of residual internal nodes
+	public int getNumNodes(){
+		return this.nodeOffsets[this.trees.length];
+	}
+
+	// Scores a candidate row. The values of fixed features are taken from this ensemble
+	public double[] predictRaw(double[] row){
+		GBDT gbdt = this.gbdt;
+
+		if(row.length < this.fixed.length){
+			throw new IllegalArgumentException("Expected " + this.fixed.length + " feature values, got " + row.length);
+		}
+
+		double[] result = this.bias.clone();
+
+		for(int i = 0; i < this.trees.length; i++){
+			result[this.outputs[i]] += predictTree(i, null, row, 0);
+		}
+
+		gbdt.averageOutput(result, this.numIteration);
+
+		return result;
+	}
+
+	// Scores a block of candidate rows from column-major data. The result is row-major.
+	// The columns of fixed features are not accessed, and may be null
+	public double[] predictRaw(double[][] columns, int offset, int length){
+		GBDT gbdt = this.gbdt;
+
+		if(columns.length < this.fixed.length){
+			throw new IllegalArgumentException("Expected " + this.fixed.length + " feature columns, got " + columns.length);
+		}
+
+		int numOutputs = this.bias.length;
+
+		double[] result = new double[length * numOutputs];
+
+		for(int j = 0; j < length; j++){
+			System.arraycopy(this.bias, 0, result, j * numOutputs, numOutputs);
+		}
+
+		// Tree-major traversal keeps the nodes of one tree hot in cache for the whole block
+		for(int i = 0; i < this.trees.length; i++){
+			int output = this.outputs[i];
+
+			for(int j = 0; j < length; j++){
+				result[j * numOutputs + output] += predictTree(i, columns, null, offset + j);
+			}
+		}
+
+		gbdt.averageOutput(result, this.numIteration);
+
+		return result;
+	}
+
+	// Selects the k best scoring candidate rows of a single-output model.
+	// Returns their indices relative to the offset, in order of decreasing score
+	public int[] selectTopK(double[][] columns, int offset, int length, int k){
+
+		if(this.bias.length != 1){
+			throw new IllegalStateException("Top-k selection requires a single-output model");
+		}
+
+		double[] scores = predictRaw(columns, offset, length);
+
+		return selectTopK(scores, k);
+	}
+
+	private double predictTree(int index, double[][] columns, double[] row, int rowIndex){
+		Tree tree = this.trees[index];
+
+		int base = this.nodeOffsets[index];
+
+		int node = this.roots[index];
+
+		while(node >= 0){
+			int residualNode = base + node;
+
+			int feature = this.splitFeatures[residualNode];
+			int originalNode = this.originalNodes[residualNode];
+
+			double value = (row != null ? row[feature] : columns[feature][rowIndex]);
+
+			int child = tree.decision(value, originalNode);
+
+			node = (child == (tree.getLeftChild())[originalNode] ? this.leftChildren[residualNode] : this.rightChildren[residualNode]);
+		}
+
+		int leaf = ~node;
+
+		if(tree.isLinear()){
+			return predictLinear(tree, leaf, columns, row, rowIndex);
+		}
+
+		return (tree.getLeafValue())[leaf];
+	}
+
+	private double predictLinear(Tree tree, int leaf, double[][] columns, double[] row, int rowIndex){
+		int[] leafFeatures = (tree.getLeafFeatures())[leaf];
+		double[] leafCoeff = (tree.getLeafCoeff())[leaf];
+
+		double result = (tree.getLeafConst())[leaf];
+
+		for(int i = 0; i < leafFeatures.length; i++){
+			int feature = leafFeatures[i];
+
+			double value;
+
+			if(this.fixed[feature]){
+				value = this.fixedValues[feature];
+			} else
+
+			{
+				value = (row != null ? row[feature] : columns[feature][rowIndex]);
+			} // End if
+
+			if(Tree.isLinearMissing(value)){
+				return (tree.getLeafValue())[leaf];
+			}
+
+			result += leafCoeff[i] * value;
+		}
+
+		return result;
+	}
+
+	// Follows the splits on fixed features, until reaching a split on a free feature or a leaf
+	private int resolve(Tree tree, int node){
+
+		while(node >= 0){
+			int feature = (tree.getSplitFeature())[node];
+
+			if(!this.fixed[feature]){
+				break;
+			}
+
+			node = tree.decision(this.fixedValues[feature], node);
+		}
+
+		return node;
+	}
+
+	static
+	public ResidualEnsemble specialize(GBDT gbdt, Map<String, ? extends Number> fixedValues){
+		return specialize(gbdt, fixedValues, null);
+	}
+
+	static
+	public ResidualEnsemble specialize(GBDT gbdt, Map<String, ? extends Number> fixedValues, Integer numIteration){
+		String[] featureNames = gbdt.getFeatureNames();
+
+		ResidualEnsemble result = new ResidualEnsemble();
+		result.gbdt = gbdt;
+		result.numIteration = numIteration;
+		result.fixed = new boolean[featureNames.length];
+		result.fixedValues = new double[featureNames.length];
+
+		List<String> featureNameList = Arrays.asList(featureNames);
+
+		for(Map.Entry<String, ? extends Number> entry : fixedValues.entrySet()){
+			String name = entry.getKey();
+			Number value = entry.getValue();
+
+			int feature = featureNameList.indexOf(name);
+			if(feature < 0){
+				throw new IllegalArgumentException("Feature \'" + name + "\' is not defined");
+			}
+
+			result.fixed[feature] = true;
+			result.fixedValues[feature] = (value != null ? value.doubleValue() : Double.NaN);
+		}
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		List<Tree> trees = gbdt.getTrees();
+
+		double[] bias = new double[numTreePerIteration];
+
+		List<Tree> residualTrees = new ArrayList<>();
+		List<Integer> outputs = new ArrayList<>();
+		List<Integer> roots = new ArrayList<>();
+		List<int[]> residualNodes = new ArrayList<>();
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			int root = (tree.isEmpty() ? -1 : result.resolve(tree, 0));
+
+			// A constant leaf
+			if(root < 0 && !tree.isLinear()){
+				bias[i % numTreePerIteration] += (tree.getLeafValue())[~root];
+
+				continue;
+			}
+
+			residualTrees.add(tree);
+			outputs.add(i % numTreePerIteration);
+			roots.add(root);
+			residualNodes.add(collectNodes(result, tree, root));
+		}
+
+		int numResidualTrees = residualTrees.size();
+
+		int[] nodeOffsets = new int[numResidualTrees + 1];
+
+		for(int i = 0; i < numResidualTrees; i++){
+			nodeOffsets[i + 1] = nodeOffsets[i] + (residualNodes.get(i)).length;
+		}
+
+		int numNodes = nodeOffsets[numResidualTrees];
+
+		result.bias = bias;
+		result.trees = residualTrees.toArray(new Tree[numResidualTrees]);
+		result.outputs = new int[numResidualTrees];
+		result.roots = new int[numResidualTrees];
+		result.nodeOffsets = nodeOffsets;
+		result.splitFeatures = new int[numNodes];
+		result.originalNodes = new int[numNodes];
+		result.leftChildren = new int[numNodes];
+		result.rightChildren = new int[numNodes];
+
+		for(int i = 0; i < numResidualTrees; i++){
+			Tree tree = result.trees[i];
+
+			int[] nodes = residualNodes.get(i);
+
+			result.outputs[i] = outputs.get(i);
+
+			int[] originalToResidual = new int[Math.max(tree.getNumLeaves() - 1, 0)];
+
+			for(int j = 0; j < nodes.length; j++){
+				originalToResidual[nodes[j]] = j;
+			}
+
+			int root = roots.get(i);
+
+			result.roots[i] = (root >= 0 ? originalToResidual[root] : root);
+
+			for(int j = 0; j < nodes.length; j++){
+				int node = nodes[j];
+
+				int residualNode = nodeOffsets[i] + j;
+
+				int left = result.resolve(tree, (tree.getLeftChild())[node]);
+				int right = result.resolve(tree, (tree.getRightChild())[node]);
+
+				result.splitFeatures[residualNode] = (tree.getSplitFeature())[node];
+				result.originalNodes[residualNode] = node;
+				result.leftChildren[residualNode] = (left >= 0 ? originalToResidual[left] : left);
+				result.rightChildren[residualNode] = (right >= 0 ? originalToResidual[right] : right);
+			}
+		}
+
+		return result;
+	}
+
+	// Collects the residual nodes that are reachable from the root, in depth-first order
+	static
+	private int[] collectNodes(ResidualEnsemble ensemble, Tree tree, int root){
+		List<Integer> result = new ArrayList<>();
+
+		if(root >= 0){
+			collectNodes(ensemble, tree, root, result);
+		}
+
+		return result.stream()
+			.mapToInt(Integer::intValue)
+			.toArray();
+	}
+
+	static
+	private void collectNodes(ResidualEnsemble ensemble, Tree tree, int node, List<Integer> result){
+		result.add(node);
+
+		int left = ensemble.resolve(tree, (tree.getLeftChild())[node]);
+		if(left >= 0){
+			collectNodes(ensemble, tree, left, result);
+		}
+
+		int right = ensemble.resolve(tree, (tree.getRightChild())[node]);
+		if(right >= 0){
+			collectNodes(ensemble, tree, right, result);
+		}
+	}
+
+	// Selects the indices of the k largest scores, in order of decreasing score. Ties are broken in favour of the lower index
+	static
+	int[] selectTopK(double[] scores, int k){
+
+		if(k < 0){
+			throw new IllegalArgumentException("Expected a non-negative k, got " + k);
+		}
+
+		k = Math.min(k, scores.length);
+
+		// A min-heap of the best candidates so far, whose root is the worst of them
+		int[] heap = new int[k];
+
+		int size = 0;
+
+		for(int i = 0; i < scores.length; i++){
+
+			if(size < k){
+				heap[size] = i;
+
+				siftUp(heap, size, scores);
+
+				size++;
+			} else
+
+			if(k > 0 && isBetter(i, heap[0], scores)){
+				heap[0] = i;
+
+				siftDown(heap, 0, size, scores);
+			}
+		}
+
+		// Repeatedly moving the worst candidate to the end sorts the heap in order of decreasing score
+		for(int end = size - 1; end > 0; end--){
+			int tmp = heap[0];
+
+			heap[0] = heap[end];
+			heap[end] = tmp;
+
+			siftDown(heap, 0, end, scores);
+		}
+
+		return heap;
+	}
+
+	static
+	private void siftUp(int[] heap, int index, double[] scores){
+
+		while(index > 0){
+			int parent = (index - 1) >>> 1;
+
+			if(!isBetter(heap[parent], heap[index], scores)){
+				break;
+			}
+
+			swap(heap, parent, index);
+
+			index = parent;
+		}
+	}
+
+	static
+	private void siftDown(int[] heap, int index, int size, double[] scores){
+
+		while(true){
+			int left = 2 * index + 1;
+			int right = left + 1;
+
+			int worst = index;
+
+			if(left < size && isBetter(heap[worst], heap[left], scores)){
+				worst = left;
+			} // End if
+
+			if(right < size && isBetter(heap[worst], heap[right], scores)){
+				worst = right;
+			} // End if
+
+			if(worst == index){
+				break;
+			}
+
+			swap(heap, index, worst);
+
+			index = worst;
+		}
+	}
+
+	static
+	private boolean isBetter(int left, int right, double[] scores){
+		int result = Double.compare(scores[left], scores[right]);
+
+		if(result == 0){
+			return (left < right);
+		}
+
+		return (result > 0);
+	}
+
+	static
+	private void swap(int[] values, int left, int right){
+		int tmp = values[left];
+
+		values[left] = values[right];
+		values[right] = tmp;
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.concurrent.RecursiveAction;
+
+class RowBlockTask extends RecursiveAction {
+
+	private GBDT gbdt = null;
+
+	private double[][] columns = null;
+
+	private int offset = 0;
+
+	private int begin = 0;
+
+	private int end = 0;
+
+	private Integer numIteration = null;
+
+	private ObjectiveFunction objectiveFunction = null;
+
+	private int blockSize = 0;
+
+	private double[] result = null;
+
+
+	RowBlockTask(GBDT gbdt, double[][] columns, int offset, int begin, int end, Integer numIteration, ObjectiveFunction objectiveFunction, int blockSize, double[] result){
+		this.gbdt = gbdt;
+		this.columns = columns;
+		this.offset = offset;
+		this.begin = begin;
+		this.end = end;
+		this.numIteration = numIteration;
+		this.objectiveFunction = objectiveFunction;
+		this.blockSize = blockSize;
+		this.result = result;
+	}
+
+	@Override
+	protected void compute(){
+		int begin = this.begin;
+		int end = this.end;
+
+		if((end - begin) > this.blockSize){
+			int middle = (begin + end) >>> 1;
+
+			invokeAll(
+				new RowBlockTask(this.gbdt, this.columns, this.offset, begin, middle, this.numIteration, this.objectiveFunction, this.blockSize, this.result),
+				new RowBlockTask(this.gbdt, this.columns, this.offset, middle, end, this.numIteration, this.objectiveFunction, this.blockSize, this.result)
+			);
+
+			return;
+		}
+
+		GBDT gbdt = this.gbdt;
+
+		double[] scores = gbdt.predictRaw(this.columns, this.offset + begin, end - begin, this.numIteration);
+
+		if(this.objectiveFunction != null){
+			gbdt.convertOutput(this.objectiveFunction, scores);
+		}
+
+		System.arraycopy(scores, 0, this.result, begin * gbdt.getNumTreePerIteration(), scores.length);
+	}
+}
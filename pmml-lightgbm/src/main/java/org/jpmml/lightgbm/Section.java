@@ -141,6 +141,6 @@ public class Section extends LinkedHashMap<String, String> {
 			value = null;
 		}
 
-		return super.put(key, value);
+		return put(key, value);
 	}
 }
\ No newline at end of file
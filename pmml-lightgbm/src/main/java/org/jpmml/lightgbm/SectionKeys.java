@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// A fixed vocabulary of section keys, which are shared between all sections
+class SectionKeys {
+
+	private SectionKeys(){
+	}
+
+	static
+	String intern(ByteBuffer buffer, int start, int end){
+		String[] table = SectionKeys.TABLE;
+
+		int mask = (table.length - 1);
+
+		for(int i = hash(buffer, start, end) & mask; table[i] != null; i = (i + 1) & mask){
+			String key = table[i];
+
+			if(matches(key, buffer, start, end)){
+				return key;
+			}
+		}
+
+		return AsciiUtil.toString(buffer, start, end);
+	}
+
+	static
+	private int hash(ByteBuffer buffer, int start, int end){
+		int result = 0;
+
+		for(int i = start; i < end; i++){
+			result = 31 * result + buffer.get(i);
+		}
+
+		return result ^ (result >>> 16);
+	}
+
+	static
+	private boolean matches(String key, ByteBuffer buffer, int start, int end){
+
+		if(key.length() != (end - start)){
+			return false;
+		}
+
+		for(int i = start; i < end; i++){
+
+			if(key.charAt(i - start) != buffer.get(i)){
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	static
+	private String[] createTable(String... keys){
+		String[] result = new String[Integer.highestOneBit(keys.length) * 4];
+
+		int mask = (result.length - 1);
+
+		for(String key : keys){
+			byte[] bytes = key.getBytes(StandardCharsets.US_ASCII);
+
+			int i = hash(ByteBuffer.wrap(bytes), 0, bytes.length) & mask;
+
+			while(result[i] != null){
+				i = (i + 1) & mask;
+			}
+
+			result[i] = key;
+		}
+
+		return result;
+	}
+
+	private static final String[] TABLE = createTable(
+		// Header section
+		"tree", "version", "num_class", "num_tree_per_iteration", "label_index", "max_feature_idx", "objective", "average_output", "feature_names", "feature_infos", "monotone_constraints", "tree_sizes",
+		// Tree sections
+		"Tree", "num_leaves", "num_cat", "split_feature", "split_gain", "threshold", "decision_type", "left_child", "right_child", "leaf_value", "leaf_weight", "leaf_count", "internal_value", "internal_weight", "internal_count", "cat_boundaries", "cat_threshold", "is_linear", "leaf_const", "num_features", "leaf_features", "leaf_coeff", "shrinkage",
+		// Footer sections
+		"end of trees", "feature importances:", "feature_importances:", "parameters:", "end of parameters", "linear_tree"
+	);
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+class SnapshotReader {
+
+	private ByteBuffer buffer = null;
+
+	private int base = 0;
+
+
+	SnapshotReader(ByteBuffer buffer){
+		this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.base = buffer.position();
+	}
+
+	int readInt(){
+		return this.buffer.getInt();
+	}
+
+	String readString(){
+		int length = readLength();
+
+		if(length < 0){
+			return null;
+		}
+
+		ByteBuffer buffer = this.buffer;
+
+		byte[] bytes = new byte[length];
+
+		buffer.get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	String[] readStringArray(){
+		int length = readLength();
+
+		if(length < 0){
+			return null;
+		}
+
+		String[] result = new String[length];
+
+		for(int i = 0; i < result.length; i++){
+			result[i] = readString();
+		}
+
+		return result;
+	}
+
+	int[] readIntArray(){
+		int length = readLength();
+
+		if(length < 0){
+			return null;
+		}
+
+		ByteBuffer buffer = this.buffer;
+
+		int[] result = new int[length];
+
+		(buffer.asIntBuffer()).get(result);
+
+		buffer.position(buffer.position() + 4 * length);
+
+		return result;
+	}
+
+	long[] readLongArray(){
+		int length = readLength();
+
+		if(length < 0){
+			return null;
+		}
+
+		align(8);
+
+		ByteBuffer buffer = this.buffer;
+
+		long[] result = new long[length];
+
+		(buffer.asLongBuffer()).get(result);
+
+		buffer.position(buffer.position() + 8 * length);
+
+		return result;
+	}
+
+	double[] readDoubleArray(){
+		int length = readLength();
+
+		if(length < 0){
+			return null;
+		}
+
+		align(8);
+
+		ByteBuffer buffer = this.buffer;
+
+		double[] result = new double[length];
+
+		(buffer.asDoubleBuffer()).get(result);
+
+		buffer.position(buffer.position() + 8 * length);
+
+		return result;
+	}
+
+	int[][] readIntArrayList(){
+		int length = readLength();
+
+		if(length < 0){
+			return null;
+		}
+
+		int[][] result = new int[length][];
+
+		for(int i = 0; i < result.length; i++){
+			result[i] = readIntArray();
+		}
+
+		return result;
+	}
+
+	double[][] readDoubleArrayList(){
+		int length = readLength();
+
+		if(length < 0){
+			return null;
+		}
+
+		double[][] result = new double[length][];
+
+		for(int i = 0; i < result.length; i++){
+			result[i] = readDoubleArray();
+		}
+
+		return result;
+	}
+
+	private int readLength(){
+		int length = readInt();
+
+		// Guards against allocating huge arrays for truncated or corrupted input
+		if(length > this.buffer.remaining()){
+			throw new BufferUnderflowException();
+		}
+
+		return length;
+	}
+
+	private void align(int size){
+		ByteBuffer buffer = this.buffer;
+
+		int padding = (buffer.position() - this.base) % size;
+		if(padding != 0){
+			buffer.position(buffer.position() + (size - padding));
+		}
+	}
+}
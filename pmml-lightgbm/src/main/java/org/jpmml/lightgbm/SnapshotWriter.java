@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+class SnapshotWriter {
+
+	private OutputStream os = null;
+
+	private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+	private long flushed = 0L;
+
+
+	SnapshotWriter(OutputStream os){
+		this.os = os;
+	}
+
+	void writeInt(int value) throws IOException {
+		ensureRemaining(4);
+
+		this.buffer.putInt(value);
+	}
+
+	void writeLong(long value) throws IOException {
+		ensureRemaining(8);
+
+		this.buffer.putLong(value);
+	}
+
+	void writeDouble(double value) throws IOException {
+		ensureRemaining(8);
+
+		this.buffer.putDouble(value);
+	}
+
+	void writeString(String value) throws IOException {
+
+		if(value == null){
+			writeInt(-1);
+
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		writeInt(bytes.length);
+		writeBytes(bytes);
+	}
+
+	void writeBytes(byte[] bytes) throws IOException {
+
+		for(int i = 0; i < bytes.length; ){
+			ensureRemaining(1);
+
+			int length = Math.min(bytes.length - i, this.buffer.remaining());
+
+			this.buffer.put(bytes, i, length);
+
+			i += length;
+		}
+	}
+
+	void writeStringArray(String[] values) throws IOException {
+
+		if(values == null){
+			writeInt(-1);
+
+			return;
+		}
+
+		writeInt(values.length);
+
+		for(String value : values){
+			writeString(value);
+		}
+	}
+
+	void writeIntArray(int[] values) throws IOException {
+
+		if(values == null){
+			writeInt(-1);
+
+			return;
+		}
+
+		writeInt(values.length);
+
+		for(int value : values){
+			writeInt(value);
+		}
+	}
+
+	void writeLongArray(long[] values) throws IOException {
+
+		if(values == null){
+			writeInt(-1);
+
+			return;
+		}
+
+		writeInt(values.length);
+		align(8);
+
+		for(long value : values){
+			ensureRemaining(8);
+
+			this.buffer.putLong(value);
+		}
+	}
+
+	void writeDoubleArray(double[] values) throws IOException {
+
+		if(values == null){
+			writeInt(-1);
+
+			return;
+		}
+
+		writeInt(values.length);
+		align(8);
+
+		for(double value : values){
+			ensureRemaining(8);
+
+			this.buffer.putDouble(value);
+		}
+	}
+
+	void writeIntArrayList(int[][] values) throws IOException {
+
+		if(values == null){
+			writeInt(-1);
+
+			return;
+		}
+
+		writeInt(values.length);
+
+		for(int[] value : values){
+			writeIntArray(value);
+		}
+	}
+
+	void writeDoubleArrayList(double[][] values) throws IOException {
+
+		if(values == null){
+			writeInt(-1);
+
+			return;
+		}
+
+		writeInt(values.length);
+
+		for(double[] value : values){
+			writeDoubleArray(value);
+		}
+	}
+
+	void flush() throws IOException {
+		drain();
+
+		this.os.flush();
+	}
+
+	long position(){
+		return this.flushed + this.buffer.position();
+	}
+
+	// Pads the output up to the given position
+	void pad(long position) throws IOException {
+
+		if(position < position()){
+			throw new IllegalArgumentException();
+		}
+
+		while(position() < position){
+			ensureRemaining(1);
+
+			this.buffer.put((byte)0);
+		}
+	}
+
+	// Pads the output, so that the next block starts at a multiple of the given size
+	void align(int size) throws IOException {
+		long position = position();
+
+		while((position % size) != 0){
+			ensureRemaining(1);
+
+			this.buffer.put((byte)0);
+
+			position++;
+		}
+	}
+
+	private void ensureRemaining(int size) throws IOException {
+
+		if(this.buffer.remaining() < size){
+			drain();
+		}
+	}
+
+	private void drain() throws IOException {
+		ByteBuffer buffer = this.buffer;
+
+		this.os.write(buffer.array(), 0, buffer.position());
+
+		this.flushed += buffer.position();
+
+		buffer.clear();
+	}
+}
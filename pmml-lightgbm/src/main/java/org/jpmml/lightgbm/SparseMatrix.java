@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+// A block of rows in compressed sparse row (CSR) format.
+// The non-zero values of row i are stored at positions [indptr[i], indptr[i + 1]) of the indices and values arrays
+public class SparseMatrix {
+
+	private int[] indptr = null;
+
+	private int[] indices = null;
+
+	private double[] values = null;
+
+	private double[] labels = null;
+
+
+	public SparseMatrix(int[] indptr, int[] indices, double[] values){
+		this(indptr, indices, values, null);
+	}
+
+	public SparseMatrix(int[] indptr, int[] indices, double[] values, double[] labels){
+
+		if(indptr.length < 1){
+			throw new IllegalArgumentException();
+		} // End if
+
+		if(indices.length != values.length || indices.length < indptr[indptr.length - 1]){
+			throw new IllegalArgumentException("Expected " + indptr[indptr.length - 1] + " non-zero values, got " + indices.length + " indices and " + values.length + " values");
+		} // End if
+
+		if(labels != null && labels.length != (indptr.length - 1)){
+			throw new IllegalArgumentException("Expected " + (indptr.length - 1) + " labels, got " + labels.length);
+		}
+
+		this.indptr = indptr;
+		this.indices = indices;
+		this.values = values;
+		this.labels = labels;
+	}
+
+	public int getNumRows(){
+		return (this.indptr.length - 1);
+	}
+
+	public int getNumNonZeros(){
+		return (this.indptr[this.indptr.length - 1] - this.indptr[0]);
+	}
+
+	public int[] getIndptr(){
+		return this.indptr;
+	}
+
+	public int[] getIndices(){
+		return this.indices;
+	}
+
+	public double[] getValues(){
+		return this.values;
+	}
+
+	public double[] getLabels(){
+		return this.labels;
+	}
+}
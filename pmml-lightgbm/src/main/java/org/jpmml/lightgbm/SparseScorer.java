@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.List;
+
+// Scores blocks of rows from sparse data.
+// Rows are scattered into a dense scratch block, which is owned by the scorer and reused between calls, so that the cost of a call depends on the number of non-zero values, not on the number of features.
+// A scorer is not thread-safe. Concurrent callers should use a scorer each
+public class SparseScorer {
+
+	private GBDT gbdt = null;
+
+	private int numFeatures = 0;
+
+	private int blockSize = 0;
+
+	// The values of feature i start at index (i * blockSize). All values are zero between calls
+	private double[] scratch = null;
+
+
+	public SparseScorer(GBDT gbdt){
+		this.gbdt = gbdt;
+		this.numFeatures = (gbdt.getFeatureNames()).length;
+	}
+
+	// The result is row-major
+	public double[] predict(SparseMatrix matrix){
+		return predict(matrix, null);
+	}
+
+	public double[] predict(SparseMatrix matrix, Integer numIteration){
+		GBDT gbdt = this.gbdt;
+
+		ObjectiveFunction object_function_ = gbdt.getObjectiveFunction();
+		if(object_function_ == null){
+			throw new IllegalStateException();
+		}
+
+		double[] result = predictRaw(matrix, numIteration);
+
+		gbdt.convertOutput(object_function_, result);
+
+		return result;
+	}
+
+	public double[] predictRaw(SparseMatrix matrix){
+		return predictRaw(matrix, null);
+	}
+
+	public double[] predictRaw(SparseMatrix matrix, Integer numIteration){
+		GBDT gbdt = this.gbdt;
+
+		int[] indptr = matrix.getIndptr();
+		int[] indices = matrix.getIndices();
+		double[] values = matrix.getValues();
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		int numRows = matrix.getNumRows();
+
+		double[] result = new double[numRows * numTreePerIteration];
+
+		List<Tree> trees = gbdt.getTrees();
+
+		int blockSize = ensureBlockSize(numRows);
+
+		double[] scratch = this.scratch;
+
+		for(int begin = 0; begin < numRows; begin += blockSize){
+			int end = Math.min(begin + blockSize, numRows);
+
+			// The scratch block is cleared even if the scatter fails halfway, because the values that precede the failure are cleared by the same traversal
+			try {
+				scatter(indptr, indices, values, begin, end, false);
+
+				for(int i = 0; i < numTrees; i++){
+					Tree tree = trees.get(i);
+
+					tree.predict(scratch, blockSize, 0, end - begin, result, numTreePerIteration, begin * numTreePerIteration + (i % numTreePerIteration));
+				}
+			} finally {
+				scatter(indptr, indices, values, begin, end, true);
+			}
+		}
+
+		gbdt.averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	// The scratch block is sized for the largest matrix so far, up to the block size limit.
+	// The number of rows per block is limited by the size of the scratch block
+	private int ensureBlockSize(int numRows){
+		int blockSize = Math.max(1, Math.min(Math.min(SparseScorer.MAX_BLOCK_SIZE, SparseScorer.MAX_SCRATCH_SIZE / Math.max(1, this.numFeatures)), numRows));
+
+		if(blockSize > this.blockSize){
+			this.blockSize = blockSize;
+			this.scratch = new double[this.numFeatures * blockSize];
+		}
+
+		return this.blockSize;
+	}
+
+	// Absent features are zero-valued, the same as in LightGBM
+	private void scatter(int[] indptr, int[] indices, double[] values, int begin, int end, boolean clear){
+		int numFeatures = this.numFeatures;
+		int blockSize = this.blockSize;
+
+		double[] scratch = this.scratch;
+
+		for(int i = begin; i < end; i++){
+
+			for(int j = indptr[i]; j < indptr[i + 1]; j++){
+				int index = indices[j];
+
+				if(index < 0){
+					throw new IllegalArgumentException("Invalid feature index " + index);
+				} // End if
+
+				// Features that the model does not use are ignored
+				if(index < numFeatures){
+					scratch[index * blockSize + (i - begin)] = (clear ? 0d : values[j]);
+				}
+			}
+		}
+	}
+
+	private static final int MAX_BLOCK_SIZE = 32;
+	private static final int MAX_SCRATCH_SIZE = (1 << 21);
+}
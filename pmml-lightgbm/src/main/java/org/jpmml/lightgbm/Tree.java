@@ -18,6 +18,7 @@
  */
 package org.jpmml.lightgbm;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -130,10 +131,132 @@ public class Tree {
 		}
 	}
 
+	void load(SnapshotReader reader){
+		this.num_leaves_ = reader.readInt();
+		this.num_cat_ = reader.readInt();
+		this.left_child_ = reader.readIntArray();
+		this.right_child_ = reader.readIntArray();
+		this.split_feature_real_ = reader.readIntArray();
+		this.threshold_ = reader.readDoubleArray();
+		this.decision_type_ = reader.readIntArray();
+		this.leaf_value_ = reader.readDoubleArray();
+		this.leaf_count_ = reader.readIntArray();
+		this.internal_value_ = reader.readDoubleArray();
+		this.internal_count_ = reader.readIntArray();
+		this.cat_boundaries_ = reader.readIntArray();
+		this.cat_threshold_ = reader.readLongArray();
+		this.is_linear = reader.readInt();
+		this.leaf_const = reader.readDoubleArray();
+		this.num_features = reader.readIntArray();
+		this.leaf_features = reader.readIntArrayList();
+		this.leaf_coeff = reader.readDoubleArrayList();
+	}
+
+	void write(SnapshotWriter writer) throws IOException {
+		writer.writeInt(this.num_leaves_);
+		writer.writeInt(this.num_cat_);
+		writer.writeIntArray(this.left_child_);
+		writer.writeIntArray(this.right_child_);
+		writer.writeIntArray(this.split_feature_real_);
+		writer.writeDoubleArray(this.threshold_);
+		writer.writeIntArray(this.decision_type_);
+		writer.writeDoubleArray(this.leaf_value_);
+		writer.writeIntArray(this.leaf_count_);
+		writer.writeDoubleArray(this.internal_value_);
+		writer.writeIntArray(this.internal_count_);
+		writer.writeIntArray(this.cat_boundaries_);
+		writer.writeLongArray(this.cat_threshold_);
+		writer.writeInt(this.is_linear);
+		writer.writeDoubleArray(this.leaf_const);
+		writer.writeIntArray(this.num_features);
+		writer.writeIntArrayList(this.leaf_features);
+		writer.writeDoubleArrayList(this.leaf_coeff);
+	}
+
+	void load(PackedEnsemble ensemble, int index){
+		this.num_leaves_ = ensemble.getNumLeaves(index);
+		this.num_cat_ = ensemble.getNumCat(index);
+
+		if(this.num_leaves_ > 1){
+			this.left_child_ = ensemble.getLeftChild(index);
+			this.right_child_ = ensemble.getRightChild(index);
+			this.split_feature_real_ = ensemble.getSplitFeature(index);
+			this.threshold_ = ensemble.getThreshold(index);
+			this.decision_type_ = ensemble.getDecisionType(index);
+			this.internal_value_ = ensemble.getInternalValue(index);
+			this.internal_count_ = ensemble.getInternalCount(index);
+		}
+
+		this.leaf_value_ = ensemble.getLeafValue(index);
+		this.leaf_count_ = ensemble.getLeafCount(index);
+
+		if(this.num_cat_ > 0){
+			this.cat_boundaries_ = ensemble.getCatBoundaries(index);
+			this.cat_threshold_ = ensemble.getCatThreshold(index);
+		} // End if
+
+		if(ensemble.isLinear(index)){
+			this.is_linear = 1;
+
+			this.leaf_const = ensemble.getLeafConst(index);
+			this.num_features = ensemble.getNumFeatures(index);
+			this.leaf_features = ensemble.getLeafFeatures(index);
+			this.leaf_coeff = ensemble.getLeafCoeff(index);
+		}
+	}
+
+	// Loads only the attributes that are needed for feature type inference
+	void loadSplits(Section section){
+		this.num_leaves_ = section.getInt("num_leaves");
+		this.num_cat_ = section.getInt("num_cat");
+
+		if(this.num_leaves_ > 1){
+			this.split_feature_real_ = section.getIntArray("split_feature", this.num_leaves_ - 1);
+			this.threshold_ = section.getDoubleArray("threshold", this.num_leaves_ - 1);
+			this.decision_type_ = section.getIntArray("decision_type", this.num_leaves_ - 1);
+		}
+	}
+
 	public boolean isEmpty(){
 		return (this.num_leaves_ == 1);
 	}
 
+	public double predict(double[] row){
+		int leaf = getLeaf(row);
+
+		if(this.is_linear == 1){
+			return predictLinear(leaf, row);
+		}
+
+		return this.leaf_value_[leaf];
+	}
+
+	public int getLeaf(double[] row){
+
+		if(isEmpty()){
+			return 0;
+		}
+
+		int[] split_feature_real_ = this.split_feature_real_;
+
+		int node = 0;
+
+		if(this.num_cat_ > 0){
+
+			while(node >= 0){
+				node = decision(row[split_feature_real_[node]], node);
+			}
+		} else
+
+		{
+			while(node >= 0){
+				node = numericalDecision(row[split_feature_real_[node]], node);
+			}
+		}
+
+		return ~node;
+	}
+
 	public TreeModel encodeTreeModel(PredicateManager predicateManager, Schema schema){
 		Node root = encodeNode(0, True.INSTANCE, new CategoryManager(), predicateManager, schema);
 
@@ -304,7 +427,7 @@ public class Tree {
 			Node result = new CountingBranchNode(this.leaf_value_[index], predicate)
 				.setId(id)
 				.setDefaultChild(defaultLeft ? leftChild.getId() : rightChild.getId())
-				.setRecordCount(ValueUtil.narrow(this.internal_count_[index]))
+				.setRecordCount(this.internal_count_ != null ? ValueUtil.narrow(this.internal_count_[index]) : null)
 				.addNodes(leftChild, rightChild);
 
 			return encodeRegression(index, result, schema);
@@ -318,7 +441,7 @@ public class Tree {
 
 			Node result = new CountingLeafNode(this.leaf_value_[index], predicate)
 				.setId(id)
-				.setRecordCount(ValueUtil.narrow(this.leaf_count_[index]));
+				.setRecordCount(this.leaf_count_ != null ? ValueUtil.narrow(this.leaf_count_[index]) : null);
 
 			return encodeRegression(index, result, schema);
 		}
@@ -452,13 +575,306 @@ public class Tree {
  		return result;
  	}
 
+	// Accumulates the predictions for a block of rows into every numOutputs-th element of scores, starting from the output index
+	void predict(double[][] columns, int offset, int length, double[] scores, int numOutputs, int output){
+		double[] leaf_value_ = this.leaf_value_;
+
+		if(isEmpty() && this.is_linear != 1){
+
+			for(int i = 0, j = output; i < length; i++, j += numOutputs){
+				scores[j] += leaf_value_[0];
+			}
+
+			return;
+		}
+
+		int[] split_feature_real_ = this.split_feature_real_;
+
+		boolean categorical = (this.num_cat_ > 0);
+
+		for(int i = 0, j = output; i < length; i++, j += numOutputs){
+			int row = offset + i;
+
+			int node = (isEmpty() ? -1 : 0);
+
+			if(categorical){
+
+				while(node >= 0){
+					node = decision(columns[split_feature_real_[node]][row], node);
+				}
+			} else
+
+			{
+				while(node >= 0){
+					node = numericalDecision(columns[split_feature_real_[node]][row], node);
+				}
+			}
+
+			int leaf = ~node;
+
+			if(this.is_linear == 1){
+				scores[j] += predictLinear(leaf, columns, row);
+			} else
+
+			{
+				scores[j] += leaf_value_[leaf];
+			}
+		}
+	}
+
+	// Same as above, but reads the values of feature i from flat data, starting at index (i * stride)
+	void predict(double[] data, int stride, int offset, int length, double[] scores, int numOutputs, int output){
+		double[] leaf_value_ = this.leaf_value_;
+
+		if(isEmpty() && this.is_linear != 1){
+
+			for(int i = 0, j = output; i < length; i++, j += numOutputs){
+				scores[j] += leaf_value_[0];
+			}
+
+			return;
+		}
+
+		int[] split_feature_real_ = this.split_feature_real_;
+
+		boolean categorical = (this.num_cat_ > 0);
+
+		for(int i = 0, j = output; i < length; i++, j += numOutputs){
+			int row = offset + i;
+
+			int node = (isEmpty() ? -1 : 0);
+
+			if(categorical){
+
+				while(node >= 0){
+					node = decision(data[split_feature_real_[node] * stride + row], node);
+				}
+			} else
+
+			{
+				while(node >= 0){
+					node = numericalDecision(data[split_feature_real_[node] * stride + row], node);
+				}
+			}
+
+			int leaf = ~node;
+
+			if(this.is_linear == 1){
+				scores[j] += predictLinear(leaf, data, stride, row);
+			} else
+
+			{
+				scores[j] += leaf_value_[leaf];
+			}
+		}
+	}
+
+	// Stores the leaf indices for a block of rows into every stride-th element of leaves, starting from the position.
+	// The base is added to every leaf index
+	void getLeaf(double[][] columns, int offset, int length, int[] leaves, int stride, int position, int base){
+
+		if(isEmpty()){
+
+			for(int i = 0, j = position; i < length; i++, j += stride){
+				leaves[j] = base;
+			}
+
+			return;
+		}
+
+		int[] split_feature_real_ = this.split_feature_real_;
+
+		boolean categorical = (this.num_cat_ > 0);
+
+		for(int i = 0, j = position; i < length; i++, j += stride){
+			int row = offset + i;
+
+			int node = 0;
+
+			if(categorical){
+
+				while(node >= 0){
+					node = decision(columns[split_feature_real_[node]][row], node);
+				}
+			} else
+
+			{
+				while(node >= 0){
+					node = numericalDecision(columns[split_feature_real_[node]][row], node);
+				}
+			}
+
+			leaves[j] = base + ~node;
+		}
+	}
+
+	double predictLinear(int leaf, double[] row){
+		int[] leaf_features = this.leaf_features[leaf];
+		double[] leaf_coeff = this.leaf_coeff[leaf];
+
+		double result = this.leaf_const[leaf];
+
+		for(int i = 0; i < leaf_features.length; i++){
+			double value = row[leaf_features[i]];
+
+			if(isLinearMissing(value)){
+				return this.leaf_value_[leaf];
+			}
+
+			result += leaf_coeff[i] * value;
+		}
+
+		return result;
+	}
+
+	double predictLinear(int leaf, double[][] columns, int row){
+		int[] leaf_features = this.leaf_features[leaf];
+		double[] leaf_coeff = this.leaf_coeff[leaf];
+
+		double result = this.leaf_const[leaf];
+
+		for(int i = 0; i < leaf_features.length; i++){
+			double value = columns[leaf_features[i]][row];
+
+			if(isLinearMissing(value)){
+				return this.leaf_value_[leaf];
+			}
+
+			result += leaf_coeff[i] * value;
+		}
+
+		return result;
+	}
+
+	double predictLinear(int leaf, double[] data, int stride, int row){
+		int[] leaf_features = this.leaf_features[leaf];
+		double[] leaf_coeff = this.leaf_coeff[leaf];
+
+		double result = this.leaf_const[leaf];
+
+		for(int i = 0; i < leaf_features.length; i++){
+			double value = data[leaf_features[i] * stride + row];
+
+			if(isLinearMissing(value)){
+				return this.leaf_value_[leaf];
+			}
+
+			result += leaf_coeff[i] * value;
+		}
+
+		return result;
+	}
+
+	int decision(double value, int node){
+
+		if(hasCategoricalMask(this.decision_type_[node])){
+			return categoricalDecision(value, node);
+		}
+
+		return numericalDecision(value, node);
+	}
+
+	int numericalDecision(double value, int node){
+
+		if(numericalDecision(value, this.threshold_[node], this.decision_type_[node])){
+			return this.left_child_[node];
+		}
+
+		return this.right_child_[node];
+	}
+
+	int categoricalDecision(double value, int node){
+
+		if(!isCategory(value)){
+			return this.right_child_[node];
+		}
+
+		int cat_idx = (int)this.threshold_[node];
+
+		int[] cat_boundaries_ = this.cat_boundaries_;
+
+		if(findInBitset(this.cat_threshold_, cat_boundaries_[cat_idx], cat_boundaries_[cat_idx + 1] - cat_boundaries_[cat_idx], (int)value)){
+			return this.left_child_[node];
+		}
+
+		return this.right_child_[node];
+	}
+
+	int getNumLeaves(){
+		return this.num_leaves_;
+	}
+
+	int getNumCat(){
+		return this.num_cat_;
+	}
+
+	int[] getLeftChild(){
+		return this.left_child_;
+	}
+
+	int[] getRightChild(){
+		return this.right_child_;
+	}
+
+	int[] getSplitFeature(){
+		return this.split_feature_real_;
+	}
+
+	double[] getThreshold(){
+		return this.threshold_;
+	}
+
+	int[] getDecisionType(){
+		return this.decision_type_;
+	}
+
+	double[] getLeafValue(){
+		return this.leaf_value_;
+	}
+
+	int[] getLeafCount(){
+		return this.leaf_count_;
+	}
+
+	double[] getInternalValue(){
+		return this.internal_value_;
+	}
+
+	int[] getInternalCount(){
+		return this.internal_count_;
+	}
+
+	int[] getCatBoundaries(){
+		return this.cat_boundaries_;
+	}
+
+	long[] getCatThreshold(){
+		return this.cat_threshold_;
+	}
+
+	boolean isLinear(){
+		return (this.is_linear == 1);
+	}
+
+	double[] getLeafConst(){
+		return this.leaf_const;
+	}
+
+	int[][] getLeafFeatures(){
+		return this.leaf_features;
+	}
+
+	double[][] getLeafCoeff(){
+		return this.leaf_coeff;
+	}
+
 	static
-	private boolean hasCategoricalMask(int decision_type){
+	boolean hasCategoricalMask(int decision_type){
 		return getDecisionType(decision_type, Tree.MASK_CATEGORICAL) == Tree.MASK_CATEGORICAL;
 	}
 
 	static
-	private boolean hasDefaultLeftMask(int decision_type){
+	boolean hasDefaultLeftMask(int decision_type){
 		return getDecisionType(decision_type, Tree.MASK_DEFAULT_LEFT) == Tree.MASK_DEFAULT_LEFT;
 	}
 
@@ -472,6 +888,39 @@ public class Tree {
 		return getDecisionType((decision_type >> 2), 3);
 	}
 
+	static
+	boolean isZero(double value){
+		return (value >= -Tree.THRESHOLD_ZERO) && (value <= Tree.THRESHOLD_ZERO);
+	}
+
+	// Returns true if the value goes to the left child
+	static
+	boolean numericalDecision(double value, double threshold, int decision_type){
+		int missing_type = getMissingType(decision_type);
+
+		if(Double.isNaN(value) && missing_type != Tree.MISSING_TYPE_NAN){
+			value = 0d;
+		} // End if
+
+		if((missing_type == Tree.MISSING_TYPE_ZERO && isZero(value)) || (missing_type == Tree.MISSING_TYPE_NAN && Double.isNaN(value))){
+			return hasDefaultLeftMask(decision_type);
+		}
+
+		return (value <= threshold);
+	}
+
+	// Missing and negative values never match a category
+	static
+	boolean isCategory(double value){
+		return !Double.isNaN(value) && (int)value >= 0;
+	}
+
+	// A missing value anywhere disables the linear model
+	static
+	boolean isLinearMissing(double value){
+		return Double.isNaN(value);
+	}
+
 	static
 	private boolean findInBitset(long[] bits, int bitOffset, int n, int pos){
 		int i1 = pos / 32;
@@ -484,8 +933,12 @@ public class Tree {
 		return ((bits[bitOffset + i1] >> i2) & 1) == 1;
 	}
 
-	private static final int MASK_CATEGORICAL = 1;
-	private static final int MASK_DEFAULT_LEFT = 2;
+	static final int MASK_CATEGORICAL = 1;
+	static final int MASK_DEFAULT_LEFT = 2;
+
+	static final int MISSING_TYPE_NONE = 0;
+	static final int MISSING_TYPE_ZERO = 1;
+	static final int MISSING_TYPE_NAN = 2;
 
-	private static final double THRESHOLD_ZERO = 1.0000000180025095E-35;
+	static final double THRESHOLD_ZERO = 1.0000000180025095E-35;
 }
\ No newline at end of file
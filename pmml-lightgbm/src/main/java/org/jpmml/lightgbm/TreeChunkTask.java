@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+// Sums the raw scores of a range of trees.
+// The range is always split at the same points, so that partial scores are added up in the same order regardless of the number of worker threads
+class TreeChunkTask extends RecursiveTask<double[]> {
+
+	private List<Tree> trees = null;
+
+	private double[] row = null;
+
+	private int numTreePerIteration = 0;
+
+	private int begin = 0;
+
+	private int end = 0;
+
+	private int chunkSize = 0;
+
+
+	TreeChunkTask(List<Tree> trees, double[] row, int numTreePerIteration, int begin, int end, int chunkSize){
+		this.trees = trees;
+		this.row = row;
+		this.numTreePerIteration = numTreePerIteration;
+		this.begin = begin;
+		this.end = end;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	protected double[] compute(){
+		int begin = this.begin;
+		int end = this.end;
+
+		if((end - begin) > this.chunkSize){
+			int middle = (begin + end) >>> 1;
+
+			TreeChunkTask left = new TreeChunkTask(this.trees, this.row, this.numTreePerIteration, begin, middle, this.chunkSize);
+			TreeChunkTask right = new TreeChunkTask(this.trees, this.row, this.numTreePerIteration, middle, end, this.chunkSize);
+
+			left.fork();
+
+			double[] result = right.compute();
+			double[] leftResult = left.join();
+
+			for(int i = 0; i < result.length; i++){
+				result[i] = leftResult[i] + result[i];
+			}
+
+			return result;
+		}
+
+		List<Tree> trees = this.trees;
+
+		double[] result = new double[this.numTreePerIteration];
+
+		for(int i = begin; i < end; i++){
+			Tree tree = trees.get(i);
+
+			result[i % this.numTreePerIteration] += tree.predict(this.row);
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,915 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Translates trees to JVM class files. Every tree becomes a block of nested if/else statements on constant thresholds.
+// Blocks are packed into static methods that stay below the JIT size limit (8000 bytes of bytecode), and trees that are too large to be inlined are split over methods of their own
+class TreeCompiler {
+
+	private String className = null;
+
+	private List<Tree> trees = null;
+
+	private int begin = 0;
+
+	private int numTreePerIteration = 1;
+
+	private ConstantPool constantPool = new ConstantPool();
+
+	private List<byte[]> methods = new ArrayList<>();
+
+
+	TreeCompiler(String className, List<Tree> trees, int begin, int numTreePerIteration){
+		this.className = className;
+		this.trees = trees;
+		this.begin = begin;
+		this.numTreePerIteration = numTreePerIteration;
+	}
+
+	// Compiles the given range of trees into a class that implements CompiledGBDT.Scorer
+	byte[] compile(int end){
+		ConstantPool constantPool = this.constantPool;
+
+		List<String> chunkMethods = new ArrayList<>();
+
+		for(int chunkBegin = this.begin; chunkBegin < end; ){
+			Code code = new Code(constantPool);
+
+			int size = 0;
+
+			int i = chunkBegin;
+
+			// Small trees are inlined into chunk methods, which are kept below the JIT size limit
+			for(; i < end; i++){
+				Tree tree = this.trees.get(i);
+
+				int treeSize = estimateSize(tree);
+
+				boolean inline = (treeSize <= TreeCompiler.MAX_METHOD_SIZE);
+				if(!inline){
+					treeSize = 4;
+				} // End if
+
+				if(i > chunkBegin && size + treeSize > TreeCompiler.MAX_CHUNK_SIZE){
+					break;
+				} // End if
+
+				if(inline){
+					Label exit = new Label();
+
+					compileTree(tree, null, 0, exit, code, null);
+
+					code.mark(exit);
+				} else
+
+				{
+					code.aload(0);
+					code.invokestatic(this.className, compileTree(i), "([D)D");
+				}
+
+				size += (treeSize + 12);
+
+				// scores[output] += value
+				code.op(Code.DSTORE_2);
+				code.aload(1);
+				code.iconst(i % this.numTreePerIteration);
+				code.op(Code.DUP2);
+				code.op(Code.DALOAD);
+				code.op(Code.DLOAD_2);
+				code.op(Code.DADD);
+				code.op(Code.DASTORE);
+			}
+
+			code.op(Code.RETURN);
+
+			String methodName = "c" + chunkMethods.size();
+
+			addMethod(TreeCompiler.ACC_PRIVATE | TreeCompiler.ACC_STATIC, methodName, "([D[D)V", code, 6, 4);
+
+			chunkMethods.add(methodName);
+
+			chunkBegin = i;
+		}
+
+		Code initCode = new Code(constantPool);
+		initCode.aload(0);
+		initCode.invokespecial("java/lang/Object", "<init>", "()V");
+		initCode.op(Code.RETURN);
+
+		addMethod(TreeCompiler.ACC_PUBLIC, "<init>", "()V", initCode, 1, 1);
+
+		Code predictCode = new Code(constantPool);
+
+		for(String chunkMethod : chunkMethods){
+			predictCode.aload(1);
+			predictCode.aload(2);
+			predictCode.invokestatic(this.className, chunkMethod, "([D[D)V");
+		}
+
+		predictCode.op(Code.RETURN);
+
+		addMethod(TreeCompiler.ACC_PUBLIC, "predictRaw", "([D[D)V", predictCode, 2, 3);
+
+		return toClassFile();
+	}
+
+	// The number of trees that fit into the constant pool of a single class
+	int countTrees(){
+		int result = 0;
+
+		int size = 0;
+
+		for(int i = this.begin; i < this.trees.size(); i++){
+			Tree tree = this.trees.get(i);
+
+			size += estimateConstants(tree);
+
+			if(size > TreeCompiler.MAX_CONSTANTS && result > 0){
+				break;
+			}
+
+			result++;
+		}
+
+		return result;
+	}
+
+	// Compiles a large tree into a static method. Subtrees that are too large for one method are moved to methods of their own
+	private String compileTree(int index){
+		Tree tree = this.trees.get(index);
+
+		String methodName = "t" + index;
+
+		Deque<Integer> roots = new ArrayDeque<>();
+		roots.add(0);
+
+		while(!roots.isEmpty()){
+			int root = roots.removeFirst();
+
+			Code code = new Code(this.constantPool);
+
+			compileTree(tree, methodName, root, null, code, roots);
+
+			addMethod(TreeCompiler.ACC_PRIVATE | TreeCompiler.ACC_STATIC, subtreeMethodName(methodName, root), "([D)D", code, 6, 1);
+		}
+
+		return methodName;
+	}
+
+	// Leaves either return their value, or push it onto the operand stack and jump to the exit label
+	private void compileTree(Tree tree, String methodName, int root, Label exit, Code code, Deque<Integer> roots){
+
+		if(tree.isEmpty()){
+			compileLeaf(tree, 0, exit, code);
+		} else
+
+		{
+			compileNode(tree, methodName, root, root, exit, code, roots);
+		}
+	}
+
+	private void compileNode(Tree tree, String methodName, int root, int node, Label exit, Code code, Deque<Integer> roots){
+
+		if(node < 0){
+			compileLeaf(tree, ~node, exit, code);
+
+			return;
+		} // End if
+
+		if(roots != null && node != root && estimateSize(tree, node) > TreeCompiler.MAX_METHOD_SIZE){
+			roots.add(node);
+
+			code.aload(0);
+			code.invokestatic(this.className, subtreeMethodName(methodName, node), "([D)D");
+			code.op(Code.DRETURN);
+
+			return;
+		}
+
+		int feature = (tree.getSplitFeature())[node];
+		double threshold = (tree.getThreshold())[node];
+		int decisionType = (tree.getDecisionType())[node];
+
+		Label left = new Label();
+		Label right = new Label();
+
+		if(Tree.hasCategoricalMask(decisionType)){
+			TreeMap<Integer, Label> cases = new TreeMap<>();
+
+			int[] catBoundaries = tree.getCatBoundaries();
+			long[] catThreshold = tree.getCatThreshold();
+
+			int catIdx = (int)threshold;
+
+			for(int i = catBoundaries[catIdx]; i < catBoundaries[catIdx + 1]; i++){
+
+				for(int j = 0; j < 32; j++){
+
+					if(((catThreshold[i] >> j) & 1) == 1){
+						cases.put(((i - catBoundaries[catIdx]) * 32) + j, left);
+					}
+				}
+			}
+
+			// Neither missing nor negative values match a category
+			if(cases.isEmpty()){
+				compileNode(tree, methodName, root, (tree.getRightChild())[node], exit, code, roots);
+
+				return;
+			}
+
+			loadValue(feature, code);
+			loadValue(feature, code);
+			code.op(Code.DCMPL);
+			code.jump(Code.IFNE, right);
+
+			loadValue(feature, code);
+			code.op(Code.D2I);
+			code.lookupswitch(right, cases);
+		} else
+
+		{
+			Label defaultChild = (Tree.hasDefaultLeftMask(decisionType) ? left : right);
+
+			int missingType = Tree.getMissingType(decisionType);
+
+			switch(missingType){
+				case Tree.MISSING_TYPE_ZERO:
+					{
+						Label nonZero = new Label();
+
+						// Both zero and NaN values go to the default child
+						loadValue(feature, code);
+						code.dconst(-Tree.THRESHOLD_ZERO);
+						code.op(Code.DCMPG);
+						code.jump(Code.IFLT, nonZero);
+
+						loadValue(feature, code);
+						code.dconst(Tree.THRESHOLD_ZERO);
+						code.op(Code.DCMPL);
+						code.jump(Code.IFGT, nonZero);
+
+						code.jump(Code.GOTO, defaultChild);
+
+						code.mark(nonZero);
+
+						loadValue(feature, code);
+						code.dconst(threshold);
+						code.op(Code.DCMPG);
+						code.jump(Code.IFGT, right);
+					}
+					break;
+				case Tree.MISSING_TYPE_NAN:
+					{
+						loadValue(feature, code);
+						loadValue(feature, code);
+						code.op(Code.DCMPL);
+						code.jump(Code.IFNE, defaultChild);
+
+						loadValue(feature, code);
+						code.dconst(threshold);
+						code.op(Code.DCMPG);
+						code.jump(Code.IFGT, right);
+					}
+					break;
+				default:
+					{
+						// NaN is treated as zero. The NaN result of the comparison instruction selects the same branch as zero would
+						loadValue(feature, code);
+						code.dconst(threshold);
+						code.op(0d <= threshold ? Code.DCMPL : Code.DCMPG);
+						code.jump(Code.IFGT, right);
+					}
+					break;
+			}
+		}
+
+		code.mark(left);
+
+		compileNode(tree, methodName, root, (tree.getLeftChild())[node], exit, code, roots);
+
+		code.mark(right);
+
+		compileNode(tree, methodName, root, (tree.getRightChild())[node], exit, code, roots);
+	}
+
+	private void compileLeaf(Tree tree, int leaf, Label exit, Code code){
+		double leafValue = (tree.getLeafValue())[leaf];
+
+		if(tree.isLinear()){
+			int[] leafFeatures = (tree.getLeafFeatures())[leaf];
+			double[] leafCoeff = (tree.getLeafCoeff())[leaf];
+
+			if(leafFeatures.length > 0){
+				Label missing = new Label();
+
+				// See Tree#isLinearMissing(double)
+				for(int i = 0; i < leafFeatures.length; i++){
+					loadValue(leafFeatures[i], code);
+					loadValue(leafFeatures[i], code);
+					code.op(Code.DCMPL);
+					code.jump(Code.IFNE, missing);
+				}
+
+				code.dconst((tree.getLeafConst())[leaf]);
+
+				for(int i = 0; i < leafFeatures.length; i++){
+					code.dconst(leafCoeff[i]);
+					loadValue(leafFeatures[i], code);
+					code.op(Code.DMUL);
+					code.op(Code.DADD);
+				}
+
+				exit(exit, code);
+
+				code.mark(missing);
+			} else
+
+			{
+				leafValue = (tree.getLeafConst())[leaf];
+			}
+		}
+
+		code.dconst(leafValue);
+
+		exit(exit, code);
+	}
+
+	static
+	private void exit(Label exit, Code code){
+
+		if(exit != null){
+			code.jump(Code.GOTO, exit);
+
+			exit.stackDouble = true;
+		} else
+
+		{
+			code.op(Code.DRETURN);
+		}
+	}
+
+	private void addMethod(int access, String name, String descriptor, Code code, int maxStack, int maxLocals){
+		ConstantPool constantPool = this.constantPool;
+
+		try {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+			DataOutputStream os = new DataOutputStream(buffer);
+
+			byte[] stackMapTable = code.toStackMapTable();
+
+			os.writeShort(access);
+			os.writeShort(constantPool.utf8(name));
+			os.writeShort(constantPool.utf8(descriptor));
+			os.writeShort(1);
+
+			byte[] bytecode = code.toByteArray();
+
+			os.writeShort(constantPool.utf8("Code"));
+			os.writeInt(12 + bytecode.length + (stackMapTable != null ? (6 + stackMapTable.length) : 0));
+			os.writeShort(maxStack);
+			os.writeShort(maxLocals);
+			os.writeInt(bytecode.length);
+			os.write(bytecode);
+			os.writeShort(0);
+
+			if(stackMapTable != null){
+				os.writeShort(1);
+				os.writeShort(constantPool.utf8("StackMapTable"));
+				os.writeInt(stackMapTable.length);
+				os.write(stackMapTable);
+			} else
+
+			{
+				os.writeShort(0);
+			}
+
+			os.flush();
+
+			this.methods.add(buffer.toByteArray());
+		} catch(IOException ioe){
+			throw new UncheckedIOException(ioe);
+		}
+	}
+
+	private byte[] toClassFile(){
+		ConstantPool constantPool = this.constantPool;
+
+		int thisClass = constantPool.classRef(this.className);
+		int superClass = constantPool.classRef("java/lang/Object");
+		int scorerInterface = constantPool.classRef(TreeCompiler.SCORER_CLASS_NAME);
+
+		if(constantPool.size() > 0xFFFF){
+			throw new LightGBMException("Constant pool is too large");
+		}
+
+		try {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+			DataOutputStream os = new DataOutputStream(buffer);
+
+			os.writeInt(0xCAFEBABE);
+			os.writeShort(0);
+			// Java 8
+			os.writeShort(52);
+
+			constantPool.write(os);
+
+			os.writeShort(TreeCompiler.ACC_PUBLIC | TreeCompiler.ACC_FINAL | TreeCompiler.ACC_SUPER);
+			os.writeShort(thisClass);
+			os.writeShort(superClass);
+			os.writeShort(1);
+			os.writeShort(scorerInterface);
+			os.writeShort(0);
+
+			os.writeShort(this.methods.size());
+
+			for(byte[] method : this.methods){
+				os.write(method);
+			}
+
+			os.writeShort(0);
+
+			os.flush();
+
+			return buffer.toByteArray();
+		} catch(IOException ioe){
+			throw new UncheckedIOException(ioe);
+		}
+	}
+
+	static
+	private void loadValue(int feature, Code code){
+		code.aload(0);
+		code.iconst(feature);
+		code.op(Code.DALOAD);
+	}
+
+	static
+	private String subtreeMethodName(String methodName, int node){
+		return (node == 0 ? methodName : (methodName + "_" + node));
+	}
+
+	// An upper bound of the bytecode size of the tree
+	static
+	private int estimateSize(Tree tree){
+
+		if(tree.isEmpty()){
+			return estimateSize(tree, ~0);
+		}
+
+		return estimateSize(tree, 0);
+	}
+
+	// An upper bound of the bytecode size of the subtree
+	static
+	private int estimateSize(Tree tree, int node){
+
+		if(node < 0){
+			int leaf = ~node;
+
+			int result = 6;
+
+			if(tree.isLinear()){
+				result += 6 + (24 * ((tree.getLeafFeatures())[leaf]).length);
+			}
+
+			return result;
+		}
+
+		int result;
+
+		int decisionType = (tree.getDecisionType())[node];
+
+		if(Tree.hasCategoricalMask(decisionType)){
+			int catIdx = (int)(tree.getThreshold())[node];
+
+			int[] catBoundaries = tree.getCatBoundaries();
+
+			result = 32 + (8 * 32 * (catBoundaries[catIdx + 1] - catBoundaries[catIdx]));
+		} else
+
+		{
+			switch(Tree.getMissingType(decisionType)){
+				case Tree.MISSING_TYPE_ZERO:
+					result = 40;
+					break;
+				case Tree.MISSING_TYPE_NAN:
+					result = 26;
+					break;
+				default:
+					result = 12;
+					break;
+			}
+		}
+
+		result += estimateSize(tree, (tree.getLeftChild())[node]);
+		result += estimateSize(tree, (tree.getRightChild())[node]);
+
+		return result;
+	}
+
+	// An upper bound of the number of constant pool entries that the tree needs
+	static
+	private int estimateConstants(Tree tree){
+		int result = 4 * (2 * tree.getNumLeaves()) + 16;
+
+		if(tree.isLinear()){
+			double[][] leafCoeff = tree.getLeafCoeff();
+
+			for(double[] coeff : leafCoeff){
+				result += 2 * (1 + coeff.length);
+			}
+		}
+
+		return result;
+	}
+
+	static
+	private class ConstantPool {
+
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		private DataOutputStream os = new DataOutputStream(this.buffer);
+
+		private Map<Object, Integer> indices = new HashMap<>();
+
+		private int size = 1;
+
+
+		int size(){
+			return this.size;
+		}
+
+		int utf8(String value){
+			return add("utf8:" + value, 1, os -> {
+				os.writeByte(1);
+				os.writeUTF(value);
+			});
+		}
+
+		int integer(int value){
+			return add(value, 1, os -> {
+				os.writeByte(3);
+				os.writeInt(value);
+			});
+		}
+
+		int doubleValue(double value){
+			// Doubles are keyed by their bit pattern, so that -0.0 and 0.0 are kept apart
+			return add(Double.doubleToRawLongBits(value), 2, os -> {
+				os.writeByte(6);
+				os.writeDouble(value);
+			});
+		}
+
+		int classRef(String name){
+			int nameIndex = utf8(name);
+
+			return add("class:" + name, 1, os -> {
+				os.writeByte(7);
+				os.writeShort(nameIndex);
+			});
+		}
+
+		int methodRef(String owner, String name, String descriptor){
+			int ownerIndex = classRef(owner);
+			int nameIndex = utf8(name);
+			int descriptorIndex = utf8(descriptor);
+
+			int nameAndTypeIndex = add("nameAndType:" + name + ":" + descriptor, 1, os -> {
+				os.writeByte(12);
+				os.writeShort(nameIndex);
+				os.writeShort(descriptorIndex);
+			});
+
+			return add("methodRef:" + owner + "." + name + ":" + descriptor, 1, os -> {
+				os.writeByte(10);
+				os.writeShort(ownerIndex);
+				os.writeShort(nameAndTypeIndex);
+			});
+		}
+
+		void write(DataOutputStream os) throws IOException {
+			this.os.flush();
+
+			os.writeShort(this.size);
+			os.write(this.buffer.toByteArray());
+		}
+
+		private int add(Object key, int width, Entry entry){
+			Integer index = this.indices.get(key);
+
+			if(index == null){
+				index = this.size;
+
+				try {
+					entry.write(this.os);
+				} catch(IOException ioe){
+					throw new UncheckedIOException(ioe);
+				}
+
+				this.indices.put(key, index);
+
+				this.size += width;
+			}
+
+			return index;
+		}
+
+		private interface Entry {
+
+			void write(DataOutputStream os) throws IOException;
+		}
+	}
+
+	static
+	private class Label {
+
+		private int offset = -1;
+
+		// The operand stack holds the value of a leaf
+		private boolean stackDouble = false;
+	}
+
+	static
+	private class Code {
+
+		private ConstantPool constantPool = null;
+
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		// Branch instruction offset, operand offset, operand width and target label
+		private List<Object[]> fixups = new ArrayList<>();
+
+		private List<Label> targets = new ArrayList<>();
+
+
+		Code(ConstantPool constantPool){
+			this.constantPool = constantPool;
+		}
+
+		void op(int opcode){
+			this.buffer.write(opcode);
+		}
+
+		void aload(int index){
+			op(Code.ALOAD_0 + index);
+		}
+
+		void iconst(int value){
+
+			if(value >= -1 && value <= 5){
+				op(Code.ICONST_0 + value);
+			} else
+
+			if(value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE){
+				op(Code.BIPUSH);
+				op(value);
+			} else
+
+			if(value >= Short.MIN_VALUE && value <= Short.MAX_VALUE){
+				op(Code.SIPUSH);
+				writeShort(value);
+			} else
+
+			{
+				op(Code.LDC_W);
+				writeShort(this.constantPool.integer(value));
+			}
+		}
+
+		void dconst(double value){
+			op(Code.LDC2_W);
+			writeShort(this.constantPool.doubleValue(value));
+		}
+
+		void invokestatic(String owner, String name, String descriptor){
+			op(Code.INVOKESTATIC);
+			writeShort(this.constantPool.methodRef(owner, name, descriptor));
+		}
+
+		void invokespecial(String owner, String name, String descriptor){
+			op(Code.INVOKESPECIAL);
+			writeShort(this.constantPool.methodRef(owner, name, descriptor));
+		}
+
+		void jump(int opcode, Label label){
+			int offset = this.buffer.size();
+
+			op(opcode);
+
+			this.fixups.add(new Object[]{offset, this.buffer.size(), 2, label});
+
+			writeShort(0);
+
+			this.targets.add(label);
+		}
+
+		void lookupswitch(Label defaultLabel, TreeMap<Integer, Label> cases){
+			int offset = this.buffer.size();
+
+			op(Code.LOOKUPSWITCH);
+
+			while((this.buffer.size() % 4) != 0){
+				op(0);
+			}
+
+			this.fixups.add(new Object[]{offset, this.buffer.size(), 4, defaultLabel});
+			writeInt(0);
+
+			this.targets.add(defaultLabel);
+
+			writeInt(cases.size());
+
+			for(Map.Entry<Integer, Label> entry : cases.entrySet()){
+				writeInt(entry.getKey());
+
+				this.fixups.add(new Object[]{offset, this.buffer.size(), 4, entry.getValue()});
+				writeInt(0);
+
+				this.targets.add(entry.getValue());
+			}
+		}
+
+		void mark(Label label){
+			label.offset = this.buffer.size();
+		}
+
+		byte[] toByteArray(){
+			byte[] result = this.buffer.toByteArray();
+
+			for(Object[] fixup : this.fixups){
+				int offset = (Integer)fixup[0];
+				int operandOffset = (Integer)fixup[1];
+				int width = (Integer)fixup[2];
+				Label label = (Label)fixup[3];
+
+				int delta = (label.offset - offset);
+
+				if(width == 2){
+
+					if(delta < Short.MIN_VALUE || delta > Short.MAX_VALUE){
+						throw new LightGBMException("Branch offset is too large");
+					}
+
+					result[operandOffset] = (byte)(delta >> 8);
+					result[operandOffset + 1] = (byte)delta;
+				} else
+
+				{
+					result[operandOffset] = (byte)(delta >> 24);
+					result[operandOffset + 1] = (byte)(delta >> 16);
+					result[operandOffset + 2] = (byte)(delta >> 8);
+					result[operandOffset + 3] = (byte)delta;
+				}
+			}
+
+			return result;
+		}
+
+		// All branch targets share the locals of the method entry. The operand stack is either empty or holds the value of a leaf
+		byte[] toStackMapTable(){
+			TreeMap<Integer, Boolean> frames = new TreeMap<>();
+
+			for(Label target : this.targets){
+				frames.put(target.offset, target.stackDouble);
+			}
+
+			if(frames.isEmpty()){
+				return null;
+			}
+
+			ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+			result.write(frames.size() >> 8);
+			result.write(frames.size());
+
+			int previous = -1;
+
+			for(Map.Entry<Integer, Boolean> entry : frames.entrySet()){
+				int offset = entry.getKey();
+				boolean stackDouble = entry.getValue();
+
+				int delta = (offset - previous - 1);
+
+				if(stackDouble){
+
+					if(delta < 64){
+						// same_locals_1_stack_item_frame
+						result.write(64 + delta);
+					} else
+
+					{
+						// same_locals_1_stack_item_frame_extended
+						result.write(247);
+						result.write(delta >> 8);
+						result.write(delta);
+					}
+
+					// Double_variable_info
+					result.write(3);
+				} else
+
+				{
+					if(delta < 64){
+						// same_frame
+						result.write(delta);
+					} else
+
+					{
+						// same_frame_extended
+						result.write(251);
+						result.write(delta >> 8);
+						result.write(delta);
+					}
+				}
+
+				previous = offset;
+			}
+
+			return result.toByteArray();
+		}
+
+		private void writeShort(int value){
+			this.buffer.write(value >> 8);
+			this.buffer.write(value);
+		}
+
+		private void writeInt(int value){
+			this.buffer.write(value >> 24);
+			this.buffer.write(value >> 16);
+			this.buffer.write(value >> 8);
+			this.buffer.write(value);
+		}
+
+		static final int ICONST_0 = 0x03;
+		static final int BIPUSH = 0x10;
+		static final int SIPUSH = 0x11;
+		static final int LDC_W = 0x13;
+		static final int LDC2_W = 0x14;
+		static final int ALOAD_0 = 0x2a;
+		static final int DLOAD_2 = 0x28;
+		static final int DALOAD = 0x31;
+		static final int DSTORE_2 = 0x49;
+		static final int DASTORE = 0x52;
+		static final int DUP2 = 0x5c;
+		static final int DADD = 0x63;
+		static final int DMUL = 0x6b;
+		static final int D2I = 0x8e;
+		static final int DCMPL = 0x97;
+		static final int DCMPG = 0x98;
+		static final int IFNE = 0x9a;
+		static final int IFLT = 0x9b;
+		static final int IFGT = 0x9d;
+		static final int GOTO = 0xa7;
+		static final int LOOKUPSWITCH = 0xab;
+		static final int DRETURN = 0xaf;
+		static final int RETURN = 0xb1;
+		static final int INVOKESPECIAL = 0xb7;
+		static final int INVOKESTATIC = 0xb8;
+	}
+
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_PRIVATE = 0x0002;
+	private static final int ACC_STATIC = 0x0008;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+
+	private static final String SCORER_CLASS_NAME = "org/jpmml/lightgbm/CompiledGBDT$Scorer";
+
+	private static final int MAX_METHOD_SIZE = 3000;
+
+	private static final int MAX_CHUNK_SIZE = 6000;
+
+	private static final int MAX_CONSTANTS = 60000;
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.RecursiveAction;
+
+class TreeLoaderTask extends RecursiveAction {
+
+	private ByteBuffer buffer = null;
+
+	private long[] offsets = null;
+
+	private Tree[] trees = null;
+
+	private int begin = 0;
+
+	private int end = 0;
+
+
+	TreeLoaderTask(ByteBuffer buffer, long[] offsets, Tree[] trees, int begin, int end){
+		this.buffer = buffer;
+		this.offsets = offsets;
+		this.trees = trees;
+		this.begin = begin;
+		this.end = end;
+	}
+
+	@Override
+	protected void compute(){
+		int begin = this.begin;
+		int end = this.end;
+
+		if((end - begin) > TreeLoaderTask.THRESHOLD){
+			int middle = (begin + end) >>> 1;
+
+			invokeAll(
+				new TreeLoaderTask(this.buffer, this.offsets, this.trees, begin, middle),
+				new TreeLoaderTask(this.buffer, this.offsets, this.trees, middle, end)
+			);
+
+			return;
+		}
+
+		for(int i = begin; i < end; i++){
+			this.trees[i] = loadTree(i);
+		}
+	}
+
+	private Tree loadTree(int index){
+		Section section = parseSection(this.buffer, this.offsets, index);
+
+		Tree tree = new Tree();
+		tree.load(section);
+
+		return tree;
+	}
+
+	static
+	Section parseSection(ByteBuffer buffer, long[] offsets, int index){
+		buffer = buffer.duplicate();
+
+		buffer.limit((int)offsets[index + 1]);
+		buffer.position((int)offsets[index]);
+
+		Iterator<Section> sections = new BufferSectionIterator(buffer);
+
+		String treeId = "Tree=" + String.valueOf(index);
+
+		Section section = (sections.hasNext() ? sections.next() : null);
+		if(section == null || !section.checkId(treeId) || sections.hasNext()){
+			throw new LightGBMException("Section " + treeId + " does not match its tree size");
+		}
+
+		return section;
+	}
+
+	private static final int THRESHOLD = 8;
+}
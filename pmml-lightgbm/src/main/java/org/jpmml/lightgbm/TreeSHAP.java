@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// Computes SHAP feature contributions using the TreeSHAP algorithm (Lundberg et al.), as implemented by LightGBM's pred_contrib.
+// The contribution vector of a class holds one value per feature, followed by the expected value of the model.
+// The contributions of a row add up to its raw score
+public class TreeSHAP {
+
+	private GBDT gbdt = null;
+
+	private int numFeatures = 0;
+
+	private double[] expectedValues = null;
+
+	private int maxDepth = 0;
+
+	private ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(() -> new Workspace(this.numFeatures, this.maxDepth));
+
+
+	public TreeSHAP(GBDT gbdt){
+		List<Tree> trees = gbdt.getTrees();
+
+		double[] expectedValues = new double[trees.size()];
+
+		int maxDepth = 0;
+
+		for(int i = 0; i < trees.size(); i++){
+			Tree tree = trees.get(i);
+
+			if(tree.isEmpty()){
+				expectedValues[i] = (tree.getLeafValue())[0];
+
+				continue;
+			} // End if
+
+			// The contributions of constant leaf values would not add up to the output of linear leaves
+			if(tree.isLinear()){
+				throw new IllegalArgumentException("Tree " + i + " has linear leaves");
+			} // End if
+
+			if(tree.getLeafCount() == null || tree.getInternalCount() == null){
+				throw new IllegalArgumentException("Tree " + i + " does not specify leaf and internal counts");
+			}
+
+			expectedValues[i] = expectedValue(tree);
+
+			maxDepth = Math.max(maxDepth, depth(tree, 0));
+		}
+
+		this.gbdt = gbdt;
+		this.numFeatures = (gbdt.getFeatureNames()).length;
+		this.expectedValues = expectedValues;
+		this.maxDepth = maxDepth;
+	}
+
+	public int getNumFeatures(){
+		return this.numFeatures;
+	}
+
+	public double[][] predictContrib(double[] row){
+		return predictContrib(row, null);
+	}
+
+	public double[][] predictContrib(double[] row, Integer numIteration){
+		GBDT gbdt = this.gbdt;
+
+		if(row.length < this.numFeatures){
+			throw new IllegalArgumentException("Expected " + this.numFeatures + " feature values, got " + row.length);
+		}
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int stride = (this.numFeatures + 1);
+
+		double[] contribs = new double[numTreePerIteration * stride];
+
+		predictContrib(row, gbdt.getNumTrees(numIteration), contribs, 0, this.workspaces.get());
+
+		gbdt.averageOutput(contribs, numIteration);
+
+		double[][] result = new double[numTreePerIteration][stride];
+
+		for(int i = 0; i < numTreePerIteration; i++){
+			System.arraycopy(contribs, i * stride, result[i], 0, stride);
+		}
+
+		return result;
+	}
+
+	// Explains a block of rows from column-major data.
+	// The result is row-major, where the contribution vectors of a row are laid out class by class
+	public double[] predictContrib(double[][] columns, int offset, int length, Integer numIteration){
+		double[] result = createResult(columns, length);
+
+		predictContrib(columns, offset, 0, length, numIteration, result);
+
+		this.gbdt.averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	public double[] predictContrib(double[][] columns, int offset, int length, Integer numIteration, ForkJoinPool pool){
+		double[] result = createResult(columns, length);
+
+		pool.invoke(new ContribBlockTask(this, columns, offset, 0, length, numIteration, result));
+
+		this.gbdt.averageOutput(result, numIteration);
+
+		return result;
+	}
+
+	private double[] createResult(double[][] columns, int length){
+
+		if(columns.length < this.numFeatures){
+			throw new IllegalArgumentException("Expected " + this.numFeatures + " feature columns, got " + columns.length);
+		}
+
+		return new double[length * this.gbdt.getNumTreePerIteration() * (this.numFeatures + 1)];
+	}
+
+	void predictContrib(double[][] columns, int offset, int begin, int end, Integer numIteration, double[] result){
+		GBDT gbdt = this.gbdt;
+
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		int rowSize = gbdt.getNumTreePerIteration() * (this.numFeatures + 1);
+
+		Workspace workspace = this.workspaces.get();
+
+		double[] row = workspace.row;
+
+		for(int i = begin; i < end; i++){
+
+			for(int j = 0; j < this.numFeatures; j++){
+				row[j] = columns[j][offset + i];
+			}
+
+			predictContrib(row, numTrees, result, i * rowSize, workspace);
+		}
+	}
+
+	private void predictContrib(double[] row, int numTrees, double[] result, int resultOffset, Workspace workspace){
+		int numTreePerIteration = this.gbdt.getNumTreePerIteration();
+
+		List<Tree> trees = this.gbdt.getTrees();
+
+		int stride = (this.numFeatures + 1);
+
+		for(int i = 0; i < numTrees; i++){
+			Tree tree = trees.get(i);
+
+			int phiOffset = resultOffset + (i % numTreePerIteration) * stride;
+
+			result[phiOffset + this.numFeatures] += this.expectedValues[i];
+
+			if(!tree.isEmpty()){
+				shap(tree, row, result, phiOffset, 0, 0, 0, 1d, 1d, -1, workspace);
+			}
+		}
+	}
+
+	private void shap(Tree tree, double[] row, double[] phi, int phiOffset, int node, int uniqueDepth, int parentOffset, double parentZeroFraction, double parentOneFraction, int parentFeatureIndex, Workspace workspace){
+		int[] featureIndex = workspace.featureIndex;
+		double[] zeroFraction = workspace.zeroFraction;
+		double[] oneFraction = workspace.oneFraction;
+
+		// Every level of recursion works on its own copy of the path
+		int offset = parentOffset + uniqueDepth;
+
+		if(uniqueDepth > 0){
+			workspace.copy(parentOffset, offset, uniqueDepth);
+		}
+
+		workspace.extend(offset, uniqueDepth, parentZeroFraction, parentOneFraction, parentFeatureIndex);
+
+		if(node < 0){
+			double leafValue = (tree.getLeafValue())[~node];
+
+			for(int i = 1; i <= uniqueDepth; i++){
+				double weight = workspace.unwoundSum(offset, uniqueDepth, i);
+
+				phi[phiOffset + featureIndex[offset + i]] += weight * (oneFraction[offset + i] - zeroFraction[offset + i]) * leafValue;
+			}
+
+			return;
+		}
+
+		int splitFeature = (tree.getSplitFeature())[node];
+
+		int hotIndex = tree.decision(row[splitFeature], node);
+		int coldIndex = (hotIndex == (tree.getLeftChild())[node] ? (tree.getRightChild())[node] : (tree.getLeftChild())[node]);
+
+		double count = count(tree, node);
+
+		double hotZeroFraction = count(tree, hotIndex) / count;
+		double coldZeroFraction = count(tree, coldIndex) / count;
+
+		double incomingZeroFraction = 1d;
+		double incomingOneFraction = 1d;
+
+		int pathIndex = 0;
+
+		for(; pathIndex <= uniqueDepth; pathIndex++){
+
+			if(featureIndex[offset + pathIndex] == splitFeature){
+				break;
+			}
+		}
+
+		// Undo the previous split on the same feature, so that it can be redone for this node
+		if(pathIndex != uniqueDepth + 1){
+			incomingZeroFraction = zeroFraction[offset + pathIndex];
+			incomingOneFraction = oneFraction[offset + pathIndex];
+
+			workspace.unwind(offset, uniqueDepth, pathIndex);
+
+			uniqueDepth -= 1;
+		}
+
+		shap(tree, row, phi, phiOffset, hotIndex, uniqueDepth + 1, offset, hotZeroFraction * incomingZeroFraction, incomingOneFraction, splitFeature, workspace);
+		shap(tree, row, phi, phiOffset, coldIndex, uniqueDepth + 1, offset, coldZeroFraction * incomingZeroFraction, 0d, splitFeature, workspace);
+	}
+
+	static
+	private double count(Tree tree, int node){
+
+		if(node < 0){
+			return (tree.getLeafCount())[~node];
+		}
+
+		return (tree.getInternalCount())[node];
+	}
+
+	static
+	private double expectedValue(Tree tree){
+		double[] leafValue = tree.getLeafValue();
+		int[] leafCount = tree.getLeafCount();
+
+		double totalCount = (tree.getInternalCount())[0];
+
+		double result = 0d;
+
+		for(int i = 0; i < leafValue.length; i++){
+			result += (leafCount[i] / totalCount) * leafValue[i];
+		}
+
+		return result;
+	}
+
+	static
+	private int depth(Tree tree, int node){
+
+		if(node < 0){
+			return 0;
+		}
+
+		return 1 + Math.max(depth(tree, (tree.getLeftChild())[node]), depth(tree, (tree.getRightChild())[node]));
+	}
+
+	static
+	private class Workspace {
+
+		private double[] row = null;
+
+		private int[] featureIndex = null;
+
+		private double[] zeroFraction = null;
+
+		private double[] oneFraction = null;
+
+		private double[] pweight = null;
+
+
+		private Workspace(int numFeatures, int maxDepth){
+			int maxPathLength = (maxDepth + 1);
+
+			// The paths of all recursion levels are stacked next to each other
+			int size = maxPathLength * (maxPathLength + 1) / 2;
+
+			this.row = new double[numFeatures];
+			this.featureIndex = new int[size];
+			this.zeroFraction = new double[size];
+			this.oneFraction = new double[size];
+			this.pweight = new double[size];
+		}
+
+		private void copy(int from, int to, int length){
+			System.arraycopy(this.featureIndex, from, this.featureIndex, to, length);
+			System.arraycopy(this.zeroFraction, from, this.zeroFraction, to, length);
+			System.arraycopy(this.oneFraction, from, this.oneFraction, to, length);
+			System.arraycopy(this.pweight, from, this.pweight, to, length);
+		}
+
+		private void extend(int offset, int uniqueDepth, double zeroFraction, double oneFraction, int featureIndex){
+			double[] pweight = this.pweight;
+
+			this.featureIndex[offset + uniqueDepth] = featureIndex;
+			this.zeroFraction[offset + uniqueDepth] = zeroFraction;
+			this.oneFraction[offset + uniqueDepth] = oneFraction;
+			pweight[offset + uniqueDepth] = (uniqueDepth == 0 ? 1d : 0d);
+
+			for(int i = uniqueDepth - 1; i >= 0; i--){
+				pweight[offset + i + 1] += oneFraction * pweight[offset + i] * (i + 1) / (double)(uniqueDepth + 1);
+				pweight[offset + i] = zeroFraction * pweight[offset + i] * (uniqueDepth - i) / (double)(uniqueDepth + 1);
+			}
+		}
+
+		private void unwind(int offset, int uniqueDepth, int pathIndex){
+			double[] pweight = this.pweight;
+
+			double oneFraction = this.oneFraction[offset + pathIndex];
+			double zeroFraction = this.zeroFraction[offset + pathIndex];
+
+			double nextOnePortion = pweight[offset + uniqueDepth];
+
+			for(int i = uniqueDepth - 1; i >= 0; i--){
+
+				if(oneFraction != 0d){
+					double tmp = pweight[offset + i];
+
+					pweight[offset + i] = nextOnePortion * (uniqueDepth + 1) / ((i + 1) * oneFraction);
+
+					nextOnePortion = tmp - pweight[offset + i] * zeroFraction * (uniqueDepth - i) / (double)(uniqueDepth + 1);
+				} else
+
+				{
+					pweight[offset + i] = (pweight[offset + i] * (uniqueDepth + 1)) / (zeroFraction * (uniqueDepth - i));
+				}
+			}
+
+			for(int i = pathIndex; i < uniqueDepth; i++){
+				this.featureIndex[offset + i] = this.featureIndex[offset + i + 1];
+				this.zeroFraction[offset + i] = this.zeroFraction[offset + i + 1];
+				this.oneFraction[offset + i] = this.oneFraction[offset + i + 1];
+			}
+		}
+
+		private double unwoundSum(int offset, int uniqueDepth, int pathIndex){
+			double[] pweight = this.pweight;
+
+			double oneFraction = this.oneFraction[offset + pathIndex];
+			double zeroFraction = this.zeroFraction[offset + pathIndex];
+
+			double nextOnePortion = pweight[offset + uniqueDepth];
+
+			double result = 0d;
+
+			for(int i = uniqueDepth - 1; i >= 0; i--){
+
+				if(oneFraction != 0d){
+					double tmp = nextOnePortion * (uniqueDepth + 1) / ((i + 1) * oneFraction);
+
+					result += tmp;
+
+					nextOnePortion = pweight[offset + i] - tmp * zeroFraction * ((uniqueDepth - i) / (double)(uniqueDepth + 1));
+				} else
+
+				{
+					result += (pweight[offset + i] / zeroFraction) / ((uniqueDepth - i) / (double)(uniqueDepth + 1));
+				}
+			}
+
+			return result;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AnytimePredictorTest {
+
+	@Test
+	public void predict() throws Exception {
+		checkPredict("ClassificationIrisNA");
+		checkPredict("RegressionAutoNA");
+		checkPredict("RFClassificationIris");
+	}
+
+	static
+	private void checkPredict(String name) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		AnytimePredictor predictor = new AnytimePredictor(gbdt);
+
+		int numTrees = (gbdt.getTrees()).size();
+
+		for(double[] row : GBDTTestUtil.generateRows(gbdt, 200)){
+			double[] expected = gbdt.predictRaw(row);
+
+			AnytimePredictor.Prediction prediction = predictor.predictRaw(row, null, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+			assertArrayEquals(expected, prediction.getScores());
+			assertTrue(prediction.isExact());
+			assertEquals(numTrees, prediction.getNumTrees());
+
+			checkErrors(expected, predictor.predictRaw(row, null, 2, Long.MAX_VALUE));
+
+			prediction = predictor.predictRaw(row, null, Integer.MAX_VALUE, 0L);
+
+			assertEquals(0, prediction.getNumTrees());
+			assertFalse(prediction.isExact());
+
+			checkErrors(expected, prediction);
+		}
+	}
+
+	static
+	private void checkErrors(double[] expected, AnytimePredictor.Prediction prediction){
+		double[] scores = prediction.getScores();
+		double[] errors = prediction.getErrors();
+
+		for(int i = 0; i < expected.length; i++){
+			assertTrue(Math.abs(expected[i] - scores[i]) <= errors[i] + 1e-12);
+		}
+	}
+}
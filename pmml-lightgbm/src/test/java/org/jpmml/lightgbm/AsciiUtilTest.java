@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AsciiUtilTest {
+
+	@Test
+	public void parseLong(){
+		assertEquals(0L, parseLong("0"));
+		assertEquals(-42L, parseLong("-42"));
+		assertEquals(4294967295L, parseLong("4294967295"));
+		assertEquals(Long.MIN_VALUE, parseLong("-9223372036854775808"));
+
+		assertThrows(NumberFormatException.class, () -> parseLong("9223372036854775808"));
+		assertThrows(NumberFormatException.class, () -> parseLong("1e3"));
+		assertThrows(NumberFormatException.class, () -> parseLong(""));
+	}
+
+	@Test
+	public void parseDouble(){
+		String[] strings = {"0", "-0", "1", "0.1", "-0.00067510898876404497", "1.0000000180025095e-35", "4.9e-324", "1.7976931348623157e308", "123456789012345678901234567890", "2.2250738585072011e-308"};
+
+		for(String string : strings){
+			assertEquals(Double.doubleToLongBits(Double.parseDouble(string)), Double.doubleToLongBits(parseDouble(string)), string);
+		}
+
+		assertEquals(Double.POSITIVE_INFINITY, parseDouble("inf"));
+		assertEquals(Double.NEGATIVE_INFINITY, parseDouble("-inf"));
+		assertEquals(Double.NaN, parseDouble("nan"));
+	}
+
+	@Test
+	public void parseArray(){
+		ByteBuffer buffer = wrap("1 -2 3 ");
+
+		assertArrayEquals(new int[]{1, -2, 3}, AsciiUtil.parseIntArray(buffer, 0, buffer.limit(), 3));
+
+		assertThrows(IllegalArgumentException.class, () -> AsciiUtil.parseIntArray(buffer, 0, buffer.limit(), 2));
+
+		ByteBuffer listBuffer = wrap("0.5 1e-3   -2  ");
+
+		double[][] values = AsciiUtil.parseDoubleArrayList(listBuffer, 0, listBuffer.limit(), new int[]{2, 0, 1});
+
+		assertArrayEquals(new double[]{0.5, 1e-3}, values[0]);
+		assertArrayEquals(new double[]{}, values[1]);
+		assertArrayEquals(new double[]{-2}, values[2]);
+	}
+
+	static
+	private long parseLong(String string){
+		ByteBuffer buffer = wrap(string);
+
+		return AsciiUtil.parseLong(buffer, 0, buffer.limit());
+	}
+
+	static
+	private double parseDouble(String string){
+		ByteBuffer buffer = wrap(string);
+
+		return AsciiUtil.parseDouble(buffer, 0, buffer.limit());
+	}
+
+	static
+	private ByteBuffer wrap(String string){
+		return ByteBuffer.wrap(string.getBytes(StandardCharsets.US_ASCII));
+	}
+}
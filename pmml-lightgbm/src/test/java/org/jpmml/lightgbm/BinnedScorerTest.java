@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BinnedScorerTest {
+
+	@Test
+	public void predict() throws Exception {
+		checkPredict("ClassificationIrisNA");
+		checkPredict("LinearTreeClassificationAuditNA");
+		checkPredict("RegressionHousingNA");
+	}
+
+	static
+	private void checkPredict(String name) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		BinnedScorer binnedScorer = BinnedScorer.build(gbdt);
+
+		assertEquals((gbdt.getTrees()).size(), binnedScorer.size());
+
+		double[][] rows = GBDTTestUtil.generateRows(gbdt, 1000);
+
+		GBDTTestUtil.checkPredict(gbdt, rows, null, binnedScorer::predict);
+		GBDTTestUtil.checkPredict(gbdt, rows, 5, row -> binnedScorer.predict(row, 5));
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompiledGBDTTest {
+
+	@Test
+	public void predict() throws Exception {
+		checkPredict("ClassificationIrisNA", null);
+		checkPredict("ClassificationIrisNA", 5);
+		checkPredict("ClassificationAuditNA", null);
+		checkPredict("LinearTreeClassificationAuditNA", null);
+	}
+
+	@Test
+	public void predictWithoutHiddenClasses() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationAuditNA");
+
+		CompiledGBDT compiledGbdt = CompiledGBDT.compile(gbdt, null, false);
+
+		for(CompiledGBDT.Scorer scorer : compiledGbdt.getScorers()){
+			assertNotSame(CompiledGBDT.class.getClassLoader(), (scorer.getClass()).getClassLoader());
+		}
+
+		double[][] rows = GBDTTestUtil.generateRows(gbdt, 1000);
+
+		GBDTTestUtil.checkPredict(gbdt, rows, null, compiledGbdt::predict);
+	}
+
+	@Test
+	public void predictLargeTrees() throws Exception {
+		// Trees of this size must be split into subtree methods, and a few of them fill up the constant pool of a class
+		GBDT gbdt = GBDTTestUtil.generateGBDT(100, 30, 2000);
+
+		CompiledGBDT compiledGbdt = CompiledGBDT.compile(gbdt);
+
+		assertTrue((compiledGbdt.getScorers()).length > 1);
+
+		double[][] rows = GBDTTestUtil.generateRows(gbdt, 1000);
+
+		GBDTTestUtil.checkPredictRaw(gbdt, rows, null, compiledGbdt::predictRaw);
+
+		compiledGbdt = CompiledGBDT.compile(gbdt, null, false);
+
+		GBDTTestUtil.checkPredictRaw(gbdt, rows, null, compiledGbdt::predictRaw);
+	}
+
+	static
+	private void checkPredict(String name, Integer numIteration) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		CompiledGBDT compiledGbdt = CompiledGBDT.compile(gbdt, numIteration);
+
+		double[][] rows = GBDTTestUtil.generateRows(gbdt, 1000);
+
+		GBDTTestUtil.checkPredict(gbdt, rows, numIteration, compiledGbdt::predict);
+	}
+}
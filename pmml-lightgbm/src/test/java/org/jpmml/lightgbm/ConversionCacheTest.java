@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ConversionCacheTest {
+
+	@Test
+	public void computeKey() throws Exception {
+		byte[] bytes = "tree\nversion=v4\n".getBytes("US-ASCII");
+
+		Map<String, Object> options = new LinkedHashMap<>();
+		options.put(HasLightGBMOptions.OPTION_COMPACT, Boolean.TRUE);
+		options.put(HasLightGBMOptions.OPTION_NUM_ITERATION, null);
+
+		Map<String, Object> reversedOptions = new LinkedHashMap<>();
+		reversedOptions.put(HasLightGBMOptions.OPTION_NUM_ITERATION, null);
+		reversedOptions.put(HasLightGBMOptions.OPTION_COMPACT, Boolean.TRUE);
+
+		String key = ConversionCache.computeKey(new ByteArrayInputStream(bytes), options, null, null);
+
+		assertEquals(key, ConversionCache.computeKey(new ByteArrayInputStream(bytes), reversedOptions, null, null));
+
+		assertNotEquals(key, ConversionCache.computeKey(new ByteArrayInputStream(bytes), options, "y", null));
+		assertNotEquals(key, ConversionCache.computeKey(new ByteArrayInputStream(bytes), options, null, Arrays.asList("0", "1")));
+		assertNotEquals(key, ConversionCache.computeKey(new ByteArrayInputStream(bytes), Collections.singletonMap(HasLightGBMOptions.OPTION_COMPACT, Boolean.FALSE), null, null));
+	}
+
+	@Test
+	public void evict() throws Exception {
+		File dir = Files.createTempDirectory("cache-").toFile();
+
+		try {
+			ConversionCache cache = new ConversionCache(dir, 10L);
+
+			cache.put("aa", new byte[4]);
+			cache.put("bb", new byte[4]);
+
+			// Make "bb" the least recently used entry
+			Files.setLastModifiedTime((cache.get("bb")).toPath(), FileTime.fromMillis(0L));
+
+			cache.put("cc", new byte[4]);
+
+			assertArrayEquals(new byte[4], Files.readAllBytes((cache.get("aa")).toPath()));
+			assertNull(cache.get("bb"));
+			assertNotNull(cache.get("cc"));
+		} finally {
+
+			for(File file : dir.listFiles()){
+				file.delete();
+			}
+
+			dir.delete();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EarlyStopPredictorTest {
+
+	@Test
+	public void predictBinary() throws Exception {
+		checkPredict("ClassificationAuditNA");
+	}
+
+	@Test
+	public void predictMulticlass() throws Exception {
+		checkPredict("ClassificationIrisNA");
+	}
+
+	@Test
+	public void regression() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("RegressionAutoNA");
+
+		assertThrows(IllegalArgumentException.class, () -> new EarlyStopPredictor(gbdt));
+	}
+
+	static
+	private void checkPredict(String name) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		EarlyStopPredictor predictor = new EarlyStopPredictor(gbdt);
+
+		int numTrees = (gbdt.getTrees()).size();
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int numStopped = 0;
+
+		for(double[] row : GBDTTestUtil.generateRows(gbdt, 500)){
+			EarlyStopPredictor.Prediction prediction = predictor.predict(row, 1, Double.POSITIVE_INFINITY);
+
+			assertArrayEquals(gbdt.predict(row), prediction.getScores());
+			assertEquals(numTrees, prediction.getNumTrees());
+
+			prediction = predictor.predictRaw(row, 2, 1d);
+
+			int numIteration = (prediction.getNumTrees() / numTreePerIteration);
+
+			assertArrayEquals(gbdt.predictRaw(row, numIteration), prediction.getScores());
+
+			if(prediction.getNumTrees() < numTrees){
+				assertEquals(0, prediction.getNumTrees() % (2 * numTreePerIteration));
+				assertTrue(margin(prediction.getScores()) > 1d);
+
+				numStopped++;
+			}
+		}
+
+		assertTrue(numStopped > 0);
+	}
+
+	static
+	private double margin(double[] scores){
+
+		if(scores.length == 1){
+			return 2d * Math.abs(scores[0]);
+		}
+
+		double[] sorted = scores.clone();
+
+		Arrays.sort(sorted);
+
+		return sorted[sorted.length - 1] - sorted[sorted.length - 2];
+	}
+}
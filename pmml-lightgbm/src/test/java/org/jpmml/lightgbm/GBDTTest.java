@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GBDTTest {
+
+	@Test
+	public void predictIris() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationIrisNA");
+
+		// Petal.Length, Petal.Width, Sepal.Length (missing), Sepal.Width
+		double[] row = {1.4d, 0.2d, Double.NaN, 3.5d};
+
+		assertArrayEquals(new double[]{0.8358236676783514d, 0.07949045896821745d, 0.08468587335343129d}, gbdt.predict(row), 1e-12);
+
+		assertEquals(3, (gbdt.predictRaw(row)).length);
+	}
+
+	@Test
+	public void predictVisit() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("RegressionVisit");
+
+		// Age, outwork, female, married, kids, hhninc, educ, self
+		double[] row = {54d, 0d, 0d, 1d, 0d, 3.04999995231628d, 15d, 0d};
+
+		assertEquals(4.631690943313232d, gbdt.predict(row)[0], 1e-12);
+		assertEquals(Math.log(4.631690943313232d), gbdt.predictRaw(row)[0], 1e-12);
+	}
+
+	@Test
+	public void predictAuditReference() throws Exception {
+		checkReference("ClassificationAudit", "Audit", null);
+		checkReference("ClassificationAudit", "Audit", 17);
+		checkReference("ClassificationAudit", "AuditInvalid", "ClassificationAuditInvalid", null);
+		checkReference("ClassificationAuditNA", "AuditNA", null);
+		checkReference("ClassificationAuditNA", "AuditNA", 17);
+		checkReference("ClassificationAuditBin", "Audit", null);
+		checkReference("ClassificationAuditBinNA", "AuditNA", null);
+		checkReference("LinearTreeClassificationAudit", "Audit", null);
+		checkReference("LinearTreeClassificationAuditNA", "AuditNA", null);
+		checkReference("RFClassificationAudit", "Audit", null);
+	}
+
+	@Test
+	public void predictIrisReference() throws Exception {
+		checkReference("ClassificationIris", "Iris", null);
+		checkReference("ClassificationIris", "Iris", 7);
+		checkReference("ClassificationIrisNA", "IrisNA", null);
+		checkReference("ClassificationIrisNA", "IrisNA", 7);
+		checkReference("ClassificationVersicolor", "Versicolor", null);
+		checkReference("ClassificationVersicolor", "Versicolor", 9);
+		checkReference("RFClassificationIris", "Iris", null);
+	}
+
+	@Test
+	public void predictAutoReference() throws Exception {
+		checkReference("RegressionAuto", "Auto", null);
+		checkReference("RegressionAuto", "Auto", 17);
+		checkReference("RegressionAutoNA", "AutoNA", null);
+		checkReference("RegressionAutoNA", "AutoNA", 17);
+		checkReference("LinearTreeRegressionAuto", "Auto", null);
+		checkReference("LinearTreeRegressionAutoNA", "AutoNA", null);
+		checkReference("RFRegressionAuto", "Auto", null);
+	}
+
+	@Test
+	public void predictHousingReference() throws Exception {
+		checkReference("RegressionHousing", "Housing", null);
+		checkReference("RegressionHousing", "Housing", 31);
+		checkReference("RegressionHousingNA", "HousingNA", null);
+		checkReference("RegressionHousingNA", "HousingNA", 31);
+	}
+
+	@Test
+	public void predictVisitReference() throws Exception {
+		checkReference("RegressionVisit", "Visit", null);
+		checkReference("RegressionVisit", "Visit", 31);
+		checkReference("RegressionVisitNA", "VisitNA", null);
+		checkReference("RegressionVisitNA", "VisitNA", 31);
+	}
+
+	@Test
+	public void predictBatch() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationIrisNA");
+
+		double[][] rows = {
+			{1.4d, 0.2d, Double.NaN, 3.5d},
+			{4.7d, 1.4d, 7.0d, 3.2d},
+			{6.0d, 2.5d, 6.3d, Double.NaN}
+		};
+
+		double[][] columns = new double[4][1 + rows.length];
+		double[] data = new double[4 * 8];
+
+		for(int i = 0; i < rows.length; i++){
+
+			for(int j = 0; j < 4; j++){
+				columns[j][1 + i] = rows[i][j];
+				data[(j * 8) + 2 + i] = rows[i][j];
+			}
+		}
+
+		double[] columnsResult = gbdt.predict(columns, 1, rows.length, null);
+		double[] dataResult = gbdt.predict(data, 8, 2, rows.length, null);
+
+		for(int i = 0; i < rows.length; i++){
+			double[] expected = gbdt.predict(rows[i]);
+
+			assertArrayEquals(expected, Arrays.copyOfRange(columnsResult, i * 3, (i + 1) * 3));
+			assertArrayEquals(expected, Arrays.copyOfRange(dataResult, i * 3, (i + 1) * 3));
+		}
+	}
+
+	@Test
+	public void predictSparse() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationIrisNA");
+
+		double[][] rows = {
+			{1.4d, 0.2d, Double.NaN, 3.5d},
+			{4.7d, 0d, 7.0d, 0d},
+			{0d, 0d, 0d, 0d}
+		};
+
+		// Zero values are absent, and feature 7 is not known to the model
+		int[] indptr = {0, 4, 7, 7};
+		int[] indices = {0, 1, 2, 3, 2, 0, 7};
+		double[] values = {1.4d, 0.2d, Double.NaN, 3.5d, 7.0d, 4.7d, 1d};
+
+		double[] result = gbdt.predict(new SparseMatrix(indptr, indices, values), null);
+
+		for(int i = 0; i < rows.length; i++){
+			assertArrayEquals(gbdt.predict(rows[i]), Arrays.copyOfRange(result, i * 3, (i + 1) * 3));
+		}
+	}
+
+	@Test
+	public void predictLeaf() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationAuditNA");
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+		int numTrees = (gbdt.getTrees()).size();
+
+		int length = 600;
+
+		double[][] columns = new double[numFeatures][length];
+
+		for(int i = 0; i < numFeatures; i++){
+
+			for(int j = 0; j < length; j++){
+				columns[i][j] = ((i + j) % 7 == 0 ? Double.NaN : (i * 31 + j * 17) % 11);
+			}
+		}
+
+		int[] leaves = gbdt.predictLeaf(columns, 0, length, null);
+
+		int[] leafOffsets = gbdt.getLeafOffsets(null);
+
+		int[] oneHotLeaves = new int[2 + length * numTrees];
+
+		gbdt.predictLeaf(columns, 0, length, null, true, oneHotLeaves, 2);
+
+		double[] row = new double[numFeatures];
+
+		for(int j = 0; j < length; j++){
+
+			for(int i = 0; i < numFeatures; i++){
+				row[i] = columns[i][j];
+			}
+
+			int[] expected = gbdt.predictLeaf(row, null);
+
+			assertArrayEquals(expected, Arrays.copyOfRange(leaves, j * numTrees, (j + 1) * numTrees));
+
+			for(int i = 0; i < numTrees; i++){
+				assertEquals(leafOffsets[i] + expected[i], oneHotLeaves[2 + j * numTrees + i]);
+			}
+		}
+
+		assertEquals(5, (gbdt.predictLeaf(row, 5)).length);
+	}
+
+	static
+	private void checkReference(String name, String dataset, Integer numIteration) throws Exception {
+		checkReference(name, dataset, name + (numIteration != null ? ("@" + numIteration) : ""), numIteration);
+	}
+
+	// Compares against the predictions of LightGBM itself
+	static
+	private void checkReference(String name, String dataset, String resultName, Integer numIteration) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		double[][] rows = GBDTTestUtil.loadRows(gbdt, dataset);
+
+		List<String[]> results = GBDTTestUtil.loadCsv(resultName);
+
+		String[] header = results.get(0);
+
+		assertEquals(rows.length, results.size() - 1);
+
+		// Regression results consist of the target value, classification results of the target label and class probabilities
+		int offset = (header.length > 1 ? 1 : 0);
+
+		// Models without an objective function (eg. a custom objective) produce raw scores
+		boolean raw = (gbdt.getObjectiveFunction() == null);
+
+		for(int i = 0; i < rows.length; i++){
+			String[] result = results.get(i + 1);
+
+			double[] prediction = (raw ? gbdt.predictRaw(rows[i], numIteration) : gbdt.predict(rows[i], numIteration));
+
+			// Binary classification models predict the probability of the positive class only
+			int resultOffset = (header.length - prediction.length);
+
+			assertTrue(resultOffset == offset || (resultOffset == offset + 1 && prediction.length == 1));
+
+			for(int j = 0; j < prediction.length; j++){
+				double expected = Double.parseDouble(result[resultOffset + j]);
+
+				assertEquals(expected, prediction[j], 1e-13 * Math.max(1d, Math.abs(expected)), resultName + " row " + i);
+			}
+		}
+	}
+}
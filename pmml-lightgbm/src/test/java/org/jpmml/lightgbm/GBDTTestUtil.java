@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GBDTTestUtil {
+
+	private GBDTTestUtil(){
+	}
+
+	static
+	public GBDT loadGBDT(String name) throws IOException {
+
+		try(InputStream is = GBDTTestUtil.class.getResourceAsStream("/lgbm/" + name + ".txt")){
+			return LightGBMUtil.loadGBDT(is);
+		}
+	}
+
+	// Random numerical trees over the value range of generateRows, with all missing value handling variants
+	static
+	public GBDT generateGBDT(int numFeatures, int numTrees, int numLeaves){
+		Random random = new Random(42L);
+
+		List<String> lines = new ArrayList<>();
+		lines.add("tree");
+		lines.add("version=v4");
+		lines.add("num_class=1");
+		lines.add("num_tree_per_iteration=1");
+		lines.add("label_index=0");
+		lines.add("max_feature_idx=" + (numFeatures - 1));
+		lines.add("objective=regression");
+		lines.add("feature_names=" + join(numFeatures, j -> "f" + j));
+		lines.add("feature_infos=" + join(numFeatures, j -> "[0:100]"));
+		lines.add("");
+
+		for(int i = 0; i < numTrees; i++){
+			int numNodes = numLeaves - 1;
+
+			int[] leftChild = new int[numNodes];
+			int[] rightChild = new int[numNodes];
+
+			// Grows the tree by splitting a randomly chosen leaf. A child slot is encoded as (2 * node) or (2 * node + 1)
+			List<Integer> slots = new ArrayList<>();
+			slots.add(0);
+			slots.add(1);
+
+			for(int node = 1; node < numNodes; node++){
+				int slot = slots.remove(random.nextInt(slots.size()));
+
+				((slot % 2 == 0) ? leftChild : rightChild)[slot / 2] = node;
+
+				slots.add(2 * node);
+				slots.add(2 * node + 1);
+			}
+
+			for(int leaf = 0; leaf < slots.size(); leaf++){
+				int slot = slots.get(leaf);
+
+				((slot % 2 == 0) ? leftChild : rightChild)[slot / 2] = ~leaf;
+			}
+
+			int[] decisionTypes = {0, 2, 4, 6, 8, 10};
+
+			lines.add("Tree=" + i);
+			lines.add("num_leaves=" + numLeaves);
+			lines.add("num_cat=0");
+			lines.add("split_feature=" + join(numNodes, j -> String.valueOf(random.nextInt(numFeatures))));
+			lines.add("split_gain=" + join(numNodes, j -> "1"));
+			lines.add("threshold=" + join(numNodes, j -> String.valueOf(random.nextInt(1000) / 10d)));
+			lines.add("decision_type=" + join(numNodes, j -> String.valueOf(decisionTypes[random.nextInt(decisionTypes.length)])));
+			lines.add("left_child=" + join(numNodes, j -> String.valueOf(leftChild[j])));
+			lines.add("right_child=" + join(numNodes, j -> String.valueOf(rightChild[j])));
+			lines.add("leaf_value=" + join(numLeaves, j -> String.valueOf(random.nextGaussian() / 10d)));
+			lines.add("leaf_weight=" + join(numLeaves, j -> "1"));
+			lines.add("leaf_count=" + join(numLeaves, j -> "10"));
+			lines.add("internal_value=" + join(numNodes, j -> "0"));
+			lines.add("internal_weight=" + join(numNodes, j -> "1"));
+			lines.add("internal_count=" + join(numNodes, j -> "100"));
+			lines.add("is_linear=0");
+			lines.add("shrinkage=0.1");
+			lines.add("");
+			lines.add("");
+		}
+
+		lines.add("end of trees");
+		lines.add("");
+		lines.add("feature_importances:");
+		lines.add("");
+		lines.add("parameters:");
+		lines.add("end of parameters");
+		lines.add("");
+		lines.add("pandas_categorical:null");
+
+		return LightGBMUtil.loadGBDT(lines.iterator());
+	}
+
+	static
+	private String join(int length, IntFunction<String> function){
+		StringBuilder sb = new StringBuilder();
+
+		for(int i = 0; i < length; i++){
+
+			if(i > 0){
+				sb.append(' ');
+			}
+
+			sb.append(function.apply(i));
+		}
+
+		return sb.toString();
+	}
+
+	static
+	public List<String[]> loadCsv(String name) throws IOException {
+		List<String[]> result = new ArrayList<>();
+
+		try(InputStream is = GBDTTestUtil.class.getResourceAsStream("/csv/" + name + ".csv")){
+			BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+
+			for(String line = reader.readLine(); line != null; line = reader.readLine()){
+				result.add(line.split(",", -1));
+			}
+		}
+
+		return result;
+	}
+
+	// Encodes the rows of an input dataset the way LightGBM's Python package does.
+	// Categorical values are mapped to their pandas category codes, and unknown values become missing values.
+	// Features whose names are not dataset columns are one-hot encoded as <column>_<value>
+	static
+	public double[][] loadRows(GBDT gbdt, String dataset) throws IOException {
+		String[] featureNames = gbdt.getFeatureNames();
+		List<List<?>> pandasCategories = gbdt.getPandasCategories();
+
+		List<String[]> table = loadCsv(dataset);
+
+		List<String> header = Arrays.asList(table.get(0));
+
+		double[][] result = new double[table.size() - 1][featureNames.length];
+
+		for(int i = 0; i < featureNames.length; i++){
+			String featureName = featureNames[i];
+			List<?> categories = pandasCategories.get(i);
+
+			int column = header.indexOf(featureName);
+
+			String oneHotValue = null;
+
+			if(column < 0){
+				int separator = featureName.indexOf('_');
+
+				column = header.indexOf(featureName.substring(0, separator));
+				oneHotValue = featureName.substring(separator + 1);
+			}
+
+			for(int j = 0; j < result.length; j++){
+				String value = (table.get(j + 1))[column];
+
+				boolean missing = ("".equals(value) || "NA".equals(value) || "N/A".equals(value));
+
+				if(oneHotValue != null){
+					result[j][i] = (oneHotValue.equals(value) ? 1d : 0d);
+				} else
+
+				if(missing){
+					result[j][i] = Double.NaN;
+				} else
+
+				if(categories != null){
+					result[j][i] = Double.NaN;
+
+					for(int k = 0; k < categories.size(); k++){
+						Object category = categories.get(k);
+
+						if((category instanceof Number) ? (((Number)category).doubleValue() == Double.parseDouble(value)) : String.valueOf(category).equalsIgnoreCase(value)){
+							result[j][i] = k;
+						}
+					}
+				} else
+
+				if("TRUE".equals(value) || "FALSE".equals(value)){
+					result[j][i] = ("TRUE".equals(value) ? 1d : 0d);
+				} else
+
+				{
+					result[j][i] = Double.parseDouble(value);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	// Missing values, zeros, small integers (that double as category values) and continuous values in equal proportions
+	static
+	public double[][] generateRows(GBDT gbdt, int length){
+		int numFeatures = (gbdt.getFeatureNames()).length;
+
+		Random random = new Random(42L);
+
+		double[][] result = new double[length][numFeatures];
+
+		for(int i = 0; i < length; i++){
+
+			for(int j = 0; j < numFeatures; j++){
+				double value;
+
+				switch(random.nextInt(4)){
+					case 0:
+						value = Double.NaN;
+						break;
+					case 1:
+						value = 0d;
+						break;
+					case 2:
+						value = random.nextInt(10);
+						break;
+					default:
+						value = random.nextDouble() * 100d;
+						break;
+				}
+
+				result[i][j] = value;
+			}
+		}
+
+		return result;
+	}
+
+	static
+	public double[][] generateColumns(GBDT gbdt, int length){
+		return transpose(generateRows(gbdt, length));
+	}
+
+	static
+	public double[][] transpose(double[][] values){
+		double[][] result = new double[values[0].length][values.length];
+
+		for(int i = 0; i < values.length; i++){
+
+			for(int j = 0; j < values[i].length; j++){
+				result[j][i] = values[i][j];
+			}
+		}
+
+		return result;
+	}
+
+	// Compares the model structure tree by tree, and the raw scores on generated rows
+	static
+	public void checkEquals(GBDT expected, GBDT actual){
+		assertArrayEquals(expected.getFeatureNames(), actual.getFeatureNames());
+		assertArrayEquals(expected.getFeatureInfos(), actual.getFeatureInfos());
+		assertEquals(expected.getNumTreePerIteration(), actual.getNumTreePerIteration());
+
+		List<Tree> expectedTrees = expected.getTrees();
+		List<Tree> actualTrees = actual.getTrees();
+
+		assertEquals(expectedTrees.size(), actualTrees.size());
+
+		for(int i = 0; i < expectedTrees.size(); i++){
+			Tree expectedTree = expectedTrees.get(i);
+			Tree actualTree = actualTrees.get(i);
+
+			assertEquals(expectedTree.getNumLeaves(), actualTree.getNumLeaves());
+			assertEquals(expectedTree.getNumCat(), actualTree.getNumCat());
+			assertArrayEquals(expectedTree.getSplitFeature(), actualTree.getSplitFeature());
+			assertArrayEquals(expectedTree.getThreshold(), actualTree.getThreshold());
+			assertArrayEquals(expectedTree.getDecisionType(), actualTree.getDecisionType());
+			assertArrayEquals(expectedTree.getLeftChild(), actualTree.getLeftChild());
+			assertArrayEquals(expectedTree.getRightChild(), actualTree.getRightChild());
+			assertArrayEquals(expectedTree.getLeafValue(), actualTree.getLeafValue());
+			assertArrayEquals(expectedTree.getLeafCount(), actualTree.getLeafCount());
+			assertArrayEquals(expectedTree.getInternalValue(), actualTree.getInternalValue());
+			assertArrayEquals(expectedTree.getInternalCount(), actualTree.getInternalCount());
+			assertArrayEquals(expectedTree.getCatBoundaries(), actualTree.getCatBoundaries());
+			assertArrayEquals(expectedTree.getCatThreshold(), actualTree.getCatThreshold());
+			assertEquals(expectedTree.isLinear(), actualTree.isLinear());
+
+			if(expectedTree.isLinear()){
+				assertArrayEquals(expectedTree.getLeafConst(), actualTree.getLeafConst());
+				assertArrayEquals(expectedTree.getLeafFeatures(), actualTree.getLeafFeatures());
+				assertArrayEquals(expectedTree.getLeafCoeff(), actualTree.getLeafCoeff());
+			}
+		}
+
+		for(double[] row : generateRows(expected, 100)){
+			assertArrayEquals(expected.predictRaw(row), actual.predictRaw(row));
+		}
+	}
+
+	static
+	public void checkPredict(GBDT gbdt, double[][] rows, Integer numIteration, Function<double[], double[]> function){
+
+		for(double[] row : rows){
+			assertArrayEquals(gbdt.predict(row, numIteration), function.apply(row));
+		}
+	}
+
+	static
+	public void checkPredictRaw(GBDT gbdt, double[][] rows, Integer numIteration, Function<double[], double[]> function){
+
+		for(double[] row : rows){
+			assertArrayEquals(gbdt.predictRaw(row, numIteration), function.apply(row));
+		}
+	}
+
+	public static final String[] MODEL_NAMES = {
+		"ClassificationAudit",
+		"ClassificationAuditBin",
+		"ClassificationAuditBinNA",
+		"ClassificationAuditNA",
+		"ClassificationIris",
+		"ClassificationIrisNA",
+		"ClassificationVersicolor",
+		"LinearTreeClassificationAudit",
+		"LinearTreeClassificationAuditNA",
+		"LinearTreeRegressionAuto",
+		"LinearTreeRegressionAutoNA",
+		"RFClassificationAudit",
+		"RFClassificationIris",
+		"RFRegressionAuto",
+		"RegressionAuto",
+		"RegressionAutoNA",
+		"RegressionHousing",
+		"RegressionHousingNA",
+		"RegressionVisit",
+		"RegressionVisitNA"
+	};
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JavaCodeGeneratorTest {
+
+	@Test
+	public void generate() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationIrisNA");
+
+		checkGenerate(gbdt, "com.mycompany", "IrisScorer", 100);
+	}
+
+	@Test
+	public void generateCategorical() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationAuditNA");
+
+		checkGenerate(gbdt, "com.mycompany", "AuditScorer", 100);
+	}
+
+	@Test
+	public void generateLarge() throws Exception {
+		// Large trees are split into subtree methods and tree classes, and many features are split into feature classes
+		GBDT gbdt = GBDTTestUtil.generateGBDT(6000, 120, 200);
+
+		String source = checkGenerate(gbdt, null, "LargeScorer", 10);
+
+		assertTrue(source.contains("static double tree0_"));
+		assertTrue(source.contains("static final class Trees1 "));
+		assertTrue(source.contains("static final class Features2 "));
+	}
+
+	static
+	private String checkGenerate(GBDT gbdt, String packageName, String className, int numRows) throws Exception {
+		Path directory = Files.createTempDirectory("lgbm");
+
+		try {
+			Writer writer = new StringWriter();
+
+			JavaCodeGenerator generator = new JavaCodeGenerator(gbdt, null);
+			generator.generate(packageName, className, writer);
+
+			String source = writer.toString();
+
+			File sourceFile = directory.resolve(className + ".java").toFile();
+
+			Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+			JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+			assertEquals(0, compiler.run(null, null, null, "-d", directory.toString(), sourceFile.getPath()));
+
+			try(URLClassLoader classLoader = new URLClassLoader(new URL[]{(directory.toUri()).toURL()}, null)){
+				Class<?> clazz = classLoader.loadClass(packageName != null ? (packageName + "." + className) : className);
+
+				Method predictMethod = clazz.getMethod("predict", double[].class);
+				Method toRowMethod = clazz.getMethod("toRow", Map.class);
+
+				String[] featureNames = gbdt.getFeatureNames();
+				List<List<?>> pandasCategories = gbdt.getPandasCategories();
+
+				for(double[] generatedRow : GBDTTestUtil.generateRows(gbdt, numRows)){
+					Map<String, Object> values = new LinkedHashMap<>();
+
+					double[] expectedRow = new double[featureNames.length];
+
+					for(int i = 0; i < featureNames.length; i++){
+						List<?> categories = pandasCategories.get(i);
+
+						double value = generatedRow[i];
+
+						if(Double.isNaN(value)){
+							values.put(featureNames[i], null);
+						} else
+
+						if(categories != null){
+							int index = (int)value;
+
+							// Non-integer values stand in for unknown category levels
+							if(index == value && index < categories.size()){
+								values.put(featureNames[i], categories.get(index));
+							} else
+
+							{
+								values.put(featureNames[i], "unknown");
+
+								value = Double.NaN;
+							}
+						} else
+
+						{
+							values.put(featureNames[i], value);
+						}
+
+						expectedRow[i] = value;
+					}
+
+					double[] row = (double[])toRowMethod.invoke(null, values);
+
+					assertArrayEquals(expectedRow, row);
+
+					assertArrayEquals(gbdt.predict(row), (double[])predictMethod.invoke(null, row));
+				}
+			}
+
+			return source;
+		} finally {
+			delete(directory);
+		}
+	}
+
+	static
+	private void delete(Path directory) throws IOException {
+		List<Path> paths;
+
+		try(Stream<Path> stream = Files.walk(directory)){
+			paths = stream
+				.sorted(Comparator.reverseOrder())
+				.collect(Collectors.toList());
+		}
+
+		for(Path path : paths){
+			Files.delete(path);
+		}
+	}
+}
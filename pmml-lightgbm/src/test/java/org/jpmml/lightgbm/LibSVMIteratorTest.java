@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LibSVMIteratorTest {
+
+	@Test
+	public void parse(){
+		String string = "1 0:1.5 3:-2\n" +
+			"\n" +
+			"0 qid:7 2:NaN\n" +
+			"  1:1e-3 4:null\n";
+
+		LibSVMIterator iterator = new LibSVMIterator(new BufferedReader(new StringReader(string)), 2);
+
+		SparseMatrix first = iterator.next();
+
+		assertEquals(2, first.getNumRows());
+		assertArrayEquals(new int[]{0, 2, 3}, first.getIndptr());
+		assertArrayEquals(new int[]{0, 3, 2}, first.getIndices());
+		assertArrayEquals(new double[]{1.5d, -2d, Double.NaN}, first.getValues());
+		assertArrayEquals(new double[]{1d, 0d}, first.getLabels());
+
+		SparseMatrix second = iterator.next();
+
+		assertEquals(1, second.getNumRows());
+		assertArrayEquals(new int[]{1, 4}, second.getIndices());
+		assertArrayEquals(new double[]{1e-3, Double.NaN}, second.getValues());
+		assertArrayEquals(new double[]{Double.NaN}, second.getLabels());
+
+		assertFalse(iterator.hasNext());
+
+		assertThrows(LightGBMException.class, () -> new LibSVMIterator(new BufferedReader(new StringReader("1 0:1 2")), 1).next());
+	}
+
+	@Test
+	public void predictAudit() throws Exception {
+		checkPredict("ClassificationAuditNA");
+	}
+
+	@Test
+	public void predictAuto() throws Exception {
+		checkPredict("LinearTreeRegressionAutoNA");
+	}
+
+	@Test
+	public void predictHousing() throws Exception {
+		checkPredict("RegressionHousingNA");
+	}
+
+	static
+	private void checkPredict(String name) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int length = 250;
+
+		double[][] rows = GBDTTestUtil.generateRows(gbdt, length);
+
+		StringBuilder sb = new StringBuilder();
+
+		for(int i = 0; i < length; i++){
+			sb.append(i % 2);
+
+			for(int j = 0; j < rows[i].length; j++){
+				double value = rows[i][j];
+
+				// Zero values are absent
+				if(value != 0d){
+					sb.append(' ').append(j).append(':').append(value);
+				}
+			}
+
+			sb.append('\n');
+		}
+
+		LibSVMIterator iterator = new LibSVMIterator(new BufferedReader(new StringReader(sb.toString())), 64);
+
+		// The scratch block of the scorer is reused between batches
+		SparseScorer scorer = new SparseScorer(gbdt);
+
+		int offset = 0;
+
+		while(iterator.hasNext()){
+			SparseMatrix matrix = iterator.next();
+
+			assertTrue(matrix.getNumRows() <= 64);
+
+			double[] result = scorer.predictRaw(matrix);
+
+			for(int i = 0; i < matrix.getNumRows(); i++){
+				assertArrayEquals(gbdt.predictRaw(rows[offset + i]), Arrays.copyOfRange(result, i * numTreePerIteration, (i + 1) * numTreePerIteration));
+			}
+
+			offset += matrix.getNumRows();
+		}
+
+		assertEquals(length, offset);
+	}
+}
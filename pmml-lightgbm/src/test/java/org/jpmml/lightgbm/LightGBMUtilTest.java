@@ -18,11 +18,46 @@
  */
 package org.jpmml.lightgbm;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.io.ByteStreams;
 import org.dmg.pmml.Interval;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LightGBMUtilTest {
 
@@ -57,6 +92,354 @@ public class LightGBMUtilTest {
 		assertEquals("puppy", regression.getName());
 	}
 
+	@Test
+	public void parseSections(){
+		List<String> lines = Arrays.asList("tree", "version=v4", "", "", "Tree=0", "num_leaves=1", "", "end of trees");
+
+		PeekingIterator<String> lineIt = Iterators.peekingIterator(lines.iterator());
+
+		Iterator<Section> sectionIt = LightGBMUtil.parseSections(lineIt);
+
+		assertTrue(sectionIt.hasNext());
+
+		Section section = sectionIt.next();
+
+		assertEquals("tree", section.id());
+		assertEquals("v4", section.get("version"));
+
+		assertEquals("", lineIt.peek());
+
+		section = sectionIt.next();
+
+		assertEquals("Tree=0", section.id());
+		assertEquals("end of trees", lineIt.peek());
+
+		section = sectionIt.next();
+
+		assertEquals("end of trees", section.id());
+
+		assertFalse(sectionIt.hasNext());
+	}
+
+	@Test
+	public void parseBufferSections() throws Exception {
+		byte[] bytes = "tree\nversion=v4\n\nTree=0\nnum_leaves=1\n\nTree=1\nnum_leaves=2\n\nend of trees\n".getBytes("US-ASCII");
+
+		Iterator<Section> sectionIt = LightGBMUtil.parseSections(new ByteArrayInputStream(bytes));
+
+		Section header = sectionIt.next();
+
+		assertEquals("tree", header.id());
+		assertEquals("v4", header.getOrDefault("version", null));
+		assertEquals("none", header.getOrDefault("objective", "none"));
+		assertEquals("v4", header.get("version"));
+
+		Section first = sectionIt.next();
+		Section second = sectionIt.next();
+
+		Map<String, String> entries = new LinkedHashMap<>();
+
+		first.forEach(entries::put);
+
+		assertEquals("1", entries.get("num_leaves"));
+
+		assertEquals("Tree=0", first.id());
+		assertEquals(1, first.getInt("num_leaves"));
+		assertEquals("Tree=1", second.id());
+		assertEquals(2, second.getInt("num_leaves"));
+
+		assertSame(Iterables.getLast(first.keySet()), Iterables.getLast(second.keySet()));
+
+		assertEquals("end of trees", sectionIt.next().id());
+
+		assertFalse(sectionIt.hasNext());
+	}
+
+	@Test
+	public void loadGBDTFromFile() throws Exception {
+
+		for(String name : GBDTTestUtil.MODEL_NAMES){
+			GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+			File file = writeTempFile(name, loadBytes(name));
+
+			GBDTTestUtil.checkEquals(gbdt, LightGBMUtil.loadGBDT(file));
+		}
+	}
+
+	@Test
+	public void loadGBDTFromWindowedFile() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationAuditNA");
+
+		byte[] bytes = loadBytes("ClassificationAuditNA");
+
+		// Windows that end at every position of a CRLF line terminator
+		byte[] crlfBytes = (new String(bytes, StandardCharsets.UTF_8)).replace("\n", "\r\n").getBytes(StandardCharsets.UTF_8);
+
+		for(byte[] fileBytes : new byte[][]{bytes, crlfBytes}){
+			File file = writeTempFile("ClassificationAuditNA", fileBytes);
+
+			try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+
+				for(long windowSize = 8190; windowSize <= 8194; windowSize++){
+					assertTrue(channel.size() > 10 * windowSize);
+
+					GBDT windowedGbdt = new GBDT();
+					windowedGbdt.load(new BufferSectionIterator(channel, windowSize));
+
+					GBDTTestUtil.checkEquals(gbdt, windowedGbdt);
+				}
+
+				// The header section does not fit into a single window
+				assertThrows(LightGBMException.class, () -> new GBDT().load(new BufferSectionIterator(channel, 1024)));
+			}
+		}
+	}
+
+	@Test
+	public void loadGBDTInParallel() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+			for(String name : GBDTTestUtil.MODEL_NAMES){
+				GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+				byte[] bytes = loadBytes(name);
+
+				File file = writeTempFile(name, bytes);
+
+				GBDTTestUtil.checkEquals(gbdt, LightGBMUtil.loadGBDT(file, pool));
+				GBDTTestUtil.checkEquals(gbdt, LightGBMUtil.loadGBDT(ByteBuffer.wrap(bytes), pool));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void loadGBDTWithInvalidTreeSizes() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationIrisNA");
+
+		String string = new String(loadBytes("ClassificationIrisNA"), StandardCharsets.UTF_8);
+
+		Matcher matcher = Pattern.compile("tree_sizes=(.*)\n").matcher(string);
+		assertTrue(matcher.find());
+
+		String[] treeSizes = (matcher.group(1)).split(" ");
+
+		assertEquals((gbdt.getTrees()).size(), treeSizes.length);
+
+		List<String[]> invalidTreeSizes = new ArrayList<>();
+
+		String[] swapped = treeSizes.clone();
+		swapped[0] = treeSizes[1];
+		swapped[1] = treeSizes[0];
+		invalidTreeSizes.add(swapped);
+
+		String[] shifted = treeSizes.clone();
+		shifted[0] = String.valueOf(Integer.parseInt(treeSizes[0]) + 1);
+		shifted[1] = String.valueOf(Integer.parseInt(treeSizes[1]) - 1);
+		invalidTreeSizes.add(shifted);
+
+		invalidTreeSizes.add(Arrays.copyOf(treeSizes, treeSizes.length - 1));
+
+		String[] extended = Arrays.copyOf(treeSizes, treeSizes.length + 1);
+		extended[treeSizes.length] = "10";
+		invalidTreeSizes.add(extended);
+
+		String[] negative = treeSizes.clone();
+		negative[0] = "-5";
+		invalidTreeSizes.add(negative);
+
+		String[] huge = treeSizes.clone();
+		huge[0] = String.valueOf(Integer.MAX_VALUE);
+		invalidTreeSizes.add(huge);
+
+		invalidTreeSizes.add(new String[0]);
+
+		List<String> strings = new ArrayList<>();
+
+		for(String[] invalid : invalidTreeSizes){
+			strings.add(string.replace(matcher.group(0), "tree_sizes=" + String.join(" ", invalid) + "\n"));
+		}
+
+		// Tree sizes count LF line terminators
+		strings.add(string.replace("\n", "\r\n"));
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+			for(String invalidString : strings){
+				byte[] bytes = invalidString.getBytes(StandardCharsets.UTF_8);
+
+				// Falls back to sequential loading
+				GBDTTestUtil.checkEquals(gbdt, LightGBMUtil.loadGBDT(ByteBuffer.wrap(bytes), pool));
+				GBDTTestUtil.checkEquals(gbdt, LightGBMUtil.loadGBDT(writeTempFile("ClassificationIrisNA", bytes), pool));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void loadLazyGBDT() throws Exception {
+		byte[] bytes;
+
+		try(InputStream is = LightGBMUtilTest.class.getResourceAsStream("/lgbm/ClassificationIris.txt")){
+			bytes = ByteStreams.toByteArray(is);
+		}
+
+		GBDT gbdt = LightGBMUtil.loadGBDT(bytes);
+		GBDT lazyGbdt = LightGBMUtil.loadLazyGBDT(ByteBuffer.wrap(bytes));
+
+		assertArrayEquals(gbdt.getFeatureNames(), lazyGbdt.getFeatureNames());
+
+		LazyTreeList lazyTrees = (LazyTreeList)lazyGbdt.getTrees();
+
+		assertEquals((gbdt.getTrees()).size(), lazyTrees.size());
+		assertEquals(0, lazyTrees.getLoadedCount());
+
+		Tree tree = lazyTrees.get(lazyTrees.size() - 1);
+
+		assertSame(tree, lazyTrees.get(lazyTrees.size() - 1));
+		assertEquals(1, lazyTrees.getLoadedCount());
+	}
+
+	@Test
+	public void loadGBDTSnapshot() throws Exception {
+
+		for(String name : GBDTTestUtil.MODEL_NAMES){
+			GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+			byte[] bytes = writeSnapshot(gbdt);
+
+			GBDT snapshotGbdt = LightGBMUtil.loadGBDTSnapshot(ByteBuffer.wrap(bytes));
+
+			ObjectiveFunction objectiveFunction = gbdt.getObjectiveFunction();
+
+			if(objectiveFunction != null){
+				assertEquals(objectiveFunction.getClass(), (snapshotGbdt.getObjectiveFunction()).getClass());
+
+				GBDTTestUtil.checkPredict(snapshotGbdt, GBDTTestUtil.generateRows(gbdt, 100), null, row -> gbdt.predict(row));
+			} else
+
+			{
+				assertNull(snapshotGbdt.getObjectiveFunction());
+			}
+
+			GBDTTestUtil.checkEquals(gbdt, snapshotGbdt);
+
+			File file = writeTempFile(name, bytes);
+
+			GBDTTestUtil.checkEquals(gbdt, LightGBMUtil.loadGBDTSnapshot(file));
+
+			assertArrayEquals(bytes, writeSnapshot(snapshotGbdt));
+		}
+	}
+
+	@Test
+	public void loadGBDTFromJson() throws Exception {
+		String json = "{\"name\":\"tree\",\"version\":\"v4\",\"num_class\":1,\"num_tree_per_iteration\":1,\"label_index\":0,\"max_feature_idx\":2,\"objective\":\"regression\",\"average_output\":false," +
+			"\"feature_names\":[\"x1\",\"x2\",\"x3\"],\"feature_infos\":{\"x1\":{\"min_value\":-1.5,\"max_value\":3,\"values\":[]},\"x3\":{\"min_value\":0,\"max_value\":40,\"values\":[40,0,3]}}," +
+			"\"tree_info\":[{\"tree_index\":0,\"num_leaves\":3,\"num_cat\":1,\"shrinkage\":1,\"tree_structure\":" +
+				"{\"split_index\":0,\"split_feature\":2,\"threshold\":\"0||40\",\"decision_type\":\"==\",\"default_left\":false,\"missing_type\":\"NaN\",\"internal_value\":0,\"internal_count\":10," +
+				"\"left_child\":{\"leaf_index\":0,\"leaf_value\":1.5,\"leaf_count\":4}," +
+				"\"right_child\":{\"split_index\":1,\"split_feature\":0,\"threshold\":0.5,\"decision_type\":\"<=\",\"default_left\":true,\"missing_type\":\"None\",\"internal_value\":-1,\"internal_count\":6," +
+					"\"left_child\":{\"leaf_index\":1,\"leaf_value\":-2,\"leaf_count\":3},\"right_child\":{\"leaf_index\":2,\"leaf_value\":0.25,\"leaf_count\":3}}}}]," +
+			"\"feature_importances\":{\"x1\":1,\"x3\":1},\"pandas_categorical\":null}";
+
+		GBDT gbdt = LightGBMUtil.loadGBDTFromJson(new StringReader(json));
+
+		assertArrayEquals(new String[]{"x1", "x2", "x3"}, gbdt.getFeatureNames());
+		assertArrayEquals(new String[]{"[-1.5:3]", "none", "40:0:3"}, gbdt.getFeatureInfos());
+		assertTrue(gbdt.getObjectiveFunction() instanceof Regression);
+		assertEquals(1, (gbdt.getTrees()).size());
+	}
+
+	@Test
+	public void loadGBDTFromJsonModel() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationAuditNA");
+		GBDT jsonGbdt;
+
+		try(InputStream is = LightGBMUtilTest.class.getResourceAsStream("/lgbm/ClassificationAuditNA.json")){
+			jsonGbdt = LightGBMUtil.loadGBDTFromJson(is);
+		}
+
+		assertArrayEquals(gbdt.getFeatureNames(), jsonGbdt.getFeatureNames());
+		assertArrayEquals(gbdt.getFeatureInfos(), jsonGbdt.getFeatureInfos());
+
+		List<Tree> trees = gbdt.getTrees();
+		List<Tree> jsonTrees = jsonGbdt.getTrees();
+
+		assertEquals(trees.size(), jsonTrees.size());
+
+		for(int i = 0; i < trees.size(); i++){
+			Tree tree = trees.get(i);
+			Tree jsonTree = jsonTrees.get(i);
+
+			assertArrayEquals(tree.getDecisionType(), jsonTree.getDecisionType());
+			assertArrayEquals(tree.getCatBoundaries(), jsonTree.getCatBoundaries());
+			assertArrayEquals(tree.getCatThreshold(), jsonTree.getCatThreshold());
+		}
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+
+		double[] row = new double[numFeatures];
+
+		for(int i = 0; i < 200; i++){
+
+			for(int j = 0; j < numFeatures; j++){
+				row[j] = ((i + j) % 5 == 0 ? Double.NaN : (i * 7 + j * 13) % 20);
+			}
+
+			assertArrayEquals(gbdt.predictRaw(row), jsonGbdt.predictRaw(row));
+		}
+	}
+
+	@Test
+	public void decompress() throws Exception {
+		byte[] bytes;
+
+		try(InputStream is = LightGBMUtilTest.class.getResourceAsStream("/lgbm/ClassificationIris.txt")){
+			bytes = ByteStreams.toByteArray(is);
+		}
+
+		ByteArrayOutputStream gzipBytes = new ByteArrayOutputStream();
+
+		try(OutputStream os = new GZIPOutputStream(gzipBytes)){
+			os.write(bytes);
+		}
+
+		ByteArrayOutputStream zlibBytes = new ByteArrayOutputStream();
+
+		try(OutputStream os = new DeflaterOutputStream(zlibBytes)){
+			os.write(bytes);
+		}
+
+		ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+
+		try(ZipOutputStream os = new ZipOutputStream(zipBytes)){
+			os.putNextEntry(new ZipEntry("model/"));
+			os.closeEntry();
+			os.putNextEntry(new ZipEntry("model/model.txt"));
+			os.write(bytes);
+			os.closeEntry();
+		}
+
+		byte[][] compressedBytes = {bytes, gzipBytes.toByteArray(), zlibBytes.toByteArray(), zipBytes.toByteArray()};
+
+		for(byte[] compressed : compressedBytes){
+
+			try(InputStream is = LightGBMUtil.decompress(new ByteArrayInputStream(compressed))){
+				assertArrayEquals(bytes, ByteStreams.toByteArray(is));
+			}
+		}
+
+		GBDT gbdt = LightGBMUtil.loadGBDT(new ByteArrayInputStream(gzipBytes.toByteArray()));
+
+		assertEquals((LightGBMUtil.loadGBDT(bytes).getTrees()).size(), (gbdt.getTrees()).size());
+	}
+
 	@Test
 	public void parseInterval(){
 		Interval interval = LightGBMUtil.parseInterval("[-inf:0]");
@@ -79,4 +462,31 @@ public class LightGBMUtilTest {
 		assertEquals("\u5426", LightGBMUtil.unescape("\\u5426"));
 		assertEquals("\u662f", LightGBMUtil.unescape("\\u662f"));
 	}
-}
\ No newline at end of file
+
+	static
+	private byte[] writeSnapshot(GBDT gbdt) throws IOException {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+		gbdt.writeSnapshot(os);
+
+		return os.toByteArray();
+	}
+
+	static
+	private byte[] loadBytes(String name) throws IOException {
+
+		try(InputStream is = LightGBMUtilTest.class.getResourceAsStream("/lgbm/" + name + ".txt")){
+			return ByteStreams.toByteArray(is);
+		}
+	}
+
+	static
+	private File writeTempFile(String name, byte[] bytes) throws IOException {
+		File file = File.createTempFile(name + "-", ".txt");
+		file.deleteOnExit();
+
+		Files.write(file.toPath(), bytes);
+
+		return file;
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MappedEnsembleTest {
+
+	@Test
+	public void predict() throws Exception {
+		checkPredict("ClassificationIrisNA");
+		checkPredict("LinearTreeClassificationAuditNA");
+		checkPredict("RegressionHousingNA");
+	}
+
+	static
+	private void checkPredict(String name) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		File file = File.createTempFile(name + "-", ".bin");
+		file.deleteOnExit();
+
+		MappedEnsemble.write(gbdt, file);
+
+		MappedEnsemble mappedEnsemble = MappedEnsemble.map(file);
+
+		assertEquals((gbdt.getTrees()).size(), mappedEnsemble.size());
+		assertEquals(gbdt.getNumTreePerIteration(), mappedEnsemble.getNumTreePerIteration());
+		assertArrayEquals(gbdt.getFeatureNames(), mappedEnsemble.getFeatureNames());
+
+		double[][] rows = GBDTTestUtil.generateRows(gbdt, 1000);
+
+		GBDTTestUtil.checkPredict(gbdt, rows, null, mappedEnsemble::predict);
+		GBDTTestUtil.checkPredictRaw(gbdt, rows, 5, row -> mappedEnsemble.predictRaw(row, 5));
+	}
+}
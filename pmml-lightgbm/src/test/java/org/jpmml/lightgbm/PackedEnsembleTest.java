@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PackedEnsembleTest {
+
+	@Test
+	public void pack() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationAudit");
+
+		List<Tree> trees = gbdt.getTrees();
+
+		PackedEnsemble ensemble = PackedEnsemble.pack(trees);
+
+		assertEquals(trees.size(), ensemble.size());
+		assertFalse(ensemble.hasStatistics());
+
+		for(int i = 0; i < trees.size(); i++){
+			Tree tree = trees.get(i);
+			Tree packedTree = ensemble.unpack(i);
+
+			assertEquals(tree.getNumLeaves(), packedTree.getNumLeaves());
+			assertArrayEquals(tree.getLeftChild(), packedTree.getLeftChild());
+			assertArrayEquals(tree.getThreshold(), packedTree.getThreshold());
+			assertArrayEquals(tree.getDecisionType(), packedTree.getDecisionType());
+			assertArrayEquals(tree.getLeafValue(), packedTree.getLeafValue());
+			assertArrayEquals(tree.getCatThreshold(), packedTree.getCatThreshold());
+
+			assertNull(packedTree.getLeafCount());
+		}
+
+		ensemble = PackedEnsemble.pack(trees, true);
+
+		assertTrue(ensemble.hasStatistics());
+		assertArrayEquals((trees.get(0)).getInternalCount(), (ensemble.unpack(0)).getInternalCount());
+	}
+
+	@Test
+	public void predict() throws Exception {
+		checkPredict("ClassificationAuditNA");
+		checkPredict("ClassificationIrisNA");
+		checkPredict("RFClassificationIris");
+		checkPredict("RegressionHousingNA");
+	}
+
+	@Test
+	public void predictLinearTree() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("LinearTreeClassificationAuditNA");
+
+		List<Tree> trees = gbdt.getTrees();
+
+		PackedEnsemble ensemble = PackedEnsemble.pack(gbdt, false);
+
+		for(int i = 0; i < trees.size(); i++){
+			Tree tree = trees.get(i);
+			Tree packedTree = ensemble.unpack(i);
+
+			assertEquals(tree.isLinear(), packedTree.isLinear());
+
+			if(tree.isLinear()){
+				assertArrayEquals(tree.getLeafConst(), packedTree.getLeafConst());
+				assertArrayEquals(tree.getLeafFeatures(), packedTree.getLeafFeatures());
+				assertArrayEquals(tree.getLeafCoeff(), packedTree.getLeafCoeff());
+			}
+		}
+
+		checkPredict("LinearTreeClassificationAuditNA");
+	}
+
+	@Test
+	public void narrowColumns(){
+		int[] intValues = {-128, 0, 127, -300, 0, 20000, -1, 70000, 5};
+		int[] intBounds = {0, 3, 6, 8, 8, 9};
+
+		PackedEnsemble.IntColumn intColumn = PackedEnsemble.IntColumn.create(intValues, intBounds);
+
+		assertEquals(Byte.BYTES, intColumn.getElementSize(0));
+		assertArrayEquals(new int[]{-128, 0, 127}, intColumn.get(0, 0, 3));
+		assertEquals(Short.BYTES, intColumn.getElementSize(1));
+		assertArrayEquals(new int[]{-300, 0, 20000}, intColumn.get(1, 3, 6));
+		assertEquals(Integer.BYTES, intColumn.getElementSize(2));
+		assertArrayEquals(new int[]{-1, 70000}, intColumn.get(2, 6, 8));
+		assertArrayEquals(new int[0], intColumn.get(3, 8, 8));
+		assertEquals(Byte.BYTES, intColumn.getElementSize(4));
+		assertEquals(5, intColumn.get(4, 8));
+
+		// Negative zero and NaN survive the narrowing
+		double[] doubleValues = {0.5d, -0d, Double.NaN, (double)1.1f, Double.NEGATIVE_INFINITY, 0.5d, 1.1d};
+		int[] doubleBounds = {0, 5, 7};
+
+		PackedEnsemble.DoubleColumn doubleColumn = PackedEnsemble.DoubleColumn.create(doubleValues, doubleBounds, false);
+
+		assertEquals(Float.BYTES, doubleColumn.getElementSize(0));
+		assertEquals(Double.BYTES, doubleColumn.getElementSize(1));
+		assertArrayEquals(Arrays.copyOfRange(doubleValues, 0, 5), doubleColumn.get(0, 0, 5));
+		assertArrayEquals(Arrays.copyOfRange(doubleValues, 5, 7), doubleColumn.get(1, 5, 7));
+
+		PackedEnsemble.DoubleColumn lossyColumn = PackedEnsemble.DoubleColumn.create(doubleValues, doubleBounds, true);
+
+		assertEquals(Float.BYTES, lossyColumn.getElementSize(1));
+		assertArrayEquals(new double[]{0.5d, (double)1.1f}, lossyColumn.get(1, 5, 7));
+	}
+
+	@Test
+	public void predictLossy() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("LinearTreeClassificationAuditNA");
+
+		PackedEnsemble ensemble = PackedEnsemble.pack(gbdt, false, true);
+
+		for(double[] row : GBDTTestUtil.generateRows(gbdt, 500)){
+			double[] expected = gbdt.predictRaw(row);
+			double[] actual = ensemble.predictRaw(row);
+
+			for(int i = 0; i < expected.length; i++){
+				assertEquals(expected[i], actual[i], 1e-5 * Math.max(1d, Math.abs(expected[i])));
+			}
+		}
+	}
+
+	@Test
+	public void statistics() throws Exception {
+		GBDT gbdt = repack("ClassificationIrisNA", false);
+
+		assertThrows(IllegalArgumentException.class, () -> new TreeSHAP(gbdt));
+		assertThrows(IllegalArgumentException.class, () -> new AnytimePredictor(gbdt));
+
+		GBDT statisticsGbdt = repack("ClassificationIrisNA", true);
+
+		new TreeSHAP(statisticsGbdt);
+		new AnytimePredictor(statisticsGbdt);
+	}
+
+	static
+	private void checkPredict(String name) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		PackedEnsemble ensemble = PackedEnsemble.pack(gbdt, false);
+
+		assertEquals((gbdt.getTrees()).size(), ensemble.size());
+
+		double[][] rows = GBDTTestUtil.generateRows(gbdt, 500);
+
+		GBDTTestUtil.checkPredict(gbdt, rows, null, ensemble::predict);
+		GBDTTestUtil.checkPredictRaw(gbdt, rows, 5, row -> ensemble.predictRaw(row, 5));
+	}
+
+	// Replaces the trees of a model with their packed and unpacked copies
+	static
+	private GBDT repack(String name, boolean statistics) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		List<Tree> trees = (PackedEnsemble.pack(gbdt.getTrees(), statistics)).unpack();
+
+		GBDT result = new GBDT();
+
+		try(InputStream is = PackedEnsembleTest.class.getResourceAsStream("/lgbm/" + name + ".txt")){
+			Iterator<Section> sections = LightGBMUtil.parseSections(is);
+
+			Section header = sections.next();
+
+			for(int i = 0; i < trees.size(); i++){
+				sections.next();
+			}
+
+			result.load(header, trees, sections);
+		}
+
+		return result;
+	}
+}
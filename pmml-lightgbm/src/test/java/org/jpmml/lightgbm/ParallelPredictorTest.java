@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class ParallelPredictorTest {
+
+	@Test
+	public void predict() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationIrisNA");
+
+		int length = 100;
+
+		double[][] rows = GBDTTestUtil.generateRows(gbdt, length);
+		double[][] columns = GBDTTestUtil.transpose(rows);
+
+		ForkJoinPool singlePool = new ForkJoinPool(1);
+		ForkJoinPool multiPool = new ForkJoinPool(4);
+
+		try {
+			ParallelPredictor singlePredictor = createPredictor(gbdt, singlePool);
+			ParallelPredictor multiPredictor = createPredictor(gbdt, multiPool);
+
+			assertArrayEquals(gbdt.predict(columns, 10, length - 10, null), multiPredictor.predict(columns, 10, length - 10, null));
+			assertArrayEquals(gbdt.predictRaw(columns, 0, length, 5), multiPredictor.predictRaw(columns, 0, length, 5));
+
+			assertArrayEquals(gbdt.predictLeaf(columns, 10, length - 10, null), multiPredictor.predictLeaf(columns, 10, length - 10, null));
+
+			for(double[] row : rows){
+				assertArrayEquals(gbdt.predict(row), multiPredictor.predict(row), 1e-13);
+				assertArrayEquals(gbdt.predictRaw(row, 5), multiPredictor.predictRaw(row, 5), 1e-13);
+
+				// Partial scores are summed in the same order regardless of the parallelism
+				assertArrayEquals(singlePredictor.predict(row), multiPredictor.predict(row));
+			}
+		} finally {
+			singlePool.shutdown();
+			multiPool.shutdown();
+		}
+	}
+
+	static
+	private ParallelPredictor createPredictor(GBDT gbdt, ForkJoinPool pool){
+		ParallelPredictor result = new ParallelPredictor(gbdt, pool);
+		result.setRowBlockSize(16);
+		result.setTreeChunkSize(10);
+
+		return result;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResidualEnsembleTest {
+
+	@Test
+	public void predictHousing() throws Exception {
+		Map<String, Double> fixedValues = new LinkedHashMap<>();
+		fixedValues.put("CRIM", Double.NaN);
+		fixedValues.put("LSTAT", 4.98d);
+		fixedValues.put("RM", 6.575d);
+		fixedValues.put("TAX", 296d);
+
+		checkPredict("RegressionHousingNA", fixedValues);
+	}
+
+	@Test
+	public void predictAudit() throws Exception {
+		Map<String, Double> fixedValues = new LinkedHashMap<>();
+		fixedValues.put("Age", 38d);
+		fixedValues.put("Education", 3d);
+		fixedValues.put("Income", Double.NaN);
+
+		checkPredict("LinearTreeClassificationAuditNA", fixedValues);
+	}
+
+	@Test
+	public void selectTopK(){
+		double[] scores = {0.5d, 2d, -1d, 2d, 1.5d};
+
+		assertArrayEquals(new int[]{1, 3, 4}, ResidualEnsemble.selectTopK(scores, 3));
+		assertArrayEquals(new int[]{1, 3, 4, 0, 2}, ResidualEnsemble.selectTopK(scores, 10));
+		assertArrayEquals(new int[0], ResidualEnsemble.selectTopK(scores, 0));
+	}
+
+	static
+	private void checkPredict(String name, Map<String, Double> fixedValues) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		ResidualEnsemble residualEnsemble = ResidualEnsemble.specialize(gbdt, fixedValues);
+
+		assertTrue(residualEnsemble.size() <= (gbdt.getTrees()).size());
+
+		String[] featureNames = gbdt.getFeatureNames();
+
+		int length = 200;
+
+		double[][] columns = GBDTTestUtil.generateColumns(gbdt, length);
+
+		for(int i = 0; i < featureNames.length; i++){
+
+			// The columns of fixed features are not needed
+			if(fixedValues.containsKey(featureNames[i])){
+				columns[i] = null;
+			}
+		}
+
+		double[] scores = residualEnsemble.predictRaw(columns, 0, length);
+
+		double[] row = new double[featureNames.length];
+
+		for(int j = 0; j < length; j++){
+
+			for(int i = 0; i < featureNames.length; i++){
+				Double fixedValue = fixedValues.get(featureNames[i]);
+
+				row[i] = (fixedValue != null ? fixedValue : columns[i][j]);
+			}
+
+			assertEquals(gbdt.predictRaw(row)[0], scores[j], 1e-12);
+			assertEquals(scores[j], residualEnsemble.predictRaw(row)[0]);
+		}
+
+		int[] expectedTopK = IntStream.range(0, length)
+			.boxed()
+			.sorted(Comparator.comparing((Integer index) -> -scores[index]).thenComparing(index -> index))
+			.limit(10)
+			.mapToInt(Integer::intValue)
+			.toArray();
+
+		assertEquals(Arrays.toString(expectedTopK), Arrays.toString(residualEnsemble.selectTopK(columns, 0, length, 10)));
+	}
+}
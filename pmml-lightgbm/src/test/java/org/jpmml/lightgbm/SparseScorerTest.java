@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SparseScorerTest {
+
+	@Test
+	public void predict() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationIrisNA");
+
+		SparseScorer scorer = new SparseScorer(gbdt);
+
+		double[][] rows = {
+			{1.4d, 0.2d, Double.NaN, 3.5d},
+			{4.7d, 0d, 7.0d, 0d},
+			{0d, 0d, 0d, 0d}
+		};
+
+		SparseMatrix first = new SparseMatrix(new int[]{0, 4}, new int[]{0, 1, 2, 3}, new double[]{1.4d, 0.2d, Double.NaN, 3.5d});
+		SparseMatrix all = new SparseMatrix(new int[]{0, 4, 6, 6}, new int[]{0, 1, 2, 3, 2, 0}, new double[]{1.4d, 0.2d, Double.NaN, 3.5d, 7.0d, 4.7d});
+
+		// The scratch block grows from one row to three rows, and is reused afterwards
+		checkPredict(gbdt, Arrays.copyOfRange(rows, 0, 1), scorer.predict(first));
+		checkPredict(gbdt, rows, scorer.predict(all));
+		checkPredict(gbdt, Arrays.copyOfRange(rows, 0, 1), scorer.predict(first));
+		checkPredict(gbdt, rows, scorer.predict(all));
+	}
+
+	@Test
+	public void predictInvalid() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("ClassificationIrisNA");
+
+		SparseScorer scorer = new SparseScorer(gbdt);
+
+		SparseMatrix invalid = new SparseMatrix(new int[]{0, 2, 4}, new int[]{0, 1, 2, -1}, new double[]{1.4d, 0.2d, 7.0d, 1d});
+
+		assertThrows(IllegalArgumentException.class, () -> scorer.predict(invalid));
+
+		// The values of the failed call must not leak into the next call
+		SparseMatrix empty = new SparseMatrix(new int[]{0, 0, 0}, new int[0], new double[0]);
+
+		checkPredict(gbdt, new double[][]{{0d, 0d, 0d, 0d}, {0d, 0d, 0d, 0d}}, scorer.predict(empty));
+	}
+
+	static
+	private void checkPredict(GBDT gbdt, double[][] rows, double[] result){
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		for(int i = 0; i < rows.length; i++){
+			assertArrayEquals(gbdt.predict(rows[i]), Arrays.copyOfRange(result, i * numTreePerIteration, (i + 1) * numTreePerIteration));
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026 Villu Ruusmann
+ *
+ * This file is part of JPMML-LightGBM
+ *
+ * JPMML-LightGBM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JPMML-LightGBM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with JPMML-LightGBM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.jpmml.lightgbm;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TreeSHAPTest {
+
+	@Test
+	public void predictContrib() throws Exception {
+		checkPredictContrib("ClassificationIrisNA");
+		checkPredictContrib("RegressionAutoNA");
+	}
+
+	@Test
+	public void predictContribExact() throws Exception {
+		checkPredictContribExact("ClassificationIrisNA", null);
+		checkPredictContribExact("ClassificationIrisNA", 5);
+		checkPredictContribExact("RegressionAutoNA", null);
+		checkPredictContribExact("RFClassificationIris", null);
+	}
+
+	@Test
+	public void linearTree() throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT("LinearTreeRegressionAutoNA");
+
+		assertThrows(IllegalArgumentException.class, () -> new TreeSHAP(gbdt));
+	}
+
+	static
+	private void checkPredictContrib(String name) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		TreeSHAP treeSHAP = new TreeSHAP(gbdt);
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+
+		int length = 100;
+
+		double[][] rows = GBDTTestUtil.generateRows(gbdt, length);
+		double[][] columns = GBDTTestUtil.transpose(rows);
+
+		double[] contribs = treeSHAP.predictContrib(columns, 0, length, null);
+
+		assertArrayEquals(contribs, treeSHAP.predictContrib(columns, 0, length, null, ForkJoinPool.commonPool()));
+
+		for(int j = 0; j < length; j++){
+			double[] row = rows[j];
+
+			double[] raw = gbdt.predictRaw(row);
+
+			double[][] rowContribs = treeSHAP.predictContrib(row);
+
+			assertEquals(numTreePerIteration, rowContribs.length);
+
+			for(int k = 0; k < numTreePerIteration; k++){
+				double sum = 0d;
+
+				for(double contrib : rowContribs[k]){
+					sum += contrib;
+				}
+
+				// Contributions add up to the raw score
+				assertEquals(raw[k], sum, 1e-12 * Math.max(1d, Math.abs(raw[k])));
+
+				for(int i = 0; i <= numFeatures; i++){
+					assertEquals(rowContribs[k][i], contribs[(j * numTreePerIteration + k) * (numFeatures + 1) + i]);
+				}
+			}
+		}
+	}
+
+	// Compares against Shapley values that are computed by enumerating all feature subsets
+	static
+	private void checkPredictContribExact(String name, Integer numIteration) throws Exception {
+		GBDT gbdt = GBDTTestUtil.loadGBDT(name);
+
+		TreeSHAP treeSHAP = new TreeSHAP(gbdt);
+
+		List<Tree> trees = gbdt.getTrees();
+
+		int numFeatures = (gbdt.getFeatureNames()).length;
+		int numTreePerIteration = gbdt.getNumTreePerIteration();
+		int numTrees = gbdt.getNumTrees(numIteration);
+
+		double[] factorials = new double[numFeatures + 1];
+		factorials[0] = 1d;
+
+		for(int i = 1; i <= numFeatures; i++){
+			factorials[i] = factorials[i - 1] * i;
+		}
+
+		for(double[] row : GBDTTestUtil.generateRows(gbdt, 20)){
+			double[][] expectedContribs = new double[numTreePerIteration][numFeatures + 1];
+
+			for(int t = 0; t < numTrees; t++){
+				Tree tree = trees.get(t);
+
+				double[] expectedContrib = expectedContribs[t % numTreePerIteration];
+
+				if(tree.isEmpty()){
+					expectedContrib[numFeatures] += (tree.getLeafValue())[0];
+
+					continue;
+				}
+
+				double[] values = new double[1 << numFeatures];
+
+				for(int subset = 0; subset < values.length; subset++){
+					values[subset] = expectedValue(tree, 0, row, subset);
+				}
+
+				expectedContrib[numFeatures] += values[0];
+
+				for(int i = 0; i < numFeatures; i++){
+
+					for(int subset = 0; subset < values.length; subset++){
+
+						if(((subset >>> i) & 1) == 1){
+							continue;
+						}
+
+						int size = Integer.bitCount(subset);
+
+						expectedContrib[i] += factorials[size] * factorials[numFeatures - size - 1] / factorials[numFeatures] * (values[subset | (1 << i)] - values[subset]);
+					}
+				}
+			}
+
+			ObjectiveFunction object_function_ = gbdt.getObjectiveFunction();
+			if(object_function_.getAverageOutput()){
+
+				for(double[] expectedContrib : expectedContribs){
+
+					for(int i = 0; i <= numFeatures; i++){
+						expectedContrib[i] /= (numTrees / numTreePerIteration);
+					}
+				}
+			}
+
+			double[][] contribs = treeSHAP.predictContrib(row, numIteration);
+
+			for(int k = 0; k < numTreePerIteration; k++){
+				assertArrayEquals(expectedContribs[k], contribs[k], 1e-10);
+			}
+		}
+	}
+
+	// The expected value of a tree when only the features of the subset are known.
+	// Unknown features follow both branches, weighted by their training data counts
+	static
+	private double expectedValue(Tree tree, int node, double[] row, int subset){
+
+		if(node < 0){
+			return (tree.getLeafValue())[~node];
+		}
+
+		int feature = (tree.getSplitFeature())[node];
+
+		if(((subset >>> feature) & 1) == 1){
+			return expectedValue(tree, tree.decision(row[feature], node), row, subset);
+		}
+
+		int left = (tree.getLeftChild())[node];
+		int right = (tree.getRightChild())[node];
+
+		return (count(tree, left) * expectedValue(tree, left, row, subset) + count(tree, right) * expectedValue(tree, right, row, subset)) / count(tree, node);
+	}
+
+	static
+	private double count(Tree tree, int node){
+		return (node < 0 ? (tree.getLeafCount())[~node] : (tree.getInternalCount())[node]);
+	}
+}